@@ -0,0 +1,299 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the recommendation hot paths, on the bundled MovieLens CSV files and without a database.
+ * Neighbourhoods are not cached, so every recommendation pays for the similarity scan.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}, see the {@code benchmark} profile.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class RecommendationBenchmarks {
+    private static final int TOP = 10;  // Recommendations per request, as in the controller.
+    private static final String[] KEYWORDS = { "star", "the ", "lord of", "(1995)", "zzzz" };   // Title searches in turn.
+    private static final String SNAPSHOT_ORIGIN = "benchmark";     // Origin of the benchmark snapshot.
+
+    @Param({ "sequential", "parallel", "vectorized" })
+    public String mode;
+
+    private CosineSimilarityService service;    // Model loaded from the CSV files.
+    private RatingMatrix ratings;               // Rating matrix of the service.
+    private GenreFeatures features;             // Genre features of the service.
+    private TagFeatures tags;                   // TF-IDF tag profiles of the service.
+    private long[] userIds;                     // Users requested in turn.
+    private double[] row;                       // Scratch row of genre similarities.
+    private List<Map<Integer, Double>> rowMaps; // Rating rows as maps, for the map-based reference cosine.
+    private UserLshIndex userIndex;             // LSH user index, with the default tables, bits and probes.
+    private TitleSearchIndex titleIndex;        // Title index of the bundled catalogue.
+    private Path snapshot;                      // Snapshot of the model, restored by snapshotRestore.
+    private int next;                           // Position in userIds.
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.service        = RecommendationBenchmarks.newService(this.mode);
+        this.service.initModel();
+        this.ratings        = ((RatingDecay.Matrices) ReflectionTestUtils.getField(this.service, "matrices")).ratings();
+        this.features       = (GenreFeatures) ReflectionTestUtils.getField(this.service, "movieFeatures");
+        this.tags           = (TagFeatures) ReflectionTestUtils.getField(this.service, "tagFeatures");
+        this.userIds        = new long[this.ratings.userCount()];
+        for(int u = 0; u < this.userIds.length; u++)
+            this.userIds[u] = this.ratings.users().idAt(u);
+        this.row            = new double[this.features.movieCount()];
+        this.rowMaps        = new ArrayList<Map<Integer, Double>>(this.ratings.userCount());
+        for(int u = 0; u < this.ratings.userCount(); u++) {
+            Map<Integer, Double> rowMap = new HashMap<Integer, Double>();
+            for(int k = this.ratings.rowStart(u); k < this.ratings.rowEnd(u); k++)
+                rowMap.put(this.ratings.rowMovies(u)[k], (double) this.ratings.rowRatings(u)[k]);
+            this.rowMaps.add(rowMap);
+        }
+        try(InputStream in = RecommendationBenchmarks.class.getResourceAsStream("/data/movies.csv")) {
+            this.titleIndex = TitleSearchIndex.build(MovieLensCsv.readMovies(in));
+        }
+        this.userIndex      = UserLshIndex.build(this.ratings, 64, 10, 4, 42L);
+        this.snapshot       = Files.createTempFile("recommendation-benchmark", ".snapshot");
+        ModelSnapshot.write(this.snapshot, RecommendationBenchmarks.SNAPSHOT_ORIGIN, this.ratings, this.features,
+                            (ItemSimilarityIndex) ReflectionTestUtils.getField(this.service, "itemIndex"),
+                            (ItemSimilarityIndex) ReflectionTestUtils.getField(this.service, "ratingItemIndex"),
+                            (MatrixFactorization) ReflectionTestUtils.getField(this.service, "factorization"),
+                            new ModelSnapshot.Settings(50, 0.5, 50, 16, 10, 0.2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.service.shutdown();
+        Files.deleteIfExists(this.snapshot);
+    }
+
+    /**
+     * Cosine similarity of one user to every user.
+     */
+    @Benchmark
+    public double cosineSimilarity() {
+        int target          = this.nextUser();
+        double sum          = 0.0;
+        for(int u = 0; u < this.ratings.userCount(); u++)
+            sum             += CosineKernel.cosine(this.ratings, target, u);
+        return sum;
+    }
+
+    /**
+     * Cosine similarity of one user to every user over hash maps, the implementation the sorted-merge kernel replaced.
+     */
+    @Benchmark
+    public double referenceCosineSimilarity() {
+        Map<Integer, Double> user = this.rowMaps.get(this.nextUser());
+        double sum          = 0.0;
+        for(Map<Integer, Double> otherUser : this.rowMaps) {
+            Set<Integer> commonMovies = new HashSet<Integer>(user.keySet());
+            commonMovies.retainAll(otherUser.keySet());
+            if(commonMovies.isEmpty())
+                continue;
+            double dotProduct = 0.0, userNorm = 0.0, otherUserNorm = 0.0;
+            for(Integer movie : commonMovies)
+                dotProduct  += user.get(movie) * otherUser.get(movie);
+            for(double userRate : user.values())
+                userNorm    += userRate * userRate;
+            for(double otherUserRate : otherUser.values())
+                otherUserNorm += otherUserRate * otherUserRate;
+            sum             += dotProduct / (Math.sqrt(userNorm) * Math.sqrt(otherUserNorm));
+        }
+        return sum;
+    }
+
+    /**
+     * Pearson correlation of one user to every user, to compare with {@link #cosineSimilarity()}.
+     */
+    @Benchmark
+    public double pearsonSimilarity() {
+        int target          = this.nextUser();
+        double sum          = 0.0;
+        for(int u = 0; u < this.ratings.userCount(); u++)
+            sum             += CosineKernel.pearson(this.ratings, target, u);
+        return sum;
+    }
+
+    /**
+     * Ten most similar users to one user through the LSH index, to compare with the exact {@link #cosineSimilarity()} scan.
+     */
+    @Benchmark
+    public TopK lshSimilarUsers() {
+        int target          = this.nextUser();
+        return this.userIndex.query(this.ratings, target, RecommendationBenchmarks.TOP, u -> CosineKernel.cosine(this.ratings, target, u));
+    }
+
+    /**
+     * Substring search of the titles, at most 50 matches.
+     */
+    @Benchmark
+    public List<Movie> titleSearch() {
+        String keyword      = RecommendationBenchmarks.KEYWORDS[this.nextUser() % RecommendationBenchmarks.KEYWORDS.length];
+        return this.titleIndex.contains(keyword, 50);
+    }
+
+    /**
+     * Genre similarity of one movie to every movie, with the kernel of the execution mode.
+     */
+    @Benchmark
+    public double[] vectorCosineSimilarity() {
+        int movie           = this.nextUser() % this.features.movieCount();
+        if("vectorized".equals(this.mode))
+            VectorKernels.genreSimilarities(this.features.masks(), this.features.inverseNorms(), movie, this.row);
+        else
+            this.features.similarities(movie, this.row);
+        return this.row;
+    }
+
+    /**
+     * Tag similarity of one movie to every movie, visiting only the movies sharing a tag, to compare with {@link #vectorCosineSimilarity()}.
+     */
+    @Benchmark
+    public double[] tagSimilarity() {
+        int movie           = this.nextUser() % this.features.movieCount();
+        Arrays.fill(this.row, 0.0);
+        this.tags.addSimilarities(movie, 1.0, this.row);
+        return this.row;
+    }
+
+    @Benchmark
+    public List<Long> recommendMovies() {
+        return this.service.recommendMovies(this.userIds[this.nextUser()], RecommendationBenchmarks.TOP);
+    }
+
+    @Benchmark
+    public List<Long> recommendMoviesHybrid() {
+        return this.service.recommendMoviesHybrid(this.userIds[this.nextUser()], RecommendationBenchmarks.TOP);
+    }
+
+    @Benchmark
+    public List<Long> recommendMoviesItem() {
+        return this.service.recommend(RecommendationAlgorithm.ITEM, this.userIds[this.nextUser()], RecommendationBenchmarks.TOP).movieIds();
+    }
+
+    @Benchmark
+    public List<Long> recommendMoviesFactorization() {
+        return this.service.recommend(RecommendationAlgorithm.FACTORIZATION, this.userIds[this.nextUser()], RecommendationBenchmarks.TOP).movieIds();
+    }
+
+    /**
+     * Parsing of ratings.csv into a rating matrix.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public RatingMatrix readRatingsCsv() throws IOException {
+        try(InputStream in = RecommendationBenchmarks.class.getResourceAsStream("/data/ratings.csv")) {
+            return MovieLensCsv.readRatings(in, new IdIndex(), new IdIndex());
+        }
+    }
+
+    /**
+     * Restore of the model snapshot: checksum, decoding and dictionaries, the startup path when the snapshot is current.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public ModelSnapshot.Model snapshotRestore() throws IOException {
+        return ModelSnapshot.read(this.snapshot, RecommendationBenchmarks.SNAPSHOT_ORIGIN, new IdIndex(), new IdIndex());
+    }
+
+    /**
+     * ALS training on every rating, with the default factors, iterations and regularization.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public MatrixFactorization factorizationTraining() {
+        return MatrixFactorization.train(this.ratings, 16, 10, 0.2, 42L);
+    }
+
+    /**
+     * Full model build: CSV parsing, rating matrix, genre features and item similarity index.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public CosineSimilarityService modelBuild() {
+        CosineSimilarityService built = RecommendationBenchmarks.newService(this.mode);
+        built.initModel();
+        built.shutdown();
+        return built;
+    }
+
+    private int nextUser() {
+        this.next           = this.next + 1 == this.userIds.length ? 0 : this.next + 1;
+        return this.next;
+    }
+
+    /**
+     * Create a service reading the bundled CSV files, configured as application.properties would.
+     *
+     * @param mode  Execution mode.
+     * @return      The service, model not loaded yet.
+     */
+    private static CosineSimilarityService newService(String mode) {
+        CosineSimilarityService service = new CosineSimilarityService(null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "modelSource", ModelSource.CSV);
+        ReflectionTestUtils.setField(service, "dataLocation", "classpath:data/");
+        ReflectionTestUtils.setField(service, "snapshotPath", "");
+        ReflectionTestUtils.setField(service, "itemNeighbours", 50);
+        ReflectionTestUtils.setField(service, "tagWeight", 0.5);
+        ReflectionTestUtils.setField(service, "itemCfNeighbours", 50);
+        ReflectionTestUtils.setField(service, "factorCount", 16);
+        ReflectionTestUtils.setField(service, "factorIterations", 10);
+        ReflectionTestUtils.setField(service, "factorRegularization", 0.2);
+        ReflectionTestUtils.setField(service, "coldStartRatings", 3);
+        ReflectionTestUtils.setField(service, "popularityPrior", 0.0);
+        ReflectionTestUtils.setField(service, "popularityRefresh", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "decayHalfLife", Duration.ZERO);
+        ReflectionTestUtils.setField(service, "decayRefresh", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "executionMode", ExecutionMode.valueOf(mode.toUpperCase()));
+        ReflectionTestUtils.setField(service, "parallelism", 0);
+        ReflectionTestUtils.setField(service, "neighbourSearch", NeighbourSearch.EXACT);
+        ReflectionTestUtils.setField(service, "neighbourCacheSize", 0L);
+        ReflectionTestUtils.setField(service, "compactionThreshold", 0.1);
+        ReflectionTestUtils.setField(service, "similarityMode", SimilarityMode.COSINE);
+        ReflectionTestUtils.setField(service, "significanceThreshold", 50);
+        return service;
+    }
+}
@@ -1,13 +1,22 @@
 package com.recommendation_system.mvc.controller;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recommendation_system.mvc.controller.service.MovieCatalogService;
 import com.recommendation_system.mvc.controller.service.MovieRepository;
+import com.recommendation_system.mvc.controller.service.MovieSearchService;
 import com.recommendation_system.mvc.model.entity.Movie;
 import java.util.List;
 
@@ -20,19 +29,33 @@ import java.util.List;
 @RestController
 @RequestMapping("/movies")
 public class MovieController {
+    private static final int MAX_PAGE_SIZE          = 1000;     // Largest page served by /movies/page.
+    private static final int MAX_SEARCH_RESULTS     = 1000;     // Largest limit of /movies/search.
+
     private final MovieRepository movieRepository;  // Repository for Movie entity.
+    private final MovieCatalogService movieCatalog; // Paginated and streamed catalogue.
+    private final MovieSearchService movieSearch;   // In-memory title search.
+    private final ObjectMapper objectMapper;        // JSON mapper of the streamed movies.
 
     /**
      * Constructor with dependency injection.
      * 
      * @param movieRepository   Repository for Movie entity.
+     * @param movieCatalog      Paginated and streamed catalogue.
+     * @param movieSearch       In-memory title search.
+     * @param objectMapper      JSON mapper of the streamed movies.
      */
-    public MovieController(MovieRepository movieRepository) {
-        this.movieRepository = movieRepository;
+    public MovieController( MovieRepository movieRepository, MovieCatalogService movieCatalog, MovieSearchService movieSearch,
+                            ObjectMapper objectMapper) {
+        this.movieRepository    = movieRepository;
+        this.movieCatalog       = movieCatalog;
+        this.movieSearch        = movieSearch;
+        this.objectMapper       = objectMapper;
     }
 
     /**
      * Get all movies.
+     * Loads the whole catalogue in memory, prefer /movies/page or /movies/stream for large catalogues.
      * 
      * @return  List of all movies.
      */
@@ -42,14 +65,54 @@ public class MovieController {
     }
 
     /**
-     * Search movies by title keyword.
+     * Get one page of movies ordered by ID.
+     * 
+     * @param after     Movies with an ID greater than this one are returned (default is the first page).
+     * @param limit     Number of movies per page (default is 100, at most 1000).
+     * @return          The movies and the after value of the next page, null on the last page.
+     */
+    @GetMapping("/page")
+    public MovieCatalogService.MoviePage getMoviePage(  @RequestParam(defaultValue = "0") long after,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        if(limit < 1 || limit > MovieController.MAX_PAGE_SIZE)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MovieController.MAX_PAGE_SIZE);
+        return movieCatalog.page(after, limit);
+    }
+
+    /**
+     * Stream all movies ordered by ID as one JSON array, same shape as {@link #getAllMovies()}.
+     * Movies are written as they are read from the database, so memory does not grow with the catalogue.
+     * The content type is set on the response, a bare streaming body would be sent without one.
+     * 
+     * @return  JSON array of all movies.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMovies() {
+        StreamingResponseBody body  = out -> {
+            try(JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                movieCatalog.streamAll(json::writeObject);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Search movies by title keyword, ignoring case and accents, from the in-memory title index.
      * 
      * @param keyword   Keyword to search in movie titles.
-     * @return          List of movies with titles containing the keyword.
+     * @param prefix    True to match the start of title words, as for autocompletion (default is false).
+     * @param limit     Maximum number of movies (default is 100, at most 1000).
+     * @return          List of movies with titles containing the keyword, ordered by ID.
      */
     @GetMapping("/search")
-    public List<Movie> searchMovies(@RequestParam String keyword) {
-        return movieRepository.findByTitleContaining(keyword);
+    public List<Movie> searchMovies(@RequestParam String keyword,
+                                    @RequestParam(defaultValue = "false") boolean prefix,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        if(limit < 1 || limit > MovieController.MAX_SEARCH_RESULTS)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MovieController.MAX_SEARCH_RESULTS);
+        return movieSearch.search(keyword, prefix, limit);
     }
 
     /**
@@ -60,6 +123,8 @@ public class MovieController {
      */
     @PostMapping
     public Movie addMovie(@RequestBody Movie movie) {
-        return movieRepository.save(movie);
+        Movie saved             = movieRepository.save(movie);
+        movieSearch.add(saved);
+        return saved;
     }
 }
\ No newline at end of file
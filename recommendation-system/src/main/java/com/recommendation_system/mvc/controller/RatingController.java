@@ -0,0 +1,71 @@
+package com.recommendation_system.mvc.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.recommendation_system.mvc.controller.service.RatingWriteService;
+import com.recommendation_system.mvc.model.entity.Rating;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Controller for writing ratings.
+ * New ratings are persisted, then applied incrementally to the in-memory recommendation model.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@RestController
+@RequestMapping("/ratings")
+public class RatingController {
+    private static final double MIN_RATING  = 0.5;  // Lowest accepted rating.
+    private static final double MAX_RATING  = 5.0;  // Highest accepted rating.
+
+    private final RatingWriteService ratingWriteService;    // Upserts ratings and updates the model.
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param ratingWriteService    Upserts ratings and updates the model.
+     */
+    public RatingController(RatingWriteService ratingWriteService) {
+        this.ratingWriteService     = ratingWriteService;
+    }
+
+    /**
+     * Add a new rating.
+     *
+     * @param rating    Rating object to be added.
+     * @return          The saved rating object.
+     */
+    @PostMapping
+    public Rating addRating(@RequestBody Rating rating) {
+        return this.addRatings(List.of(rating)).get(0);
+    }
+
+    /**
+     * Add several ratings at once.
+     * A rating for a movie the user already rated replaces the stored one, and within a batch the last one wins.
+     *
+     * @param ratings   Rating objects to be added.
+     * @return          The saved rating objects, one per user and movie.
+     */
+    @PostMapping("/batch")
+    public List<Rating> addRatings(@RequestBody List<Rating> ratings) {
+        long now                    = Instant.now().getEpochSecond();
+        for(Rating rating : ratings) {
+            if(rating.getUserId() == null || rating.getMovieId() == null || rating.getRating() == null)
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId, movieId and rating are required");
+            if(rating.getRating() < RatingController.MIN_RATING || rating.getRating() > RatingController.MAX_RATING)
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rating must be between " + RatingController.MIN_RATING + " and " + RatingController.MAX_RATING);
+            if(rating.getTimestamp() == null)
+                rating.setTimestamp(now);
+        }
+        return ratingWriteService.upsert(ratings);
+    }
+}
@@ -1,12 +1,31 @@
 package com.recommendation_system.mvc.controller;
 
 import com.recommendation_system.mvc.controller.service.CosineSimilarityService;
+import com.recommendation_system.mvc.controller.service.GenreFilter;
+import com.recommendation_system.mvc.controller.service.RecommendationAlgorithm;
+import com.recommendation_system.mvc.controller.service.RecommendationCache;
+import com.recommendation_system.mvc.controller.service.RecommendationExecutor;
+import com.recommendation_system.mvc.controller.service.RecommendationNdjson;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller for movie recommendations using cosine similarity.
+ * Scoring runs on the bounded {@link RecommendationExecutor}, so request threads are released while it runs
+ * and a saturated executor is answered with 503 instead of a growing queue.
  * 
  * @author Daniele Vencato
  * @since 2024-06
@@ -14,42 +33,162 @@ import java.util.List;
 @RestController
 @RequestMapping("/recommendations")
 public class RecommendationController {
+    private static final String RETRY_AFTER_SECONDS     = "1";  // Retry-After of an overload response.
 
-    // Service for cosine similarity recommendations.
-    private final CosineSimilarityService cosineSimilarityService;
+    // Cached access to the cosine similarity recommendations.
+    private final RecommendationCache recommendationCache;
+    private final CosineSimilarityService cosineSimilarityService;     // Uncached model, for batches.
+    private final RecommendationExecutor recommendationExecutor;       // Bounded executor for scoring.
 
     /**
      * Constructor with dependency injection.
      * 
-     * @param cosineSimilarityService   Service for cosine similarity recommendations.
+     * @param recommendationCache       Cached access to the cosine similarity recommendations.
+     * @param cosineSimilarityService   Uncached model, for batches.
+     * @param recommendationExecutor    Bounded executor for scoring.
      */
-    public RecommendationController(CosineSimilarityService cosineSimilarityService) {
-        this.cosineSimilarityService = cosineSimilarityService;
+    public RecommendationController(RecommendationCache recommendationCache, CosineSimilarityService cosineSimilarityService,
+                                    RecommendationExecutor recommendationExecutor) {
+        this.recommendationCache        = recommendationCache;
+        this.cosineSimilarityService    = cosineSimilarityService;
+        this.recommendationExecutor     = recommendationExecutor;
     }
 
     /** 
      * Get movie recommendations for a user based on cosine similarity.
      * 
-     * @param userId    ID of the user to get recommendations for.
-     * @param top       Number of top recommendations to return (default is 5).
-     * @return          List of recommended movie IDs.
+     * @param userId        ID of the user to get recommendations for.
+     * @param top           Number of top recommendations to return (default is 5).
+     * @param genre         Genres of the recommended movies, repeated or comma-separated (default is any genre).
+     * @param genreMatch    any if a movie needs one of the genres, all if it needs every genre (default is any).
+     * @return              Future list of recommended movie IDs.
      */
     @GetMapping("/cosine/{userId}")
-    public List<Long> getRecommendations(   @PathVariable Long userId,
-                                            @RequestParam(defaultValue = "5") int top) {
-        return cosineSimilarityService.recommendMovies(userId, top);
+    public CompletableFuture<List<Long>> getRecommendations(   @PathVariable Long userId,
+                                                               @RequestParam(defaultValue = "5") int top,
+                                                               @RequestParam(required = false) List<String> genre,
+                                                               @RequestParam(defaultValue = "any") String genreMatch) {
+        return recommendationCache.recommendAsync(RecommendationAlgorithm.COSINE, userId, top, RecommendationController.genreFilter(genre, genreMatch), recommendationExecutor);
     }
 
     /**
      * Get hybrid recommendations for a user.
      * 
-     * @param userId    ID of the user to get recommendations for.
-     * @param top       Number of top recommendations to return (default is 5).
-     * @return          List of recommended movie IDs.
+     * @param userId        ID of the user to get recommendations for.
+     * @param top           Number of top recommendations to return (default is 5).
+     * @param genre         Genres of the recommended movies, repeated or comma-separated (default is any genre).
+     * @param genreMatch    any if a movie needs one of the genres, all if it needs every genre (default is any).
+     * @return              Future list of recommended movie IDs.
      */
        @GetMapping("/hybrid/{userId}")
-    public List<Long> getHybridRecommendations( @PathVariable Long userId,
-                                                @RequestParam(defaultValue = "5") int top) {
-        return cosineSimilarityService.recommendMoviesHybrid(userId, top);
+    public CompletableFuture<List<Long>> getHybridRecommendations( @PathVariable Long userId,
+                                                                   @RequestParam(defaultValue = "5") int top,
+                                                                   @RequestParam(required = false) List<String> genre,
+                                                                   @RequestParam(defaultValue = "any") String genreMatch) {
+        return recommendationCache.recommendAsync(RecommendationAlgorithm.HYBRID, userId, top, RecommendationController.genreFilter(genre, genreMatch), recommendationExecutor);
+    }
+
+    /**
+     * Get item-based recommendations for a user, from the precomputed rating neighbourhoods of the movies they rated.
+     * 
+     * @param userId        ID of the user to get recommendations for.
+     * @param top           Number of top recommendations to return (default is 5).
+     * @param genre         Genres of the recommended movies, repeated or comma-separated (default is any genre).
+     * @param genreMatch    any if a movie needs one of the genres, all if it needs every genre (default is any).
+     * @return              Future list of recommended movie IDs.
+     */
+    @GetMapping("/item/{userId}")
+    public CompletableFuture<List<Long>> getItemRecommendations(   @PathVariable Long userId,
+                                                                   @RequestParam(defaultValue = "5") int top,
+                                                                   @RequestParam(required = false) List<String> genre,
+                                                                   @RequestParam(defaultValue = "any") String genreMatch) {
+        return recommendationCache.recommendAsync(RecommendationAlgorithm.ITEM, userId, top, RecommendationController.genreFilter(genre, genreMatch), recommendationExecutor);
+    }
+
+    /**
+     * Get latent-factor recommendations for a user, from the matrix factorization model.
+     * 
+     * @param userId        ID of the user to get recommendations for.
+     * @param top           Number of top recommendations to return (default is 5).
+     * @param genre         Genres of the recommended movies, repeated or comma-separated (default is any genre).
+     * @param genreMatch    any if a movie needs one of the genres, all if it needs every genre (default is any).
+     * @return              Future list of recommended movie IDs.
+     */
+    @GetMapping("/factorization/{userId}")
+    public CompletableFuture<List<Long>> getFactorizationRecommendations(  @PathVariable Long userId,
+                                                                           @RequestParam(defaultValue = "5") int top,
+                                                                           @RequestParam(required = false) List<String> genre,
+                                                                           @RequestParam(defaultValue = "any") String genreMatch) {
+        return recommendationCache.recommendAsync(RecommendationAlgorithm.FACTORIZATION, userId, top, RecommendationController.genreFilter(genre, genreMatch), recommendationExecutor);
+    }
+
+    /**
+     * Get recommendations for many users at once, streamed as one NDJSON line per user.
+     * Results bypass the cache, so a bulk export does not evict interactive entries. Users are scored on the bounded
+     * executor under a batch permit, and a request finding every permit taken gets 503.
+     *
+     * @param userIds       IDs of the users to get recommendations for.
+     * @param algorithm     Recommendation algorithm, cosine, hybrid, item or factorization (default is cosine).
+     * @param top           Number of top recommendations per user (default is 5).
+     * @return              Lines {@code {"userId":..,"movieIds":[..]}} in the order of userIds.
+     */
+    @PostMapping(value = "/batch", produces = RecommendationNdjson.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> getBatchRecommendations(   @RequestBody List<Long> userIds,
+                                                                            @RequestParam(defaultValue = "cosine") String algorithm,
+                                                                            @RequestParam(defaultValue = "5") int top) {
+        RecommendationAlgorithm selected;
+        try {
+            selected                    = RecommendationAlgorithm.valueOf(algorithm.toUpperCase());
+        }
+        catch(IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown algorithm " + algorithm);
+        }
+        if(userIds.contains(null))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must not contain null");
+
+        long[] ids                      = userIds.stream().mapToLong(Long::longValue).toArray();
+        recommendationExecutor.acquireBatch();
+        StreamingResponseBody body      = out -> {
+            try {
+                Writer writer           = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                cosineSimilarityService.recommendBatch(selected, ids, top,
+                        (userId, recommendations) -> RecommendationNdjson.writeLine(writer, userId, recommendations.movieIds()),
+                        recommendationExecutor);
+                writer.flush();
+            }
+            finally {
+                recommendationExecutor.releaseBatch();
+            }
+        };
+        // A bare streaming body would be sent without a content type.
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(RecommendationNdjson.MEDIA_TYPE)).body(body);
+    }
+
+    /**
+     * Answer 503 when the scoring executor is saturated, so clients back off instead of queueing.
+     *
+     * @param e     Rejection of the executor.
+     * @return      Service unavailable, with a Retry-After hint.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> overloaded(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, RecommendationController.RETRY_AFTER_SECONDS)
+                                .body("recommendation service overloaded, retry later");
+    }
+
+    /**
+     * Parse the genre filter parameters.
+     *
+     * @param genres        Requested genres, may be null.
+     * @param genreMatch    any or all.
+     * @return              The genre filter.
+     */
+    private static GenreFilter genreFilter(List<String> genres, String genreMatch) {
+        return switch(genreMatch.toLowerCase()) {
+            case "any" -> GenreFilter.of(genres, false);
+            case "all" -> GenreFilter.of(genres, true);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "genreMatch must be any or all");
+        };
     }
 }
\ No newline at end of file
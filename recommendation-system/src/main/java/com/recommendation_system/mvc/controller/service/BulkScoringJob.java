@@ -0,0 +1,71 @@
+package com.recommendation_system.mvc.controller.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Offline job scoring every user of the model into an NDJSON file, one line per user.
+ * Runs once at startup when {@code recommendation.batch.output} is set; combined with
+ * {@code spring.main.web-application-type=none} the application exits when the file is written.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@Component
+@ConditionalOnProperty("recommendation.batch.output")
+public class BulkScoringJob implements ApplicationRunner {
+    private static final Logger LOG                 = LoggerFactory.getLogger(BulkScoringJob.class);
+
+    private final CosineSimilarityService recommender;      // Model scoring the users.
+    private final Path output;                              // Destination file.
+    private final RecommendationAlgorithm algorithm;        // Recommendation algorithm.
+    private final int top;                                  // Recommendations per user.
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param recommender   Model scoring the users.
+     * @param output        Destination file, replaced once complete.
+     * @param algorithm     Recommendation algorithm.
+     * @param top           Recommendations per user.
+     */
+    public BulkScoringJob(  CosineSimilarityService recommender,
+                            @Value("${recommendation.batch.output}") Path output,
+                            @Value("${recommendation.batch.algorithm:cosine}") RecommendationAlgorithm algorithm,
+                            @Value("${recommendation.batch.top:10}") int top) {
+        this.recommender    = recommender;
+        this.output         = output;
+        this.algorithm      = algorithm;
+        this.top            = top;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long start                  = System.nanoTime();
+        long[] userIds              = this.recommender.userIds();
+
+        // Write next to the destination, so readers never see a partial file.
+        Path temporary              = this.output.resolveSibling(this.output.getFileName() + ".tmp");
+        try(Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            this.recommender.recommendBatch(this.algorithm, userIds, this.top,
+                    (userId, recommendations) -> RecommendationNdjson.writeLine(writer, userId, recommendations.movieIds()));
+        }
+        Files.move(temporary, this.output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        double seconds              = (System.nanoTime() - start) / 1e9;
+        LOG.info("Scored {} users with {} into {} in {} ms ({} users/s)", userIds.length, this.algorithm, this.output,
+                    Math.round(seconds * 1000), Math.round(userIds.length / seconds));
+    }
+}
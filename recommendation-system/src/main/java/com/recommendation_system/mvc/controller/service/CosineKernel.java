@@ -0,0 +1,219 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free kernels for cosine similarity over sorted sparse rows:
+ * raw cosine, and cosine of mean-centered ratings (Pearson, adjusted cosine, significance-weighted),
+ * between users, and raw cosine between the rating columns of movies.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class CosineKernel {
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private CosineKernel() {
+    }
+
+    /**
+     * Dot product of two sparse rows whose indices are sorted ascending.
+     * The rows are merged with two pointers, so only common indices contribute.
+     *
+     * @param aIdx      Indices of the first row.
+     * @param aVal      Values of the first row.
+     * @param aFrom     Start of the first row (inclusive).
+     * @param aTo       End of the first row (exclusive).
+     * @param bIdx      Indices of the second row.
+     * @param bVal      Values of the second row.
+     * @param bFrom     Start of the second row (inclusive).
+     * @param bTo       End of the second row (exclusive).
+     * @return          Dot product over common indices.
+     */
+    public static double sortedDot( int[] aIdx, float[] aVal, int aFrom, int aTo,
+                                    int[] bIdx, float[] bVal, int bFrom, int bTo) {
+        double dot      = 0.0;
+        int i           = aFrom;
+        int j           = bFrom;
+        while(i < aTo && j < bTo) {
+            int a       = aIdx[i];
+            int b       = bIdx[j];
+            if(a < b)
+                i++;
+            else if(a > b)
+                j++;
+            else
+                dot     += (double) aVal[i++] * bVal[j++];
+        }
+        return dot;
+    }
+
+    /**
+     * Cosine similarity between two users of a rating matrix.
+     * Norms cover all ratings of each user and are read from the matrix cache.
+     *
+     * @param matrix    Rating matrix.
+     * @param user      Row index of user.
+     * @param otherUser Row index of other user.
+     * @return          Cosine similarity score.
+     */
+    public static double cosine(RatingMatrix matrix, int user, int otherUser) {
+        double norms    = matrix.userNorm(user) * matrix.userNorm(otherUser);
+
+        // Avoid division by zero
+        if(norms == 0)
+            return 0.0;
+
+        double dot      = CosineKernel.sortedDot(   matrix.rowMovies(user), matrix.rowRatings(user), matrix.rowStart(user), matrix.rowEnd(user),
+                                                    matrix.rowMovies(otherUser), matrix.rowRatings(otherUser), matrix.rowStart(otherUser), matrix.rowEnd(otherUser));
+        return dot / norms;
+    }
+
+    /**
+     * Pearson correlation between two users of a rating matrix: cosine of the co-rated ratings
+     * centered on each user's mean, with norms restricted to the co-rated movies.
+     *
+     * @param matrix    Rating matrix.
+     * @param user      Row index of user.
+     * @param otherUser Row index of other user.
+     * @return          Correlation in [-1, 1], 0 without co-rated movies.
+     */
+    public static double pearson(RatingMatrix matrix, int user, int otherUser) {
+        return CosineKernel.centered(matrix, user, otherUser, false, 0);
+    }
+
+    /**
+     * Adjusted cosine similarity between two users of a rating matrix: cosine of the co-rated ratings
+     * centered on each movie's mean, with norms restricted to the co-rated movies.
+     *
+     * @param matrix    Rating matrix.
+     * @param user      Row index of user.
+     * @param otherUser Row index of other user.
+     * @return          Similarity in [-1, 1], 0 without co-rated movies.
+     */
+    public static double adjustedCosine(RatingMatrix matrix, int user, int otherUser) {
+        return CosineKernel.centered(matrix, user, otherUser, true, 0);
+    }
+
+    /**
+     * Pearson correlation shrunk by the number of co-rated movies, {@code min(n, threshold) / threshold},
+     * so neighbours sharing a handful of ratings do not outrank well-supported ones.
+     *
+     * @param matrix    Rating matrix.
+     * @param user      Row index of user.
+     * @param otherUser Row index of other user.
+     * @param threshold Number of co-rated movies from which the correlation is trusted in full.
+     * @return          Weighted correlation in [-1, 1], 0 without co-rated movies.
+     */
+    public static double significanceWeighted(RatingMatrix matrix, int user, int otherUser, int threshold) {
+        return CosineKernel.centered(matrix, user, otherUser, false, threshold);
+    }
+
+    /**
+     * Cosine of centered co-rated ratings, in the same single merge as {@link #sortedDot}.
+     * Means are read from the matrix cache, so the pass only adds two products per co-rated movie.
+     *
+     * @param matrix        Rating matrix.
+     * @param user          Row index of user.
+     * @param otherUser     Row index of other user.
+     * @param movieCentered True to center on movie means, false on user means.
+     * @param threshold     Co-rated count of full significance, 0 to disable the weighting.
+     * @return              Similarity score.
+     */
+    private static double centered(RatingMatrix matrix, int user, int otherUser, boolean movieCentered, int threshold) {
+        int aFrom       = matrix.rowStart(user);
+        int aTo         = matrix.rowEnd(user);
+        int bFrom       = matrix.rowStart(otherUser);
+        int bTo         = matrix.rowEnd(otherUser);
+        if(aFrom == aTo || bFrom == bTo)
+            return 0.0;
+
+        int[] aIdx      = matrix.rowMovies(user);
+        float[] aVal    = matrix.rowRatings(user);
+        int[] bIdx      = matrix.rowMovies(otherUser);
+        float[] bVal    = matrix.rowRatings(otherUser);
+        double aMean    = matrix.userMean(user);
+        double bMean    = matrix.userMean(otherUser);
+        double dot      = 0.0;
+        double aNorm    = 0.0;
+        double bNorm    = 0.0;
+        int common      = 0;
+        int i           = aFrom;
+        int j           = bFrom;
+        while(i < aTo && j < bTo) {
+            int a       = aIdx[i];
+            int b       = bIdx[j];
+            if(a < b)
+                i++;
+            else if(a > b)
+                j++;
+            else {
+                if(movieCentered)
+                    aMean   = bMean = matrix.movieMean(a);
+                double x    = aVal[i++] - aMean;
+                double y    = bVal[j++] - bMean;
+                dot         += x * y;
+                aNorm       += x * x;
+                bNorm       += y * y;
+                common++;
+            }
+        }
+
+        // Avoid division by zero, e.g. a user who gave every co-rated movie their mean rating.
+        if(aNorm == 0 || bNorm == 0)
+            return 0.0;
+        double similarity   = dot / Math.sqrt(aNorm * bNorm);
+        return threshold > 0 && common < threshold ? similarity * common / threshold : similarity;
+    }
+
+    /**
+     * Euclidean norm of every movie column of a rating matrix.
+     *
+     * @param matrix    Rating matrix.
+     * @return          Norm per dense movie index.
+     */
+    public static double[] movieNorms(RatingMatrix matrix) {
+        double[] norms          = new double[matrix.movieCount()];
+        for(int movie = 0; movie < norms.length; movie++) {
+            float[] ratings     = matrix.colRatings(movie);
+            double sum          = 0.0;
+            for(int k = matrix.colStart(movie); k < matrix.colEnd(movie); k++)
+                sum             += (double) ratings[k] * ratings[k];
+            norms[movie]        = Math.sqrt(sum);
+        }
+        return norms;
+    }
+
+    /**
+     * Cosine similarity between the rating column of one movie and every movie column.
+     * Dot products are accumulated sparsely through the rows of the users who rated the movie,
+     * so only co-rated pairs are visited.
+     *
+     * @param matrix        Rating matrix.
+     * @param movieNorms    Norm per dense movie index, see {@link #movieNorms(RatingMatrix)}.
+     * @param movie         Column index of the movie.
+     * @param out           Similarity per dense movie index, at least {@link RatingMatrix#movieCount()} long.
+     */
+    public static void movieCosines(RatingMatrix matrix, double[] movieNorms, int movie, double[] out) {
+        Arrays.fill(out, 0.0);
+        if(movie >= movieNorms.length || movieNorms[movie] == 0)
+            return;
+
+        int[] users             = matrix.colUsers(movie);
+        float[] ratings         = matrix.colRatings(movie);
+        for(int k = matrix.colStart(movie); k < matrix.colEnd(movie); k++) {
+            int user            = users[k];
+            double rating       = ratings[k];
+            int[] movies        = matrix.rowMovies(user);
+            float[] rates       = matrix.rowRatings(user);
+            for(int l = matrix.rowStart(user); l < matrix.rowEnd(user); l++)
+                out[movies[l]]  += rating * rates[l];
+        }
+        for(int other = 0; other < movieNorms.length; other++) {
+            if(out[other] != 0)
+                out[other]      /= movieNorms[movie] * movieNorms[other];
+        }
+    }
+}
@@ -2,13 +2,41 @@ package com.recommendation_system.mvc.controller.service;
 
 import com.recommendation_system.mvc.model.entity.Movie;
 import com.recommendation_system.mvc.model.entity.Rating;
+import com.recommendation_system.mvc.controller.service.RecommendationMetrics.Stage;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 
 /**
  * Service for calculating movie recommendations using Cosine Similarity.
@@ -18,176 +46,916 @@ import java.util.stream.Collectors;
  */
 @Service
 public class CosineSimilarityService {
+    private static final Logger LOG                 = LoggerFactory.getLogger(CosineSimilarityService.class);
+    private static final String VECTOR_MODULE       = "jdk.incubator.vector";   // Module required by the vectorized mode.
+    private static final int MIN_PARTITION_USERS    = 256;  // Smallest user partition scanned by one fork-join task.
+    private static final int BATCH_CHUNK_USERS      = 1024; // Users scored in parallel before their results are handed out.
+    private static final int BATCH_SLICE_USERS      = 64;   // Users of a chunk scored by one task.
     private static final int TOP_USER_SIMILARITY    = 5;   // Number of top similar users to consider.
     private static final double CF_WEIGHT           = 0.7; // Weight for collaborative filtering.
-    private Map<Long, double[]> movieFeatures       = new HashMap<Long, double[]>();    // Movie features for content-based filtering (movieId -> feature vector).
+    private static final long LSH_SEED              = 42L; // Seed of the LSH hyperplanes, fixed for reproducible neighbours.
+    private static final long FACTORIZATION_SEED    = 42L; // Seed of the initial latent factors, fixed for reproducible models.
+    private static final ResourceLoader RESOURCES   = new DefaultResourceLoader();  // Resolves classpath: and file: data locations.
+    private volatile GenreFeatures movieFeatures;                                       // Genre bitmasks for content-based filtering, by dense movie index.
+    private volatile TagFeatures tagFeatures;                                           // TF-IDF tag profiles for content-based filtering, null without tags.
+    private final IdIndex userIndex                 = new IdIndex();                    // Dictionary userId -> dense index.
+    private final IdIndex movieIndex                = new IdIndex();                    // Dictionary movieId -> dense index.
+    private volatile RatingDecay.Matrices matrices;                                     // In-memory ratings and their decayed weights, replaced atomically on update.
+    private volatile ItemSimilarityIndex itemIndex;                                     // Top-M similar movies per movie, replaced atomically on rebuild.
+    private volatile ItemSimilarityIndex ratingItemIndex;                               // Top-M movies by rating similarity, for item-based CF.
+    private volatile MatrixFactorization factorization;                                 // Latent-factor model, replaced atomically on retraining.
+    private volatile PopularityRanking popularity;                                      // Bayesian-average ranking for cold users, refreshed periodically.
+    private volatile UserLshIndex userLshIndex;                                         // Approximate user index, replaced atomically on rebuild.
+
+    @Value("${recommendation.data.source:database}")
+    private ModelSource modelSource;                                                    // Where movies and ratings are loaded from.
+
+    @Value("${recommendation.data.location:classpath:data/}")
+    private String dataLocation;                                                        // Directory of the MovieLens CSV files.
+
+    @Value("${recommendation.snapshot.path:}")
+    private String snapshotPath;                                                        // Binary model snapshot, empty to disable.
+
+    @Value("${recommendation.item-index.neighbours:50}")
+    private int itemNeighbours;                                                         // Number of similar movies kept per movie.
+
+    @Value("${recommendation.content.tag-weight:0.5}")
+    private double tagWeight;                                                           // Share of tag similarity in content similarity, 0 for genres only.
+
+    @Value("${recommendation.item-cf.neighbours:50}")
+    private int itemCfNeighbours;                                                       // Number of rating neighbours kept per movie.
+
+    @Value("${recommendation.factorization.factors:16}")
+    private int factorCount;                                                            // Latent factors per user and movie.
+
+    @Value("${recommendation.factorization.iterations:10}")
+    private int factorIterations;                                                       // ALS sweeps per training.
+
+    @Value("${recommendation.factorization.regularization:0.2}")
+    private double factorRegularization;                                                // ALS ridge penalty per rating.
+
+    @Value("${recommendation.popularity.min-ratings:3}")
+    private int coldStartRatings;                                                       // Users with fewer ratings get the popularity ranking.
+
+    @Value("${recommendation.popularity.prior-ratings:0}")
+    private double popularityPrior;                                                     // Weight of the global mean, 0 for the mean ratings per movie.
+
+    @Value("${recommendation.popularity.refresh:10m}")
+    private Duration popularityRefresh;                                                 // Interval between popularity rebuilds.
+
+    @Value("${recommendation.decay.half-life:0}")
+    private Duration decayHalfLife;                                                     // Age at which a rating weighs half in user-based CF, 0 to disable.
+
+    @Value("${recommendation.decay.refresh:1h}")
+    private Duration decayRefresh;                                                      // Interval between rebases of the decayed weights.
+
+    @Value("${recommendation.execution.mode:sequential}")
+    private ExecutionMode executionMode;                                                // Sequential, parallel or vectorized similarity computation.
+
+    @Value("${recommendation.execution.parallelism:0}")
+    private int parallelism;                                                            // Threads of the similarity pool, 0 for one per core.
+
+    private ForkJoinPool similarityPool;                                                // Dedicated pool for parallel modes, null when sequential.
+
+    @Value("${recommendation.user-index.search:exact}")
+    private NeighbourSearch neighbourSearch;                                            // Exact scan or LSH candidates.
+
+    @Value("${recommendation.user-index.tables:64}")
+    private int lshTables;                                                              // LSH hash tables, more raise recall.
+
+    @Value("${recommendation.user-index.bits:10}")
+    private int lshBits;                                                                // LSH signature bits, more shrink buckets and latency.
+
+    @Value("${recommendation.user-index.probes:4}")
+    private int lshProbes;                                                              // Extra LSH buckets probed per table, more raise recall.
+
+    @Value("${recommendation.neighbour-cache.maximum-size:100000}")
+    private long neighbourCacheSize;                                                    // Maximum number of cached neighbourhoods.
+
+    @Value("${recommendation.ratings.compaction-threshold:0.1}")
+    private double compactionThreshold;                                                 // Fraction of overlaid rows that triggers a compaction.
+
+    @Value("${recommendation.similarity.mode:cosine}")
+    private SimilarityMode similarityMode;                                              // Measure of the similarity between two users.
+
+    @Value("${recommendation.similarity.significance-threshold:50}")
+    private int significanceThreshold;                                                  // Co-rated movies of full significance.
+
+    private UserSimilarity userSimilarity;                                              // Similarity between two users, from the mode.
+    private NeighbourCache neighbourCache;                                              // Most similar users per user, patched on rating updates.
+    private final Object writeLock                  = new Object();                     // Serializes updates of the rating matrix.
+    private final Object snapshotLock               = new Object();                     // Serializes snapshot writes.
+    private final ReentrantReadWriteLock persistLock = new ReentrantReadWriteLock(true); // Shared by writes from persist to apply, exclusive for snapshots.
+
+    // Background thread for model maintenance (index rebuilds and periodic refreshes).
+    private final ScheduledExecutorService maintenanceExecutor  = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "model-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // Repository for accessing ratings data.
     private final RatingRepository ratingRepository;        // Repository for accessing ratings data.
     private final MovieRepository movieRepo;                // Repository for accessing movie data.
+    private final RecommendationMetrics metrics;            // Per-stage timers and counters.
 
     /**
      * Constructor with dependency injection.
      * 
      * @param ratingRepository   Repository for Rating entity.
      * @param movieRepo           Repository for Movie entity.
+     * @param registry            Registry for the pipeline metrics.
      */
-    public CosineSimilarityService(RatingRepository ratingRepository, MovieRepository movieRepo) {
+    public CosineSimilarityService(RatingRepository ratingRepository, MovieRepository movieRepo, MeterRegistry registry) {
         this.ratingRepository    = ratingRepository;
         this.movieRepo           = movieRepo;
+        this.metrics             = new RecommendationMetrics(registry);
     }
 
     /**
-     * Calculate cosine similarity between two users based on their ratings.
+     * Recommend movies for a target user based on ratings from similar users.
      * 
-     * @param user          Ratings of user (movieId -> rating).
-     * @param otherUser     Ratings of other user (movieId -> rating).
-     * @return              Cosine similarity score.
+     * @param targetUserId      ID of the target user.
+     * @param topN              Number of top recommendations to return.
+     * @return                  List of recommended movie IDs.
      */
-    private double cosineSimilarity(Map<Long, Double> user, Map<Long, Double> otherUser) {
-        Set<Long> commonMovies      = new HashSet<>(user.keySet());
+    public List<Long> recommendMovies(Long targetUserId, int topNFilms) {
+        return this.recommend(RecommendationAlgorithm.COSINE, targetUserId, topNFilms).movieIds();
+    }
 
-        // Find movies rated by both users.
-        commonMovies.retainAll(otherUser.keySet());
+    /**
+     * Recommend movies for a target user with the given algorithm.
+     * 
+     * @param algorithm         Recommendation algorithm.
+     * @param userId            ID of the target user.
+     * @param top               Number of top recommendations to return.
+     * @return                  Recommended movie IDs and the neighbours they came from.
+     */
+    public Recommendations recommend(RecommendationAlgorithm algorithm, Long userId, int top) {
+        return this.recommend(algorithm, userId, top, GenreFilter.NONE);
+    }
 
-        //  If no common movies, similarity is 0.
-        if(commonMovies.isEmpty())
-            return 0.0;
+    /**
+     * Recommend movies of some genres for a target user with the given algorithm.
+     * 
+     * @param algorithm         Recommendation algorithm.
+     * @param userId            ID of the target user.
+     * @param top               Number of top recommendations to return.
+     * @param filter            Genres the recommended movies must have.
+     * @return                  Recommended movie IDs and the neighbours they came from.
+     */
+    public Recommendations recommend(RecommendationAlgorithm algorithm, Long userId, int top, GenreFilter filter) {
+        if(userId == null || top <= 0)
+            return Recommendations.EMPTY;
+        RatingDecay.Matrices matrices   = this.matrices;
+        return this.recommend(algorithm, userId, top, filter, new ModelView(matrices.ratings(), matrices.decayed(), this.movieFeatures, this.itemIndex,
+                                                                            this.ratingItemIndex, this.factorization, this.popularity, true));
+    }
 
-        double dotProduct           = 0.0;
-        double userNorm             = 0.0;
-        double otherUserNorm        = 0.0;
+    /**
+     * Recommend movies for a target user against a given model snapshot.
+     *
+     * @param algorithm         Recommendation algorithm.
+     * @param userId            ID of the target user.
+     * @param top               Number of top recommendations to return.
+     * @param filter            Genres the recommended movies must have.
+     * @param model             Model snapshot.
+     * @return                  Recommended movie IDs and the neighbours they came from.
+     */
+    private Recommendations recommend(RecommendationAlgorithm algorithm, long userId, int top, GenreFilter filter, ModelView model) {
+        long start                  = System.nanoTime();
+        long[] allowed              = filter.isEmpty() ? null : model.features().select(filter);
 
-        // Calculate dot product and norms
-        for(Long movieId : commonMovies) {
-            double userRate         = user.get(movieId);
-            double otherUserRate    = otherUser.get(movieId);
-            dotProduct              += userRate * otherUserRate;
+        // Too few ratings to find neighbours or fit factors: serve the popularity ranking instead.
+        int user                    = model.ratings().userIndex(userId);
+        int rated                   = user < 0 ? 0 : model.ratings().rowEnd(user) - model.ratings().rowStart(user);
+        if(rated < this.coldStartRatings && model.popularity() != null) {
+            Recommendations result  = this.popularityFallback(model, user, top, filter, allowed);
+            this.metrics.coldStart();
+            this.metrics.request(algorithm, start);
+            return result;
         }
 
-        // Calculate norms for each user
-        for(double userRate : user.values())
-            userNorm                += userRate * userRate;
-        for(double otherUserRate : otherUser.values())
-            otherUserNorm           += otherUserRate * otherUserRate;
+        Recommendations result      = switch(algorithm) {
+            case COSINE -> this.collaborativeFiltering(model, userId, top, allowed);
+            case HYBRID -> this.hybridFiltering(model, userId, top, allowed);
+            case ITEM -> this.itemBasedFiltering(model, userId, top, allowed);
+            case FACTORIZATION -> this.factorizationFiltering(model, userId, top, allowed);
+        };
+        this.metrics.request(algorithm, start);
+        return result;
+    }
+
+    /**
+     * Consistent view of the model shared by the requests of a batch.
+     *
+     * @param ratings           Rating matrix.
+     * @param decayedRatings    Ratings weighted by age, for user-based CF.
+     * @param features          Genre features.
+     * @param itemIndex         Item similarity index.
+     * @param ratingItemIndex   Rating neighbourhoods of movies.
+     * @param factorization     Latent-factor model.
+     * @param popularity        Popularity ranking for cold users.
+     * @param parallelScan      True to spread each similar-user scan over the similarity pool.
+     */
+    private record ModelView(   RatingMatrix ratings, RatingMatrix decayedRatings, GenreFeatures features, ItemSimilarityIndex itemIndex,
+                                ItemSimilarityIndex ratingItemIndex, MatrixFactorization factorization,
+                                PopularityRanking popularity, boolean parallelScan) {
+    }
 
-        // Avoid division by zero
-        if(userNorm == 0 || otherUserNorm == 0)
-            return 0.0;
+    /**
+     * Receiver of batch results, called in request order on the caller's thread.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
 
-        // Return cosine similarity
-        return dotProduct / (Math.sqrt(userNorm) * Math.sqrt(otherUserNorm));
+        /**
+         * Accept the recommendations of one user.
+         *
+         * @param userId            ID of the user.
+         * @param recommendations   Recommendations, the popularity ranking for unknown and cold users.
+         */
+        void accept(long userId, Recommendations recommendations) throws IOException;
     }
 
     /**
-     * Recommend movies for a target user based on ratings from similar users.
+     * Recommend movies for many users against one model snapshot, spread over all cores.
+     *
+     * @param algorithm     Recommendation algorithm.
+     * @param userIds       IDs of the target users.
+     * @param top           Number of top recommendations per user.
+     * @param sink          Receiver of the results, in the order of userIds.
+     */
+    public void recommendBatch(RecommendationAlgorithm algorithm, long[] userIds, int top, BatchSink sink) throws IOException {
+        this.recommendBatch(algorithm, userIds, top, sink, this.similarityPool != null ? this.similarityPool : ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Recommend movies for many users against one model snapshot.
+     * Users are scored in chunks, each split into slices run on the executor, and each chunk is handed to the sink
+     * before the next one is scored, so memory stays bounded whatever the number of users.
+     * A slice the executor rejects is scored on the calling thread, so a saturated executor slows the batch down
+     * instead of failing it halfway.
+     *
+     * @param algorithm     Recommendation algorithm.
+     * @param userIds       IDs of the target users.
+     * @param top           Number of top recommendations per user.
+     * @param sink          Receiver of the results, in the order of userIds.
+     * @param executor      Executor scoring the slices.
+     */
+    public void recommendBatch(RecommendationAlgorithm algorithm, long[] userIds, int top, BatchSink sink, Executor executor) throws IOException {
+        RatingDecay.Matrices matrices   = this.matrices;
+        ModelView model                 = new ModelView(matrices.ratings(), matrices.decayed(), this.movieFeatures, this.itemIndex,
+                                                        this.ratingItemIndex, this.factorization, this.popularity, false);
+        Recommendations[] chunk         = new Recommendations[Math.min(CosineSimilarityService.BATCH_CHUNK_USERS, userIds.length)];
+        for(int from = 0; from < userIds.length; from += chunk.length) {
+            int offset                  = from;
+            int size                    = Math.min(chunk.length, userIds.length - from);
+
+            // Slices are scored in parallel, each scan runs on the thread that picked the slice.
+            List<CompletableFuture<Void>> slices = new ArrayList<CompletableFuture<Void>>();
+            for(int start = 0; start < size; start += CosineSimilarityService.BATCH_SLICE_USERS) {
+                int first               = start;
+                int last                = Math.min(size, start + CosineSimilarityService.BATCH_SLICE_USERS);
+                Runnable slice          = () -> {
+                    for(int i = first; i < last; i++)
+                        chunk[i]        = top <= 0 ? Recommendations.EMPTY : this.recommend(algorithm, userIds[offset + i], top, GenreFilter.NONE, model);
+                };
+                try {
+                    slices.add(CompletableFuture.runAsync(slice, executor));
+                }
+                catch(RejectedExecutionException e) {
+                    slice.run();
+                }
+            }
+            CompletableFuture.allOf(slices.toArray(new CompletableFuture[0])).join();
+            for(int i = 0; i < size; i++)
+                sink.accept(userIds[offset + i], chunk[i]);
+        }
+    }
+
+    /**
+     * Get the IDs of every user of the model.
+     *
+     * @return  User IDs in dense index order.
+     */
+    public long[] userIds() {
+        RatingMatrix matrix             = this.matrices.ratings();
+        long[] userIds                  = new long[matrix.userCount()];
+        for(int user = 0; user < userIds.length; user++)
+            userIds[user]               = matrix.users().idAt(user);
+        return userIds;
+    }
+
+    /**
+     * User-based collaborative filtering.
      * 
+     * @param model             Model snapshot.
      * @param targetUserId      ID of the target user.
-     * @param topN              Number of top recommendations to return.
-     * @return                  List of recommended movie IDs.
+     * @param topNFilms         Number of top recommendations to return.
+     * @param allowed           Bitmap of the dense movie indices that may be recommended, null for every movie.
+     * @return                  Recommended movie IDs and the most similar users.
      */
-    public List<Long> recommendMovies(Long targetUserId, int topNFilms) {
-        if(targetUserId == null || topNFilms <= 0)
-            return Collections.emptyList();
-        List<Rating> allRatings                  = ratingRepository.findAll();
-
-        // Group ratings by userId.
-        Map<Long, Map<Long, Double>> userRatings = allRatings.stream()
-                                                              .collect(Collectors.groupingBy(   Rating::getUserId,
-                                                                                                Collectors.toMap(Rating::getMovieId, Rating::getRating, (a, b) -> b)));
-        // Retrieve ratings of the target user.
-        Map<Long, Double> targetRatings          = userRatings.get(targetUserId);
-        if(targetRatings == null)
-            return Collections.emptyList();
+    private Recommendations collaborativeFiltering(ModelView model, long targetUserId, int topNFilms, long[] allowed) {
+
+        // Read one consistent snapshot of the rating matrix, weighted by age when decay is enabled.
+        RatingMatrix matrix                     = model.decayedRatings();
+        int target                              = matrix.userIndex(targetUserId);
+        if(target < 0)
+            return Recommendations.EMPTY;
         
-        //  Calculate similarities with other users.
-        Map<Long, Double> similarities          = new HashMap<Long, Double>();
-        for(Map.Entry<Long, Map<Long, Double>> entry : userRatings.entrySet()) {
-            Long otherUserId                    = entry.getKey();   
-            if(!targetUserId.equals(otherUserId)) {
-                double sim                      = this.cosineSimilarity(targetRatings, entry.getValue());
-                similarities.put(otherUserId, sim);
+        //  Calculate similarities with other users, keeping only the most similar ones.
+        long time                               = System.nanoTime();
+        NeighbourCache.Neighbours mostSimilarUsers = this.neighbourCache.get(target, matrix.version());
+        this.metrics.neighbourLookup(mostSimilarUsers != null);
+        if(mostSimilarUsers == null) {
+            TopK top                            = this.findSimilarUsers(matrix, target, CosineSimilarityService.TOP_USER_SIMILARITY, model.parallelScan()).sort();
+            mostSimilarUsers                    = NeighbourCache.Neighbours.of(matrix.version(), top, CosineSimilarityService.TOP_USER_SIMILARITY);
+            this.neighbourCache.put(target, mostSimilarUsers);
+            time                                = this.metrics.stage(Stage.SIMILARITY, time);
+        }
+
+        double[] candidateScores                = new double[matrix.movieCount()];
+        Arrays.fill(candidateScores, Double.NEGATIVE_INFINITY);
+
+        // Movies already rated by the target user are never candidates.
+        int[] seen                              = matrix.rowMovies(target);
+        for(int k = matrix.rowStart(target); k < matrix.rowEnd(target); k++)
+            candidateScores[seen[k]]            = Double.NaN;
+
+        // Aggregate scores from similar users for unseen movies, of the requested genres only.
+        for(int rank = 0; rank < mostSimilarUsers.users().length; rank++) {
+            int similarUser                     = mostSimilarUsers.users()[rank];
+            double sim                          = mostSimilarUsers.similarities()[rank];
+            int[] movies                        = matrix.rowMovies(similarUser);
+            float[] rates                       = matrix.rowRatings(similarUser);
+            for(int k = matrix.rowStart(similarUser); k < matrix.rowEnd(similarUser); k++) {
+                double current                  = candidateScores[movies[k]];
+                if(Double.isNaN(current) || (allowed != null && !GenreFeatures.contains(allowed, movies[k])))
+                    continue;
+
+                // Weighted score by similarity
+                double score                    = sim * rates[k];
+                candidateScores[movies[k]]      = current == Double.NEGATIVE_INFINITY ? score : current + score;
             }
         }
 
-        // Get top 10 most similar users.
-        List<Long> mostSimilarUsers             = similarities.entrySet().stream()
-                                                                            .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                                                                            .limit(CosineSimilarityService.TOP_USER_SIMILARITY)
-                                                                            .map(Map.Entry::getKey)
-                                                                            .toList();
+        time                                    = this.metrics.stage(Stage.AGGREGATE, time);
+
+        // Return top N recommended movie IDs.
+        TopK topMovies                          = new TopK(topNFilms);
+        int candidates                          = 0;
+        for(int movie = 0; movie < candidateScores.length; movie++) {
+            if(candidateScores[movie] != Double.NEGATIVE_INFINITY) {
+                topMovies.offer(movie, candidateScores[movie]);
+                candidates++;
+            }
+        }
+        long[] neighbourIds                     = new long[mostSimilarUsers.users().length];
+        for(int rank = 0; rank < neighbourIds.length; rank++)
+            neighbourIds[rank]                  = matrix.users().idAt(mostSimilarUsers.users()[rank]);
+        List<Long> movieIds                     = CosineSimilarityService.toMovieIds(topMovies.sort(), matrix.movies());
+        this.metrics.candidatesScored(candidates);
+        this.metrics.stage(Stage.RANK, time);
+        return new Recommendations(movieIds, neighbourIds);
+    }
+
+    /**
+     * Find the users most similar to a target user, using the configured execution mode.
+     * 
+     * @param matrix    Rating matrix.
+     * @param target    Row index of the target user.
+     * @param k         Number of similar users to return.
+     * @param parallel  False to scan on the calling thread whatever the execution mode.
+     * @return          Unsorted selection of similar user rows.
+     */
+    private TopK findSimilarUsers(RatingMatrix matrix, int target, int k, boolean parallel) {
+        IntToDoubleFunction similarity          = otherUser -> this.userSimilarity.between(matrix, target, otherUser);
+
+        // Approximate search, falling back to the exact scan when the buckets hold too few candidates.
+        UserLshIndex index                      = this.userLshIndex;
+        if(index != null) {
+            int[] scanned                       = new int[1];
+            TopK top                            = index.query(matrix, target, k, otherUser -> {
+                scanned[0]++;
+                return similarity.applyAsDouble(otherUser);
+            });
+            this.metrics.usersScanned(scanned[0]);
+            if(top != null)
+                return top;
+        }
+
+        this.metrics.usersScanned(matrix.userCount());
+        ForkJoinPool pool                       = this.similarityPool;
+        if(pool == null || !parallel)
+            return UserSimilarityTask.scan(0, matrix.userCount(), target, k, similarity);
+
+        // Several partitions per worker, so uneven rows still balance.
+        int grain                               = Math.max(CosineSimilarityService.MIN_PARTITION_USERS, matrix.userCount() / (pool.getParallelism() * 4));
+        return pool.invoke(new UserSimilarityTask(0, matrix.userCount(), target, k, grain, similarity));
+    }
+
+    /**
+     * Convert a sorted selection of dense movie indices into movie IDs.
+     * 
+     * @param top       Sorted selection.
+     * @param movies    Dictionary movieId -> dense index.
+     * @return          List of movie IDs, best first.
+     */
+    private static List<Long> toMovieIds(TopK top, IdIndex movies) {
+        List<Long> movieIds                     = new ArrayList<Long>(top.size());
+        for(int rank = 0; rank < top.size(); rank++)
+            movieIds.add(movies.idAt(top.id(rank)));
+        return movieIds;
+    }
+
+    /**
+     * Load the rating matrix from the configured source.
+     * Dense indices are shared with previous snapshots, so readers holding an older matrix stay valid.
+     * Database rows are read in ID order, so if a user rated a movie in several rows, the latest one wins.
+     */
+    public void loadRatings() {
+        synchronized(this.writeLock) {
+            long start                  = System.nanoTime();
+            RatingDecay decay           = RatingDecay.of(this.decayHalfLife, Instant.now().getEpochSecond());
+            RatingDecay.Matrices loaded = this.modelSource == ModelSource.CSV
+                                            ? this.readCsv("ratings.csv", in -> MovieLensCsv.readRatings(in, this.userIndex, this.movieIndex, decay))
+                                            : RatingMatrix.build(ratingRepository.findAll(Sort.by("ratingId")), this.userIndex, this.movieIndex, decay);
+            this.matrices               = loaded;
+            this.neighbourCache.clear();
+            this.metrics.stage(Stage.LOAD, start);
 
-        Set<Long> seenMovies                    = targetRatings.keySet();
-        Map<Long, Double> candidateScores       = new HashMap<Long, Double>();
+            double seconds              = (System.nanoTime() - start) / 1e9;
+            LOG.info("Loaded {} ratings of {} users from {} in {} ms ({} rows/s)",
+                        loaded.ratings().ratingCount(), loaded.ratings().userCount(), this.modelSource,
+                        Math.round(seconds * 1000), Math.round(loaded.ratings().ratingCount() / seconds));
+        }
+    }
+
+    /**
+     * Parser of one MovieLens file.
+     */
+    @FunctionalInterface
+    private interface CsvParser<T> {
+        T parse(InputStream in) throws IOException;
+    }
 
-        // Aggregate scores from similar users for unseen movies.
-        for(Long similarUserId : mostSimilarUsers) {
-            double sim                          = similarities.get(similarUserId);
-            Map<Long, Double> otherRatings      = userRatings.get(similarUserId);
+    /**
+     * Parse a file of the MovieLens data location.
+     *
+     * @param fileName  Name of the file.
+     * @param parser    Parser of the file content.
+     * @return          Parsed content.
+     */
+    private <T> T readCsv(String fileName, CsvParser<T> parser) {
+        String location                 = this.dataLocation.endsWith("/") ? this.dataLocation : this.dataLocation + "/";
+        try {
+            return parser.parse(CosineSimilarityService.RESOURCES.getResource(location + fileName).getInputStream());
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot read " + location + fileName, e);
+        }
+    }
 
-            // Consider only movies not yet rated by the target user.
-            for(Map.Entry<Long, Double> entry : otherRatings.entrySet()) {
-                Long movieId                    = entry.getKey();
-                if(!seenMovies.contains(movieId))
+    /**
+     * Persist ratings and apply them to the in-memory model.
+     * Snapshots wait until both are done, so a snapshot never records a source state counting ratings its model lacks.
+     *
+     * @param persist   Writes the ratings to the source and returns the saved ones.
+     * @return          The saved ratings.
+     */
+    public List<Rating> applyRatings(Supplier<List<Rating>> persist) {
+        this.persistLock.readLock().lock();
+        try {
+            List<Rating> saved          = persist.get();
+            this.applyRatings(saved);
+            return saved;
+        }
+        finally {
+            this.persistLock.readLock().unlock();
+        }
+    }
 
-                    // Weighted score by similarity
-                    candidateScores.merge(movieId, sim * entry.getValue(), Double::sum);
-                
+    /**
+     * Apply new or changed ratings to the in-memory model without rebuilding it.
+     * Only the affected rows, columns, norms and cached neighbourhoods are updated, and the
+     * result is published as a new snapshot, so concurrent readers never see a partial update.
+     * The ratings are expected to be persisted already.
+     *
+     * @param newRatings    Ratings to apply. When a user rated the same movie twice, the last rating wins.
+     */
+    public void applyRatings(List<Rating> newRatings) {
+        if(newRatings.isEmpty())
+            return;
+        synchronized(this.writeLock) {
+            RatingDecay.Matrices current = this.matrices;
+            int size                    = 0;
+            int[] entryUsers            = new int[newRatings.size()];
+            int[] entryMovies           = new int[newRatings.size()];
+            float[] entryRatings        = new float[newRatings.size()];
+            long[] entryTimestamps      = new long[newRatings.size()];
+            for(Rating rating : newRatings) {
+                entryUsers[size]        = this.userIndex.getOrAdd(rating.getUserId());
+                entryMovies[size]       = this.movieIndex.getOrAdd(rating.getMovieId());
+                entryRatings[size]      = rating.getRating().floatValue();
+                entryTimestamps[size]   = rating.getTimestamp() == null ? Instant.now().getEpochSecond() : rating.getTimestamp();
+                size++;
             }
+
+            // Weigh the new ratings once, so requests read precomputed decayed values and norms.
+            RatingDecay.Matrices updated = current.withRatings(entryUsers, entryMovies, entryRatings, entryTimestamps, size);
+
+            // Distinct changed users. Adjusted cosine depends on movie means, so a new rating moves every pair.
+            int[] changedUsers          = Arrays.stream(entryUsers, 0, size).distinct().toArray();
+            if(this.similarityMode == SimilarityMode.ADJUSTED_COSINE)
+                this.neighbourCache.clear();
+            else
+                this.neighbourCache.update( current.decayed().version(), updated.decayed(), changedUsers, changedUsers.length,
+                                            CosineSimilarityService.TOP_USER_SIMILARITY, this.userSimilarity);
+            this.matrices               = updated;
+
+            if(updated.ratings().overlayRows() > this.compactionThreshold * updated.ratings().userCount())
+                this.maintenanceExecutor.execute(this::compactRatings);
         }
+    }
 
-        // Return top N recommended movie IDs.
-        return candidateScores.entrySet().stream()
-                                            .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                                            .limit(topNFilms)
-                                            .map(Map.Entry::getKey)
-                                            .toList();
+    /**
+     * Fold incremental updates back into compressed arrays.
+     * The content and version do not change, so cached neighbourhoods stay valid.
+     */
+    private void compactRatings() {
+        synchronized(this.writeLock) {
+            this.matrices               = this.matrices.compact();
+        }
+        this.buildUserIndex();
+        this.buildRatingItemIndex();
+        this.trainFactorization();
+        this.buildPopularity();
+        this.saveSnapshot();
     }
 
     /**
-     * Initialize movie features from genres for content-based filtering.
+     * Load the in-memory model, from the snapshot when there is a valid one.
      * This method is called after the service is constructed.
      */
     @PostConstruct
-    public void initMovieFeatures() {
-        List<Movie> movies              = movieRepo.findAll();
-        Set<String> allGenres           = movies.stream()
-                                                    .flatMap(m -> Arrays.stream(m.getGenres().split("\\|")))
-                                                    .collect(Collectors.toSet());
-        List<String> genreList          = new ArrayList<String>(allGenres);
-
-        // Create binary feature vectors for each movie based on genres.
-        for(Movie mov : movies) {
-
-            // Initialize feature vector.
-            double[] vector             = new double[genreList.size()];
-            String[] genres             = mov.getGenres().split("\\|");
-
-            // Set genre presence in the feature vector.
-            for (String gen : genres) {
-                int idx                 = genreList.indexOf(gen);
-                if (idx >= 0)
-                    vector[idx]  = 1d;
+    public void initModel() {
+        this.neighbourCache             = new NeighbourCache(this.neighbourCacheSize);
+        this.userSimilarity             = this.userSimilarity(this.similarityMode);
+        this.initExecution();
+        boolean restored                = this.loadSnapshot();
+        if(!restored) {
+            this.loadRatings();
+            this.initMovieFeatures();
+            this.initTagFeatures();
+            this.buildItemIndex();
+        }
+
+        // A restored model comes with its indices, only the ones missing from it or built with other settings are rebuilt.
+        boolean complete                = restored && this.ratingItemIndex != null && this.factorization != null;
+        if(this.ratingItemIndex == null)
+            this.buildRatingItemIndex();
+        if(this.factorization == null)
+            this.trainFactorization();
+        this.buildPopularity();
+        if(!complete)
+            this.maintenanceExecutor.execute(this::saveSnapshot);
+
+        // Similar-user search falls back to the exact scan until the LSH index is built.
+        if(restored)
+            this.maintenanceExecutor.execute(this::buildUserIndex);
+        else
+            this.buildUserIndex();
+        long refresh                    = this.popularityRefresh.toMillis();
+        if(refresh > 0)
+            this.maintenanceExecutor.scheduleWithFixedDelay(this::buildPopularity, refresh, refresh, TimeUnit.MILLISECONDS);
+        long rebase                     = this.decayRefresh.toMillis();
+        if(this.matrices.decay().isEnabled() && rebase > 0)
+            this.maintenanceExecutor.scheduleWithFixedDelay(this::refreshDecay, rebase, rebase, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Move the reference time of the decayed ratings to now, so new ratings keep weighing about 1.
+     * Every decayed rating is scaled by the same factor, which leaves user similarities and the ranking
+     * of aggregated scores unchanged: the matrix keeps its version and cached neighbourhoods stay valid.
+     */
+    public void refreshDecay() {
+        synchronized(this.writeLock) {
+            RatingDecay.Matrices current = this.matrices;
+            if(!current.decay().isEnabled())
+                return;
+            long start                  = System.nanoTime();
+            this.matrices               = current.rebased(Instant.now().getEpochSecond());
+            LOG.info("Rebased decayed ratings ({} ratings) in {} ms", current.decayed().ratingCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Restore the model from the binary snapshot.
+     *
+     * @return  True if the model was restored, false if it has to be rebuilt from the source.
+     */
+    private boolean loadSnapshot() {
+        if(this.snapshotPath.isBlank() || !Files.isRegularFile(Path.of(this.snapshotPath)))
+            return false;
+
+        // The snapshot keeps no timestamps, so decayed ratings are rebuilt from the source.
+        if(this.decayHalfLife.isPositive()) {
+            LOG.info("Rating decay is enabled, rebuilding from {} instead of snapshot {}", this.modelSource, this.snapshotPath);
+            return false;
+        }
+        try {
+            long start                  = System.nanoTime();
+            ModelSnapshot.Model model   = ModelSnapshot.read(Path.of(this.snapshotPath), this.modelOrigin(), this.userIndex, this.movieIndex);
+            synchronized(this.writeLock) {
+                this.matrices           = RatingDecay.Matrices.of(model.ratings());
+                this.neighbourCache.clear();
+            }
+            this.movieFeatures          = model.features();
+
+            // Tags are not in the snapshot, later item index rebuilds still need them.
+            this.initTagFeatures();
+            ModelSnapshot.Settings settings = model.settings();
+            if(settings.itemNeighbours() == this.itemNeighbours && settings.tagWeight() == this.tagWeight)
+                this.itemIndex          = model.itemIndex();
+            else
+                this.buildItemIndex();
+            if(settings.itemCfNeighbours() == this.itemCfNeighbours)
+                this.ratingItemIndex    = model.ratingItemIndex();
+            if(settings.factors() == this.factorCount && settings.iterations() == this.factorIterations
+                    && settings.regularization() == this.factorRegularization)
+                this.factorization      = model.factorization();
+            LOG.info("Restored model snapshot {} ({} users, {} ratings) in {} ms", this.snapshotPath,
+                        model.ratings().userCount(), model.ratings().ratingCount(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        }
+        catch(IOException | RuntimeException e) {
+            LOG.warn("Cannot restore model snapshot {}, rebuilding from {}: {}", this.snapshotPath, this.modelSource, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Describe the configured source and the current state of its ratings and movies, so a snapshot taken from
+     * another source, before ratings were added, changed or deleted, or before movies were added, is never restored.
+     * Database tables are described by aggregates that move with every write, CSV files by their size and date.
+     *
+     * @return  Source and state, e.g. {@code database:100836,100836,353820.5,126171230956540;9742,193609}.
+     */
+    private String modelOrigin() {
+        if(this.modelSource == ModelSource.DATABASE) {
+            RatingRepository.Watermark ratings = this.ratingRepository.findWatermark();
+            MovieRepository.Watermark movies   = this.movieRepo.findWatermark();
+            return "database:" + ratings.getRatings() + "," + ratings.getLastId() + "," + ratings.getRatingSum() + ","
+                    + ratings.getTimestampSum() + ";" + movies.getMovies() + "," + movies.getLastId();
+        }
+        return "csv:" + this.csvOrigin("ratings.csv") + ";" + this.csvOrigin("movies.csv");
+    }
+
+    /**
+     * Describe a file of the MovieLens data location by its size and date.
+     *
+     * @param fileName  Name of the file.
+     * @return          Location, size and date of the file.
+     */
+    private String csvOrigin(String fileName) {
+        String location                 = this.dataLocation.endsWith("/") ? this.dataLocation : this.dataLocation + "/";
+        try {
+            Resource file               = CosineSimilarityService.RESOURCES.getResource(location + fileName);
+            return location + fileName + "," + file.contentLength() + "," + file.lastModified();
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot read " + location + fileName, e);
+        }
+    }
+
+    /**
+     * Write the current model to the binary snapshot, if one is configured.
+     * Runs on the maintenance thread or at shutdown, failures are logged and the previous snapshot is kept.
+     */
+    public void saveSnapshot() {
+        if(this.snapshotPath.isBlank() || this.matrices == null || this.itemIndex == null || this.ratingItemIndex == null || this.factorization == null)
+            return;
+        try {
+            synchronized(this.snapshotLock) {
+
+                // The origin and the ratings are taken while no write is between persist and apply, so they match.
+                long start              = System.nanoTime();
+                String origin;
+                RatingMatrix ratings;
+                this.persistLock.writeLock().lock();
+                try {
+                    origin              = this.modelOrigin();
+                    ratings             = this.matrices.ratings();
+                }
+                finally {
+                    this.persistLock.writeLock().unlock();
+                }
+                ModelSnapshot.Settings settings = new ModelSnapshot.Settings(   this.itemNeighbours, this.tagWeight, this.itemCfNeighbours,
+                                                                                this.factorCount, this.factorIterations, this.factorRegularization);
+                long bytes              = ModelSnapshot.write(  Path.of(this.snapshotPath), origin, ratings, this.movieFeatures, this.itemIndex,
+                                                                this.ratingItemIndex, this.factorization, settings);
+                LOG.info("Wrote model snapshot {} ({} bytes) in {} ms", this.snapshotPath, bytes, (System.nanoTime() - start) / 1_000_000);
             }
-            movieFeatures.put(mov.getMovieId(), vector);
         }
+        catch(IOException | RuntimeException e) {
+            LOG.warn("Cannot write model snapshot {}", this.snapshotPath, e);
+        }
+    }
+
+    /**
+     * Stop the background maintenance thread and persist the latest model.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.maintenanceExecutor.shutdownNow();
+        if(this.similarityPool != null)
+            this.similarityPool.shutdownNow();
+        this.saveSnapshot();
+    }
+
+    /**
+     * Get the similarity kernel of a mode.
+     *
+     * @param mode  Similarity mode.
+     * @return      Similarity between two users.
+     */
+    private UserSimilarity userSimilarity(SimilarityMode mode) {
+        int threshold                   = this.significanceThreshold;
+        return switch(mode) {
+            case COSINE -> CosineKernel::cosine;
+            case PEARSON -> CosineKernel::pearson;
+            case ADJUSTED_COSINE -> CosineKernel::adjustedCosine;
+            case SIGNIFICANCE_WEIGHTED -> (matrix, user, otherUser) -> CosineKernel.significanceWeighted(matrix, user, otherUser, threshold);
+        };
+    }
+
+    /**
+     * Create the similarity pool for the configured execution mode.
+     * The vectorized mode falls back to parallel when the Vector API module is not loaded.
+     */
+    private void initExecution() {
+        if(this.executionMode == ExecutionMode.VECTORIZED && ModuleLayer.boot().findModule(CosineSimilarityService.VECTOR_MODULE).isEmpty()) {
+            LOG.warn("Execution mode VECTORIZED needs --add-modules {}, falling back to PARALLEL", CosineSimilarityService.VECTOR_MODULE);
+            this.executionMode          = ExecutionMode.PARALLEL;
+        }
+        if(this.executionMode == ExecutionMode.SEQUENTIAL)
+            return;
+
+        int threads                     = this.parallelism > 0 ? this.parallelism : Runtime.getRuntime().availableProcessors();
+        this.similarityPool             = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("similarity-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        LOG.info("Similarity execution mode {} on {} threads", this.executionMode, threads);
+    }
+
+    /**
+     * Build the item similarity index from the movie features and swap it in.
+     * Readers keep using the previous index until the new one is complete.
+     */
+    public void buildItemIndex() {
+        GenreFeatures features          = this.movieFeatures;
+        TagFeatures tags                = this.tagFeatures;
+        ItemSimilarityIndex.Similarity genres = this.executionMode == ExecutionMode.VECTORIZED
+                                                ? (a, out) -> VectorKernels.genreSimilarities(features.masks(), features.inverseNorms(), a, out)
+                                                : features::similarities;
+        ItemSimilarityIndex.Similarity kernel = genres;
+
+        // Blend in the tag cosine, visiting only the movies sharing a tag with the row.
+        if(tags != null && this.tagWeight > 0) {
+            double tagWeight            = Math.min(this.tagWeight, 1.0);
+            kernel                      = (a, out) -> {
+                genres.row(a, out);
+                for(int b = 0; b < out.length; b++)
+                    out[b]              *= 1.0 - tagWeight;
+                tags.addSimilarities(a, tagWeight, out);
+            };
+        }
+        this.itemIndex                  = ItemSimilarityIndex.build(features.movieCount(), this.itemNeighbours, kernel);
+    }
+
+    /**
+     * Build the approximate user index over the current decayed ratings and swap it in, when LSH search is enabled.
+     * Queries keep using the previous index until the new one is complete.
+     */
+    public void buildUserIndex() {
+        if(this.neighbourSearch != NeighbourSearch.LSH)
+            return;
+        long start                      = System.nanoTime();
+        RatingMatrix matrix             = this.matrices.decayed();
+        this.userLshIndex               = UserLshIndex.build(matrix, this.lshTables, this.lshBits, this.lshProbes, CosineSimilarityService.LSH_SEED);
+        LOG.info("Built LSH user index ({} users, {} tables x {} bits, {} probes) in {} ms", matrix.userCount(),
+                    this.lshTables, this.lshBits, this.lshProbes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Build the rating neighbourhoods of every movie over the current ratings and swap them in.
+     * Rows are scored in parallel, requests keep using the previous index until the new one is complete.
+     */
+    public void buildRatingItemIndex() {
+        long start                      = System.nanoTime();
+        RatingMatrix matrix             = this.matrices.ratings();
+        double[] movieNorms             = CosineKernel.movieNorms(matrix);
+        this.ratingItemIndex            = ItemSimilarityIndex.build(matrix.movieCount(), this.itemCfNeighbours,
+                                                                    (a, out) -> CosineKernel.movieCosines(matrix, movieNorms, a, out));
+        LOG.info("Built item-based CF index ({} movies, {} neighbours) in {} ms", matrix.movieCount(),
+                    this.itemCfNeighbours, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuild the rating neighbourhoods of movies in the background, e.g. after many new ratings.
+     *
+     * @return  Future completed once the new index has been swapped in.
+     */
+    public CompletableFuture<Void> rebuildRatingItemIndexAsync() {
+        return CompletableFuture.runAsync(this::buildRatingItemIndex, this.maintenanceExecutor);
+    }
+
+    /**
+     * Train the latent-factor model on the current ratings and swap it in.
+     * Requests keep using the previous model until the new one is trained.
+     */
+    public void trainFactorization() {
+        long start                      = System.nanoTime();
+        RatingMatrix matrix             = this.matrices.ratings();
+        this.factorization              = MatrixFactorization.train(matrix, this.factorCount, this.factorIterations,
+                                                                    this.factorRegularization, CosineSimilarityService.FACTORIZATION_SEED);
+        LOG.info("Trained latent-factor model ({} users, {} movies, {} factors, {} iterations) in {} ms, training RMSE {}",
+                    matrix.userCount(), matrix.movieCount(), this.factorCount, this.factorIterations,
+                    (System.nanoTime() - start) / 1_000_000, String.format("%.4f", this.factorization.rmse()));
+    }
+
+    /**
+     * Rank movies by Bayesian-average rating over the current ratings and swap the ranking in.
+     * Runs at startup, after compactions and every refresh interval, so it follows incremental updates.
+     */
+    public void buildPopularity() {
+        long start                      = System.nanoTime();
+        RatingMatrix matrix             = this.matrices.ratings();
+        this.popularity                 = PopularityRanking.build(matrix, this.movieFeatures, this.popularityPrior);
+        LOG.info("Built popularity ranking ({} movies, prior {} ratings) in {} ms", this.popularity.size(),
+                    String.format("%.1f", this.popularity.prior()), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Retrain the latent-factor model in the background, e.g. after many new ratings.
+     *
+     * @return  Future completed once the new model has been swapped in.
+     */
+    public CompletableFuture<Void> retrainFactorizationAsync() {
+        return CompletableFuture.runAsync(this::trainFactorization, this.maintenanceExecutor);
     }
 
     /**
-     * Calculate cosine similarity between two feature vectors.
+     * Rebuild the approximate user index in the background, e.g. after many new users.
      *
-     * @param vec1  the first feature vector
-     * @param vec2  the second feature vector
-     * @return      the cosine similarity between the two vectors
+     * @return  Future completed once the new index has been swapped in.
+     */
+    public CompletableFuture<Void> rebuildUserIndexAsync() {
+        return CompletableFuture.runAsync(this::buildUserIndex, this.maintenanceExecutor);
+    }
+
+    /**
+     * Rebuild the item similarity index in the background.
+     *
+     * @return  Future completed once the new index has been swapped in.
+     */
+    public CompletableFuture<Void> rebuildItemIndexAsync() {
+        return CompletableFuture.runAsync(this::buildItemIndex, this.maintenanceExecutor);
+    }
+
+    /**
+     * Initialize movie features from genres for content-based filtering.
+     */
+    public void initMovieFeatures() {
+        List<Movie> movies              = this.modelSource == ModelSource.CSV
+                                            ? this.readCsv("movies.csv", MovieLensCsv::readMovies)
+                                            : movieRepo.findAll();
+        this.movieFeatures              = GenreFeatures.build(movies, this.movieIndex);
+    }
+
+    /**
+     * Initialize TF-IDF tag profiles from tags.csv of the data location for content-based filtering.
+     * Without the file, or with a tag weight of 0, content similarity uses genres only.
      */
-    private double vectorCosineSimilarity(double[] vec1, double[] vec2) {
-        double dot  = 0.0, normA = 0.0, normB = 0.0;
-        for (int i = 0; i < vec1.length; i++) {
-            dot     += vec1[i] * vec2[i];
-            normA   += vec1[i] * vec1[i];
-            normB   += vec2[i] * vec2[i];
+    public void initTagFeatures() {
+        if(this.tagWeight <= 0) {
+            this.tagFeatures            = null;
+            return;
+        }
+        try {
+            long start                  = System.nanoTime();
+            int movieCount              = this.movieFeatures.movieCount();
+            this.tagFeatures            = this.readCsv("tags.csv", in -> MovieLensCsv.readTags(in, this.movieIndex, movieCount));
+            LOG.info("Built tag profiles ({} tagged movies, {} tags) in {} ms", this.tagFeatures.taggedMovies(),
+                        this.tagFeatures.termCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+        catch(UncheckedIOException e) {
+            LOG.warn("Cannot read movie tags, content similarity uses genres only: {}", e.getMessage());
+            this.tagFeatures            = null;
         }
-        return (normA == 0 || normB == 0) ? 0 : dot / (Math.sqrt(normA) * Math.sqrt(normB));
     }
 
     /**
@@ -198,50 +966,214 @@ public class CosineSimilarityService {
      * @return          List of recommended movie IDs.
      */
     public List<Long> recommendMoviesHybrid(Long userId, int topN) {
-        if(userId == null || topN <= 0)
-            return Collections.emptyList();
-        
+        return this.recommend(RecommendationAlgorithm.HYBRID, userId, topN).movieIds();
+    }
+
+    /**
+     * Hybrid filtering: CF recommendations re-ranked with their genre neighbours.
+     *
+     * @param model     Model snapshot.
+     * @param userId    ID of the target user.
+     * @param topN      Number of top recommendations to return.
+     * @param allowed   Bitmap of the dense movie indices that may be recommended, null for every movie.
+     * @return          Recommended movie IDs and the most similar users behind the CF stage.
+     */
+    private Recommendations hybridFiltering(ModelView model, long userId, int topN, long[] allowed) {
+
         // Collaborative Filtering.
-        List<Long> cfRecommendations    = this.recommendMovies(userId, topN * 2);
+        Recommendations cf              = this.collaborativeFiltering(model, userId, topN * 2, allowed);
+        List<Long> cfRecommendations    = cf.movieIds();
 
-        // Content-Based Filtering.
-        Map<Long, Double> cbScores      = new HashMap<Long, Double>();
-        for (Long movieIdA : cfRecommendations) {
-            double[] featuresA          = movieFeatures.get(movieIdA);
-            if (featuresA == null)
+        // Map CF recommendations to dense indices of the item index.
+        long time                       = System.nanoTime();
+        ItemSimilarityIndex index       = model.itemIndex();
+        double[] cbScores               = new double[index.movieCount()];
+        boolean[] candidates            = new boolean[index.movieCount()];
+        int[] touched                   = new int[cfRecommendations.size() * (this.itemNeighbours + 1)];
+        int touchedCount                = 0;
+        for (Long movieId : cfRecommendations) {
+            int movie                   = movieIndex.indexOf(movieId);
+            if (movie < 0 || movie >= index.movieCount())
                 continue;
+            candidates[movie]           = true;
+            touched[touchedCount++]     = movie;
+        }
+        int cfCount                     = touchedCount;
 
-            // Calculate similarity with all other movies.
-            for (Map.Entry<Long, double[]> entry : movieFeatures.entrySet()) {
-                Long movieIdB           = entry.getKey();
-                if (movieIdA.equals(movieIdB))
+        // Content-Based Filtering: accumulate the precomputed neighbours of each CF recommendation.
+        int[] ptr                       = index.ptr();
+        int[] neighbours                = index.neighbours();
+        float[] similarities            = index.similarities();
+        for (int i = 0; i < cfCount; i++) {
+            int movieA                  = touched[i];
+            for (int k = ptr[movieA]; k < ptr[movieA + 1]; k++) {
+                int movieB              = neighbours[k];
+                if (allowed != null && !GenreFeatures.contains(allowed, movieB))
                     continue;
-
-                double sim              = this.vectorCosineSimilarity(featuresA, entry.getValue());
-                cbScores.merge(movieIdB, sim, Double::sum);
+                if (cbScores[movieB] == 0 && !candidates[movieB])
+                    touched[touchedCount++] = movieB;
+                cbScores[movieB]        += similarities[k];
             }
         }
 
-        // Combine CF and CB scores.
-        Map<Long, Double> hybridScores = new HashMap<>();
-        for (Long movieId : movieFeatures.keySet()) {
+        time                            = this.metrics.stage(Stage.CONTENT, time);
 
-            // CF score is 1 if in CF recommendations, else 0.
-            double cfScore              = cfRecommendations.contains(movieId) ? 1.0 : 0.0;
+        // Combine CF and CB scores. Movies outside every neighbourhood score 0 and are never selected.
+        TopK hybridScores               = new TopK(topN);
+        for (int i = 0; i < touchedCount; i++) {
+            int movie                   = touched[i];
 
-            // CB score from content-based filtering.
-            double cbScore              = cbScores.getOrDefault(movieId, 0.0);
+            // CF score is 1 if in CF recommendations, else 0.
+            double cfScore              = i < cfCount ? 1.0 : 0.0;
 
             // Weighted combination of CF and CB scores.
-            double finalScore           = CosineSimilarityService.CF_WEIGHT * cfScore + (1 - CosineSimilarityService.CF_WEIGHT) * cbScore;
-            hybridScores.put(movieId, finalScore);
+            double finalScore           = CosineSimilarityService.CF_WEIGHT * cfScore + (1 - CosineSimilarityService.CF_WEIGHT) * cbScores[movie];
+            hybridScores.offer(movie, finalScore);
+        }
+
+        // Return top N recommendations.
+        List<Long> movieIds             = CosineSimilarityService.toMovieIds(hybridScores.sort(), this.movieIndex);
+        this.metrics.candidatesScored(touchedCount);
+        this.metrics.stage(Stage.RANK, time);
+        return new Recommendations(movieIds, cf.neighbourIds());
+    }
+
+    /**
+     * Item-based collaborative filtering: every movie rated by the user votes for its precomputed
+     * rating neighbours, weighted by similarity and rating. The cost depends only on the user's
+     * ratings and the neighbourhood size, never on the number of users.
+     *
+     * @param model     Model snapshot.
+     * @param userId    ID of the target user.
+     * @param topN      Number of top recommendations to return.
+     * @param allowed   Bitmap of the dense movie indices that may be recommended, null for every movie.
+     * @return          Recommended movie IDs, without neighbour users.
+     */
+    private Recommendations itemBasedFiltering(ModelView model, long userId, int topN, long[] allowed) {
+        RatingMatrix matrix             = model.ratings();
+        ItemSimilarityIndex index       = model.ratingItemIndex();
+        int target                      = matrix.userIndex(userId);
+        if(target < 0 || index == null)
+            return Recommendations.EMPTY;
+
+        // Movies already rated by the user are never candidates.
+        long time                       = System.nanoTime();
+        int[] rated                     = matrix.rowMovies(target);
+        float[] ratings                 = matrix.rowRatings(target);
+        int from                        = matrix.rowStart(target);
+        int to                          = matrix.rowEnd(target);
+        double[] scores                 = new double[index.movieCount()];
+        for(int k = from; k < to; k++) {
+            if(rated[k] < scores.length)
+                scores[rated[k]]        = Double.NaN;
+        }
+
+        // Accumulate the neighbours of each rated movie.
+        int[] ptr                       = index.ptr();
+        int[] neighbours                = index.neighbours();
+        float[] similarities            = index.similarities();
+        int[] touched                   = new int[Math.min(scores.length, (to - from) * this.itemCfNeighbours)];
+        int touchedCount                = 0;
+        for(int k = from; k < to; k++) {
+            int movie                   = rated[k];
+            if(movie >= scores.length)
+                continue;
+            for(int n = ptr[movie]; n < ptr[movie + 1]; n++) {
+                int candidate           = neighbours[n];
+                double current          = scores[candidate];
+                if(Double.isNaN(current) || (allowed != null && !GenreFeatures.contains(allowed, candidate)))
+                    continue;
+                if(current == 0)
+                    touched[touchedCount++] = candidate;
+                scores[candidate]       = current + similarities[n] * ratings[k];
+            }
+        }
+
+        time                            = this.metrics.stage(Stage.AGGREGATE, time);
+
+        // Return top N recommendations.
+        TopK topMovies                  = new TopK(topN);
+        for(int i = 0; i < touchedCount; i++)
+            topMovies.offer(touched[i], scores[touched[i]]);
+        List<Long> movieIds             = CosineSimilarityService.toMovieIds(topMovies.sort(), matrix.movies());
+        this.metrics.candidatesScored(touchedCount);
+        this.metrics.stage(Stage.RANK, time);
+        return new Recommendations(movieIds, new long[0]);
+    }
+
+    /**
+     * Latent-factor recommendations: the user's factors are scored against every movie's factors,
+     * a dense dot product over contiguous arrays, vectorized in the vectorized execution mode.
+     * Users who joined after the last training are not covered until the next one.
+     *
+     * @param model     Model snapshot.
+     * @param userId    ID of the target user.
+     * @param topN      Number of top recommendations to return.
+     * @param allowed   Bitmap of the dense movie indices that may be recommended, null for every movie.
+     * @return          Recommended movie IDs, without neighbour users.
+     */
+    private Recommendations factorizationFiltering(ModelView model, long userId, int topN, long[] allowed) {
+        RatingMatrix matrix             = model.ratings();
+        MatrixFactorization factors     = model.factorization();
+        int target                      = matrix.userIndex(userId);
+        if(target < 0 || factors == null || target >= factors.userCount())
+            return Recommendations.EMPTY;
+
+        long time                       = System.nanoTime();
+        float[] scores                  = new float[factors.movieCount()];
+        if(this.executionMode == ExecutionMode.VECTORIZED)
+            VectorKernels.factorScores(factors, target, scores);
+        else
+            factors.scores(target, scores);
+
+        // Movies already rated by the user are never candidates.
+        int[] rated                     = matrix.rowMovies(target);
+        for(int k = matrix.rowStart(target); k < matrix.rowEnd(target); k++) {
+            if(rated[k] < scores.length)
+                scores[rated[k]]        = Float.NaN;
         }
 
+        time                            = this.metrics.stage(Stage.AGGREGATE, time);
+
         // Return top N recommendations.
-        return hybridScores.entrySet().stream()
-                                        .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-                                        .limit(topN)
-                                        .map(Map.Entry::getKey)
-                                        .toList();
+        TopK topMovies                  = new TopK(topN);
+        for(int movie = 0; movie < scores.length; movie++) {
+            if(allowed == null || GenreFeatures.contains(allowed, movie))
+                topMovies.offer(movie, scores[movie]);
+        }
+        List<Long> movieIds             = CosineSimilarityService.toMovieIds(topMovies.sort(), matrix.movies());
+        this.metrics.candidatesScored(scores.length);
+        this.metrics.stage(Stage.RANK, time);
+        return new Recommendations(movieIds, new long[0]);
+    }
+
+    /**
+     * Popularity recommendation for a user with too few ratings, read off the precomputed ranking in O(topN).
+     *
+     * @param model     Model snapshot.
+     * @param user      Dense index of the user, negative if unknown.
+     * @param topN      Number of top recommendations to return.
+     * @param filter    Genres the recommended movies must have.
+     * @param allowed   Bitmap of the dense movie indices that may be recommended, null for every movie.
+     * @return          Recommended movie IDs, without neighbour users.
+     */
+    private Recommendations popularityFallback(ModelView model, int user, int topN, GenreFilter filter, long[] allowed) {
+        RatingMatrix matrix             = model.ratings();
+        int from                        = user < 0 ? 0 : matrix.rowStart(user);
+        int to                          = user < 0 ? 0 : matrix.rowEnd(user);
+        int[] rated                     = user < 0 ? new int[0] : matrix.rowMovies(user);
+
+        // The user rated fewer movies than the threshold, so a linear check is cheapest.
+        int[] top                       = model.popularity().top(topN, filter, allowed, movie -> {
+            for(int k = from; k < to; k++) {
+                if(rated[k] == movie)
+                    return true;
+            }
+            return false;
+        });
+        List<Long> movieIds             = new ArrayList<Long>(top.length);
+        for(int movie : top)
+            movieIds.add(matrix.movies().idAt(movie));
+        return new Recommendations(movieIds, new long[0]);
     }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV reader working directly on bytes.
+ * Numeric fields are parsed in place without creating strings, and text fields support
+ * RFC 4180 quoting. Every {@code next*} method consumes one field and its delimiter.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE    = 1 << 16;  // Bytes read from the stream at once.
+    private static final int MAX_FAST_DIGITS = 18;      // Digits that always fit a long mantissa.
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+                                                    1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+    private final InputStream in;                       // Underlying stream.
+    private final byte[] buffer                         = new byte[CsvReader.BUFFER_SIZE];
+    private int position;                               // Next byte to read in the buffer.
+    private int limit;                                  // End of valid bytes in the buffer.
+    private byte[] field                                = new byte[256];    // Scratch bytes of the current field.
+    private int fieldLength;                            // Valid bytes in the scratch.
+
+    /**
+     * Constructor.
+     *
+     * @param in    Stream to read, closed with the reader.
+     */
+    public CsvReader(InputStream in) {
+        this.in         = in;
+    }
+
+    /**
+     * Check whether another record follows.
+     *
+     * @return  True if the stream has more bytes.
+     */
+    public boolean hasNext() throws IOException {
+        return this.peek() >= 0;
+    }
+
+    /**
+     * Skip the rest of the current record, including its line break.
+     */
+    public void skipLine() throws IOException {
+        for(int c = this.peek(); c >= 0; c = this.peek()) {
+            this.position++;
+            if(c == '\n')
+                return;
+        }
+    }
+
+    /**
+     * Skip one field.
+     */
+    public void skipField() throws IOException {
+        this.readField();
+    }
+
+    /**
+     * Read an integer field.
+     *
+     * @return  Parsed value.
+     */
+    public long nextLong() throws IOException {
+        long value          = 0;
+        boolean negative    = false;
+        int c               = this.peek();
+        if(c == '-') {
+            negative        = true;
+            this.position++;
+            c               = this.peek();
+        }
+        while(c >= '0' && c <= '9') {
+            value           = value * 10 + (c - '0');
+            this.position++;
+            c               = this.peek();
+        }
+        if(c != ',' && c != '\r' && c != '\n' && c >= 0)
+            throw new IOException("Invalid integer, unexpected '" + (char) c + "'");
+        this.consumeDelimiter();
+        return negative ? -value : value;
+    }
+
+    /**
+     * Read a decimal field.
+     * Plain decimals are parsed in place, other notations fall back to {@link Double#parseDouble(String)}.
+     *
+     * @return  Parsed value.
+     */
+    public double nextDouble() throws IOException {
+        this.readField();
+        long mantissa       = 0;
+        int digits          = 0;
+        int decimals        = -1;
+        int start           = this.fieldLength > 0 && (this.field[0] == '-' || this.field[0] == '+') ? 1 : 0;
+        for(int i = start; i < this.fieldLength; i++) {
+            byte b          = this.field[i];
+            if(b >= '0' && b <= '9' && digits < CsvReader.MAX_FAST_DIGITS) {
+                mantissa    = mantissa * 10 + (b - '0');
+                digits++;
+                if(decimals >= 0)
+                    decimals++;
+            }
+            else if(b == '.' && decimals < 0)
+                decimals    = 0;
+            else
+                return Double.parseDouble(new String(this.field, 0, this.fieldLength, StandardCharsets.US_ASCII));
+        }
+        if(digits == 0)
+            throw new IOException("Invalid decimal '" + new String(this.field, 0, this.fieldLength, StandardCharsets.US_ASCII) + "'");
+
+        double value        = decimals > 0 ? mantissa / CsvReader.POWERS_OF_TEN[decimals] : mantissa;
+        return start == 1 && this.field[0] == '-' ? -value : value;
+    }
+
+    /**
+     * Read a text field, decoding quotes and UTF-8.
+     *
+     * @return  Field content.
+     */
+    public String nextString() throws IOException {
+        this.readField();
+        return new String(this.field, 0, this.fieldLength, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * Copy the next field into the scratch buffer and consume its delimiter.
+     */
+    private void readField() throws IOException {
+        this.fieldLength    = 0;
+        int c               = this.peek();
+        if(c == '"') {
+            this.position++;
+            for(c = this.peek(); c >= 0; c = this.peek()) {
+                this.position++;
+                if(c == '"') {
+
+                    // A doubled quote is a literal quote, a single one closes the field.
+                    if(this.peek() != '"')
+                        break;
+                    this.position++;
+                }
+                this.append(c);
+            }
+        }
+        else {
+            for(; c >= 0 && c != ',' && c != '\r' && c != '\n'; c = this.peek()) {
+                this.append(c);
+                this.position++;
+            }
+        }
+        this.consumeDelimiter();
+    }
+
+    /**
+     * Consume a field separator or a line break, if present.
+     */
+    private void consumeDelimiter() throws IOException {
+        int c               = this.peek();
+        if(c == ',' || c == '\n')
+            this.position++;
+        else if(c == '\r') {
+            this.position++;
+            if(this.peek() == '\n')
+                this.position++;
+        }
+    }
+
+    /**
+     * Append a byte to the scratch buffer.
+     *
+     * @param b     Byte to append.
+     */
+    private void append(int b) {
+        if(this.fieldLength == this.field.length)
+            this.field      = Arrays.copyOf(this.field, this.field.length * 2);
+        this.field[this.fieldLength++] = (byte) b;
+    }
+
+    /**
+     * Look at the next byte without consuming it.
+     *
+     * @return  Next byte, or -1 at the end of the stream.
+     */
+    private int peek() throws IOException {
+        if(this.position == this.limit) {
+            int read;
+            do {
+                read        = this.in.read(this.buffer, 0, this.buffer.length);
+            } while(read == 0);
+            if(read < 0)
+                return -1;
+            this.position   = 0;
+            this.limit      = read;
+        }
+        return this.buffer[this.position] & 0xFF;
+    }
+}
@@ -0,0 +1,19 @@
+package com.recommendation_system.mvc.controller.service;
+
+/**
+ * Execution strategies for the similarity computations.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public enum ExecutionMode {
+
+    /** Single-threaded scan on the calling thread. */
+    SEQUENTIAL,
+
+    /** User rows partitioned over a dedicated fork-join pool. */
+    PARALLEL,
+
+    /** As PARALLEL, plus SIMD genre kernels through jdk.incubator.vector. */
+    VECTORIZED
+}
@@ -0,0 +1,218 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+
+import java.util.*;
+
+/**
+ * Immutable genre features for content-based filtering.
+ * Each movie's genres are packed into one {@code long} bitmask indexed by dense movie index,
+ * so the cosine similarity of two movies is {@code bitCount(a & b) / sqrt(bitCount(a) * bitCount(b))}.
+ * The inverted view, one bitmap of movie indices per genre, answers genre filters with word-wide ANDs and ORs.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class GenreFeatures {
+    private static final String GENRE_SEPARATOR = "\\|";    // Separator of the genres column.
+
+    private final Map<String, Integer> genreBits;           // Genre name -> bit position.
+    private final long[] masks;                             // Genre bitmask per dense movie index.
+    private final double[] inverseNorms;                    // 1 / sqrt(bitCount(mask)), 0 for movies without genres.
+    private final long[][] genreMovies;                     // Per genre bit, bitmap of the dense movie indices with the genre.
+
+    /**
+     * Constructor from prebuilt arrays.
+     *
+     * @param genreBits     Genre name -> bit position.
+     * @param masks         Genre bitmask per dense movie index.
+     */
+    GenreFeatures(Map<String, Integer> genreBits, long[] masks) {
+        this.genreBits      = genreBits;
+        this.masks          = masks;
+        this.inverseNorms   = new double[masks.length];
+        for(int movie = 0; movie < masks.length; movie++) {
+            int count       = Long.bitCount(masks[movie]);
+            this.inverseNorms[movie] = count == 0 ? 0.0 : 1.0 / Math.sqrt(count);
+        }
+
+        // Invert the masks into one movie bitmap per genre.
+        this.genreMovies    = new long[genreBits.size()][(masks.length + Long.SIZE - 1) / Long.SIZE];
+        for(int movie = 0; movie < masks.length; movie++) {
+            for(long mask = masks[movie]; mask != 0; mask &= mask - 1)
+                this.genreMovies[Long.numberOfTrailingZeros(mask)][movie >>> 6] |= 1L << movie;
+        }
+    }
+
+    /**
+     * Build genre features from movie entities.
+     * Bits are assigned to genres in alphabetical order.
+     *
+     * @param movies        Movies of the catalogue.
+     * @param movieIndex    Dictionary for movie IDs, extended with unseen movies.
+     * @return              The genre features.
+     */
+    public static GenreFeatures build(List<Movie> movies, IdIndex movieIndex) {
+        Set<String> allGenres               = new TreeSet<String>();
+        for(Movie mov : movies) {
+            if(mov.getGenres() != null)
+                allGenres.addAll(Arrays.asList(mov.getGenres().split(GenreFeatures.GENRE_SEPARATOR)));
+        }
+        if(allGenres.size() > Long.SIZE)
+            throw new IllegalStateException("Too many genres for a 64-bit mask: " + allGenres.size());
+
+        // Dictionary genre -> bit.
+        Map<String, Integer> genreBits      = new LinkedHashMap<String, Integer>();
+        for(String genre : allGenres)
+            genreBits.put(genre, genreBits.size());
+
+        // Register movies first, so the mask array covers every index.
+        for(Movie mov : movies)
+            movieIndex.getOrAdd(mov.getMovieId());
+        long[] masks                        = new long[movieIndex.size()];
+        for(Movie mov : movies) {
+            if(mov.getGenres() != null)
+                masks[movieIndex.indexOf(mov.getMovieId())] = GenreFeatures.encode(mov.getGenres(), genreBits);
+        }
+        return new GenreFeatures(Collections.unmodifiableMap(genreBits), masks);
+    }
+
+    /**
+     * Encode a pipe-separated genre list with a genre dictionary. Unknown genres are ignored.
+     *
+     * @param genres        Pipe-separated genres.
+     * @param genreBits     Genre name -> bit position.
+     * @return              Genre bitmask.
+     */
+    private static long encode(String genres, Map<String, Integer> genreBits) {
+        long mask               = 0L;
+        for(String genre : genres.split(GenreFeatures.GENRE_SEPARATOR)) {
+            Integer bit         = genreBits.get(genre);
+            if(bit != null)
+                mask            |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Encode a pipe-separated genre list with this dictionary. Unknown genres are ignored.
+     *
+     * @param genres    Pipe-separated genres.
+     * @return          Genre bitmask.
+     */
+    public long encode(String genres) {
+        return genres == null ? 0L : GenreFeatures.encode(genres, this.genreBits);
+    }
+
+    /**
+     * Cosine similarity between the genres of two movies.
+     *
+     * @param a     Dense index of the first movie.
+     * @param b     Dense index of the second movie.
+     * @return      Cosine similarity, 0 if either movie is unknown or has no genres.
+     */
+    public double similarity(int a, int b) {
+        if(a >= this.masks.length || b >= this.masks.length)
+            return 0.0;
+        return Long.bitCount(this.masks[a] & this.masks[b]) * this.inverseNorms[a] * this.inverseNorms[b];
+    }
+
+    /**
+     * Cosine similarity between one movie and every movie, in a branch-free loop.
+     *
+     * @param a     Dense index of the movie.
+     * @param out   Similarities by dense movie index, at least {@link #movieCount()} long.
+     */
+    public void similarities(int a, double[] out) {
+        long mask               = this.masks[a];
+        double inverseNorm      = this.inverseNorms[a];
+        for(int b = 0; b < this.masks.length; b++)
+            out[b]              = Long.bitCount(mask & this.masks[b]) * inverseNorm * this.inverseNorms[b];
+    }
+
+    /**
+     * Get the genre bitmask of a movie.
+     *
+     * @param movie     Dense index of the movie.
+     * @return          Genre bitmask, 0 if the movie is unknown.
+     */
+    public long mask(int movie) {
+        return movie < this.masks.length ? this.masks[movie] : 0L;
+    }
+
+    /**
+     * Select the movies matching a genre filter.
+     * Unknown genres match no movie, so they empty an AND filter and are ignored by an OR filter.
+     *
+     * @param filter    Genre filter, not empty.
+     * @return          Bitmap of the matching dense movie indices, see {@link #contains(long[], int)}.
+     */
+    public long[] select(GenreFilter filter) {
+        int words               = (this.masks.length + Long.SIZE - 1) / Long.SIZE;
+        long[] selected         = new long[words];
+        if(filter.matchAll())
+            Arrays.fill(selected, -1L);
+        for(String genre : filter.genres()) {
+            Integer bit         = this.genreBits.get(genre);
+            if(bit == null) {
+                if(filter.matchAll())
+                    return new long[words];
+                continue;
+            }
+            long[] movies       = this.genreMovies[bit];
+            for(int w = 0; w < words; w++)
+                selected[w]     = filter.matchAll() ? selected[w] & movies[w] : selected[w] | movies[w];
+        }
+        return selected;
+    }
+
+    /**
+     * Check whether a movie belongs to a bitmap returned by {@link #select(GenreFilter)}.
+     *
+     * @param bitmap    Bitmap of dense movie indices.
+     * @param movie     Dense index of the movie.
+     * @return          True if the movie is in the bitmap. Movies beyond the bitmap are not.
+     */
+    public static boolean contains(long[] bitmap, int movie) {
+        int word                = movie >>> 6;
+        return word < bitmap.length && (bitmap[word] & (1L << movie)) != 0;
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get number of movies.
+     *
+     * @return  Number of movies covered by the features.
+     */
+    public int movieCount() {
+        return masks.length;
+    }
+
+    /**
+     * Get genre dictionary.
+     *
+     * @return  Unmodifiable map genre name -> bit position.
+     */
+    public Map<String, Integer> genreBits() {
+        return genreBits;
+    }
+
+    /**
+     * Get inverse norms.
+     *
+     * @return  1 / sqrt(bitCount(mask)) per dense movie index, 0 for movies without genres.
+     */
+    public double[] inverseNorms() {
+        return inverseNorms;
+    }
+
+    /**
+     * Get genre bitmasks.
+     *
+     * @return  Genre bitmask per dense movie index.
+     */
+    public long[] masks() {
+        return masks;
+    }
+}
@@ -0,0 +1,46 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Genre restriction of recommended movies.
+ *
+ * @param genres    Genre names, sorted and distinct. Empty for no restriction.
+ * @param matchAll  True if a movie must have every genre (AND), false if any genre is enough (OR).
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public record GenreFilter(List<String> genres, boolean matchAll) {
+
+    /** No restriction. */
+    public static final GenreFilter NONE = new GenreFilter(List.of(), false);
+
+    /**
+     * Constructor normalizing the genres, so equal filters are equal cache keys.
+     */
+    public GenreFilter {
+        genres              = genres.stream().map(String::strip).filter(genre -> !genre.isEmpty()).distinct().sorted().toList();
+    }
+
+    /**
+     * Create a filter.
+     *
+     * @param genres    Genre names, may be null for no restriction.
+     * @param matchAll  True if a movie must have every genre, false if any genre is enough.
+     * @return          The filter.
+     */
+    public static GenreFilter of(Collection<String> genres, boolean matchAll) {
+        return genres == null || genres.isEmpty() ? GenreFilter.NONE : new GenreFilter(List.copyOf(genres), matchAll);
+    }
+
+    /**
+     * Check whether the filter restricts anything.
+     *
+     * @return  True if there are no genres.
+     */
+    public boolean isEmpty() {
+        return this.genres.isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Arrays;
+
+/**
+ * Append-only dictionary mapping external IDs (users, movies) to dense indices.
+ * Indices are assigned in insertion order and never change, so primitive arrays
+ * indexed by them stay valid across model snapshots.
+ * Lookups are lock-free and allocation-free, inserts are serialized.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class IdIndex {
+    private static final int EMPTY              = -1;   // Marker for a free hash slot.
+    private static final int INITIAL_CAPACITY   = 16;   // Initial number of IDs before growing.
+
+    private volatile State state                = new State(IdIndex.INITIAL_CAPACITY);  // Current published state.
+
+    /**
+     * Immutable view of the dictionary arrays.
+     * Writers fill free slots in place and publish a new state with the increased size.
+     */
+    private static final class State {
+        final long[] ids;       // Dense index -> external ID.
+        final int[] slots;      // Open-addressing table (hash slot -> dense index).
+        final int size;         // Number of IDs visible through this state.
+
+        State(int capacity) {
+            this.ids    = new long[capacity];
+            this.slots  = new int[capacity * 2];
+            this.size   = 0;
+            Arrays.fill(this.slots, IdIndex.EMPTY);
+        }
+
+        State(long[] ids, int[] slots, int size) {
+            this.ids    = ids;
+            this.slots  = slots;
+            this.size   = size;
+        }
+    }
+
+    /**
+     * Get the dense index of an ID.
+     *
+     * @param id    External ID.
+     * @return      Dense index, or -1 if the ID is unknown.
+     */
+    public int indexOf(long id) {
+        State s             = this.state;
+        int mask            = s.slots.length - 1;
+
+        // Linear probing. A slot filled after this state was published cannot precede the ID in its chain.
+        for(int pos = IdIndex.hash(id) & mask; ; pos = (pos + 1) & mask) {
+            int index       = s.slots[pos];
+            if(index == IdIndex.EMPTY || index >= s.size)
+                return -1;
+            if(s.ids[index] == id)
+                return index;
+        }
+    }
+
+    /**
+     * Get the dense index of an ID, assigning the next free index if it is unknown.
+     *
+     * @param id    External ID.
+     * @return      Dense index of the ID.
+     */
+    public synchronized int getOrAdd(long id) {
+        int index           = this.indexOf(id);
+        if(index >= 0)
+            return index;
+
+        State s             = this.state;
+        if(s.size == s.ids.length)
+            s               = IdIndex.grow(s);
+
+        // Write the ID before the slot, then publish the new size.
+        index               = s.size;
+        s.ids[index]        = id;
+        int mask            = s.slots.length - 1;
+        int pos             = IdIndex.hash(id) & mask;
+        while(s.slots[pos] != IdIndex.EMPTY)
+            pos             = (pos + 1) & mask;
+        s.slots[pos]        = index;
+        this.state          = new State(s.ids, s.slots, index + 1);
+        return index;
+    }
+
+    /**
+     * Get the external ID stored at a dense index.
+     *
+     * @param index     Dense index.
+     * @return          External ID.
+     */
+    public long idAt(int index) {
+        return this.state.ids[index];
+    }
+
+    /**
+     * Get the number of IDs in the dictionary.
+     *
+     * @return  Number of IDs.
+     */
+    public int size() {
+        return this.state.size;
+    }
+
+    /**
+     * Copy the state into arrays twice as large and rehash.
+     *
+     * @param s     Full state.
+     * @return      New state with the same content.
+     */
+    private static State grow(State s) {
+        State grown         = new State(s.ids.length * 2);
+        int mask            = grown.slots.length - 1;
+        System.arraycopy(s.ids, 0, grown.ids, 0, s.size);
+        for(int i = 0; i < s.size; i++) {
+            int pos         = IdIndex.hash(s.ids[i]) & mask;
+            while(grown.slots[pos] != IdIndex.EMPTY)
+                pos         = (pos + 1) & mask;
+            grown.slots[pos] = i;
+        }
+        return new State(grown.ids, grown.slots, s.size);
+    }
+
+    /**
+     * Mix the bits of an ID for the hash table.
+     *
+     * @param id    External ID.
+     * @return      Hash code.
+     */
+    private static int hash(long id) {
+        long h              = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,141 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.stream.IntStream;
+
+/**
+ * Immutable index of the top-M most similar movies of each movie.
+ * Neighbours are stored best first in compressed sparse row form over dense movie indices,
+ * so scoring against a movie's neighbourhood is a sparse lookup-and-accumulate.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class ItemSimilarityIndex {
+    private final int movieCount;       // Number of movies covered by the index.
+    private final int[] ptr;            // Neighbours of movie m span [ptr[m], ptr[m + 1]).
+    private final int[] neighbours;     // Neighbour movie indices, best first.
+    private final float[] similarities; // Similarities aligned with neighbours.
+
+    /**
+     * Similarity of one movie to every movie, addressed by dense index.
+     */
+    @FunctionalInterface
+    public interface Similarity {
+
+        /**
+         * Compute the similarities of a movie to all movies.
+         *
+         * @param a     Dense index of the movie.
+         * @param out   Similarity to each dense movie index. Movies scoring 0 are not neighbours.
+         */
+        void row(int a, double[] out);
+    }
+
+    /**
+     * Constructor from prebuilt arrays.
+     *
+     * @param movieCount    Number of movies covered by the index.
+     * @param ptr           Row pointers.
+     * @param neighbours    Neighbour movie indices, best first.
+     * @param similarities  Similarities aligned with neighbours.
+     */
+    ItemSimilarityIndex(int movieCount, int[] ptr, int[] neighbours, float[] similarities) {
+        this.movieCount     = movieCount;
+        this.ptr            = ptr;
+        this.neighbours     = neighbours;
+        this.similarities   = similarities;
+    }
+
+    /**
+     * Build the index by scoring every pair of movies, rows in parallel.
+     *
+     * @param movieCount    Number of movies.
+     * @param m             Number of neighbours to keep per movie.
+     * @param similarity    Similarity of a movie to every movie.
+     * @return              The index.
+     */
+    public static ItemSimilarityIndex build(int movieCount, int m, Similarity similarity) {
+        int[] counts                = new int[movieCount];
+        int[] allNeighbours         = new int[movieCount * m];
+        float[] allSimilarities     = new float[movieCount * m];
+
+        // Each row writes only its own slice, so rows can be computed independently.
+        IntStream.range(0, movieCount).parallel().forEach(a -> {
+            TopK top                = new TopK(m);
+            double[] row            = new double[movieCount];
+            similarity.row(a, row);
+            for(int b = 0; b < movieCount; b++) {
+                if(a != b && row[b] > 0)
+                    top.offer(b, row[b]);
+            }
+            top.sort();
+            for(int rank = 0; rank < top.size(); rank++) {
+                allNeighbours[a * m + rank]     = top.id(rank);
+                allSimilarities[a * m + rank]   = (float) top.score(rank);
+            }
+            counts[a]               = top.size();
+        });
+        return ItemSimilarityIndex.compact(movieCount, m, counts, allNeighbours, allSimilarities);
+    }
+
+    /**
+     * Pack fixed-width neighbour slices into compressed rows.
+     *
+     * @param movieCount        Number of movies.
+     * @param m                 Width of each slice.
+     * @param counts            Number of valid neighbours in each slice.
+     * @param allNeighbours     Fixed-width neighbour slices.
+     * @param allSimilarities   Fixed-width similarity slices.
+     * @return                  The index.
+     */
+    static ItemSimilarityIndex compact(int movieCount, int m, int[] counts, int[] allNeighbours, float[] allSimilarities) {
+        int[] ptr                   = new int[movieCount + 1];
+        for(int a = 0; a < movieCount; a++)
+            ptr[a + 1]              = ptr[a] + counts[a];
+        int[] neighbours            = new int[ptr[movieCount]];
+        float[] similarities        = new float[ptr[movieCount]];
+        for(int a = 0; a < movieCount; a++) {
+            System.arraycopy(allNeighbours, a * m, neighbours, ptr[a], counts[a]);
+            System.arraycopy(allSimilarities, a * m, similarities, ptr[a], counts[a]);
+        }
+        return new ItemSimilarityIndex(movieCount, ptr, neighbours, similarities);
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get number of movies.
+     *
+     * @return  Number of movies covered by the index.
+     */
+    public int movieCount() {
+        return movieCount;
+    }
+
+    /**
+     * Get row pointers.
+     *
+     * @return  Neighbours of movie m span [ptr[m], ptr[m + 1]).
+     */
+    public int[] ptr() {
+        return ptr;
+    }
+
+    /**
+     * Get neighbour movie indices.
+     *
+     * @return  Neighbour movie indices, best first within each row.
+     */
+    public int[] neighbours() {
+        return neighbours;
+    }
+
+    /**
+     * Get neighbour similarities.
+     *
+     * @return  Similarities aligned with {@link #neighbours()}.
+     */
+    public float[] similarities() {
+        return similarities;
+    }
+}
@@ -0,0 +1,341 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable latent-factor model of a rating matrix, trained with alternating least squares.
+ * A rating is predicted as {@code mean + userBias + movieBias + dot(userFactors, movieFactors)}.
+ * Biases are fitted once with damping, then ALS alternates between solving every user and every movie
+ * in parallel, each one a small k x k ridge regression on its own ratings (weighted-lambda regularization).
+ * Factors are stored row-major in contiguous {@code float[]}, k floats per user or movie.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class MatrixFactorization {
+    private static final double BIAS_DAMPING    = 10.0;     // Pseudo-ratings pulling sparse biases towards 0.
+    private static final double INIT_SCALE      = 0.1;      // Standard deviation of the initial factors.
+
+    private final int factors;              // Latent factors per user and movie.
+    private final int userCount;            // Number of users covered by the model.
+    private final int movieCount;           // Number of movies covered by the model.
+    private final float mean;               // Global mean rating.
+    private final float[] userBiases;       // Rating offset per user.
+    private final float[] movieBiases;      // Rating offset per movie.
+    private final float[] userFactors;      // User u spans [u * factors, (u + 1) * factors).
+    private final float[] movieFactors;     // Movie m spans [m * factors, (m + 1) * factors).
+    private final double rmse;              // Root mean squared error on the training ratings.
+
+    /**
+     * Constructor from trained arrays, measuring the training error.
+     */
+    private MatrixFactorization(int factors, int userCount, int movieCount, float mean, float[] userBiases, float[] movieBiases,
+                                float[] userFactors, float[] movieFactors, RatingMatrix trainingSet) {
+        this.factors        = factors;
+        this.userCount      = userCount;
+        this.movieCount     = movieCount;
+        this.mean           = mean;
+        this.userBiases     = userBiases;
+        this.movieBiases    = movieBiases;
+        this.userFactors    = userFactors;
+        this.movieFactors   = movieFactors;
+        this.rmse           = this.rmse(trainingSet);
+    }
+
+    /**
+     * Constructor from a model restored from a snapshot.
+     *
+     * @param factors       Latent factors per user and movie.
+     * @param userCount     Number of users covered by the model.
+     * @param movieCount    Number of movies covered by the model.
+     * @param mean          Global mean rating.
+     * @param userBiases    Rating offset per user.
+     * @param movieBiases   Rating offset per movie.
+     * @param userFactors   Row-major user factors.
+     * @param movieFactors  Row-major movie factors.
+     * @param rmse          Root mean squared error on the training ratings.
+     */
+    MatrixFactorization(int factors, int userCount, int movieCount, float mean, float[] userBiases, float[] movieBiases,
+                        float[] userFactors, float[] movieFactors, double rmse) {
+        this.factors        = factors;
+        this.userCount      = userCount;
+        this.movieCount     = movieCount;
+        this.mean           = mean;
+        this.userBiases     = userBiases;
+        this.movieBiases    = movieBiases;
+        this.userFactors    = userFactors;
+        this.movieFactors   = movieFactors;
+        this.rmse           = rmse;
+    }
+
+    /**
+     * Train a model on every rating of a matrix.
+     *
+     * @param matrix            Rating matrix.
+     * @param factors           Latent factors per user and movie, at least 1.
+     * @param iterations        ALS sweeps, each solving all users then all movies.
+     * @param regularization    Ridge penalty per rating of the solved user or movie, positive.
+     * @param seed              Seed of the initial factors.
+     * @return                  The trained model.
+     */
+    public static MatrixFactorization train(RatingMatrix matrix, int factors, int iterations, double regularization, long seed) {
+        if(factors < 1 || iterations < 0 || regularization <= 0)
+            throw new IllegalArgumentException("Invalid factorization parameters: factors=" + factors
+                                                + ", iterations=" + iterations + ", regularization=" + regularization);
+        int userCount                   = matrix.userCount();
+        int movieCount                  = matrix.movieCount();
+
+        // Damped biases: movies first, then users on what the movies leave.
+        double sum                      = 0.0;
+        for(int user = 0; user < userCount; user++) {
+            float[] ratings             = matrix.rowRatings(user);
+            for(int k = matrix.rowStart(user); k < matrix.rowEnd(user); k++)
+                sum                     += ratings[k];
+        }
+        float mean                      = matrix.ratingCount() == 0 ? 0f : (float) (sum / matrix.ratingCount());
+        float[] movieBiases             = new float[movieCount];
+        IntStream.range(0, movieCount).parallel().forEach(movie -> {
+            float[] ratings             = matrix.colRatings(movie);
+            double offset               = 0.0;
+            for(int k = matrix.colStart(movie); k < matrix.colEnd(movie); k++)
+                offset                  += ratings[k] - mean;
+            movieBiases[movie]          = (float) (offset / (MatrixFactorization.BIAS_DAMPING + matrix.colEnd(movie) - matrix.colStart(movie)));
+        });
+        float[] userBiases              = new float[userCount];
+        IntStream.range(0, userCount).parallel().forEach(user -> {
+            int[] movies                = matrix.rowMovies(user);
+            float[] ratings             = matrix.rowRatings(user);
+            double offset               = 0.0;
+            for(int k = matrix.rowStart(user); k < matrix.rowEnd(user); k++)
+                offset                  += ratings[k] - mean - movieBiases[movies[k]];
+            userBiases[user]            = (float) (offset / (MatrixFactorization.BIAS_DAMPING + matrix.rowEnd(user) - matrix.rowStart(user)));
+        });
+
+        // Small random factors, then alternate: each half-sweep is a set of independent ridge regressions.
+        Random random                   = new Random(seed);
+        float[] userFactors             = new float[userCount * factors];
+        float[] movieFactors            = new float[movieCount * factors];
+        for(int i = 0; i < userFactors.length; i++)
+            userFactors[i]              = (float) (random.nextGaussian() * MatrixFactorization.INIT_SCALE);
+        for(int i = 0; i < movieFactors.length; i++)
+            movieFactors[i]             = (float) (random.nextGaussian() * MatrixFactorization.INIT_SCALE);
+        for(int iteration = 0; iteration < iterations; iteration++) {
+            IntStream.range(0, userCount).parallel().forEach(user ->
+                MatrixFactorization.solve(  matrix.rowMovies(user), matrix.rowRatings(user), matrix.rowStart(user), matrix.rowEnd(user),
+                                            mean + userBiases[user], movieBiases, movieFactors, userFactors, user, factors, regularization));
+            IntStream.range(0, movieCount).parallel().forEach(movie ->
+                MatrixFactorization.solve(  matrix.colUsers(movie), matrix.colRatings(movie), matrix.colStart(movie), matrix.colEnd(movie),
+                                            mean + movieBiases[movie], userBiases, userFactors, movieFactors, movie, factors, regularization));
+        }
+
+        return new MatrixFactorization( factors, userCount, movieCount, mean, userBiases, movieBiases,
+                                        userFactors, movieFactors, matrix);
+    }
+
+    /**
+     * Solve the factors of one user (or movie) against the fixed factors of the other side:
+     * {@code (Q^T Q + lambda n I) x = Q^T (r - offsets)} over its n ratings.
+     *
+     * @param others        Indices of the rated movies (or raters).
+     * @param ratings       Ratings aligned with others.
+     * @param from          Start of the ratings (inclusive).
+     * @param to            End of the ratings (exclusive).
+     * @param offset        Mean plus the bias of the solved row.
+     * @param otherBiases   Biases of the other side.
+     * @param fixed         Factors of the other side.
+     * @param solved        Factors being solved.
+     * @param row           Index of the solved row.
+     * @param k             Number of factors.
+     * @param lambda        Regularization per rating.
+     */
+    private static void solve(  int[] others, float[] ratings, int from, int to, double offset, float[] otherBiases,
+                                float[] fixed, float[] solved, int row, int k, double lambda) {
+        if(from == to) {
+            Arrays.fill(solved, row * k, (row + 1) * k, 0f);
+            return;
+        }
+        double[] a                      = new double[k * k];
+        double[] b                      = new double[k];
+        for(int n = from; n < to; n++) {
+            int base                    = others[n] * k;
+            double residual             = ratings[n] - offset - otherBiases[others[n]];
+            for(int i = 0; i < k; i++) {
+                double qi               = fixed[base + i];
+                b[i]                    += residual * qi;
+                for(int j = 0; j <= i; j++)
+                    a[i * k + j]        += qi * fixed[base + j];
+            }
+        }
+        double ridge                    = lambda * (to - from);
+        for(int i = 0; i < k; i++)
+            a[i * k + i]                += ridge;
+
+        // Cholesky factorization of the lower triangle, then forward and back substitution.
+        for(int j = 0; j < k; j++) {
+            double diagonal             = a[j * k + j];
+            for(int p = 0; p < j; p++)
+                diagonal                -= a[j * k + p] * a[j * k + p];
+            a[j * k + j]                = Math.sqrt(diagonal);
+            for(int i = j + 1; i < k; i++) {
+                double value            = a[i * k + j];
+                for(int p = 0; p < j; p++)
+                    value               -= a[i * k + p] * a[j * k + p];
+                a[i * k + j]            = value / a[j * k + j];
+            }
+        }
+        for(int i = 0; i < k; i++) {
+            double value                = b[i];
+            for(int p = 0; p < i; p++)
+                value                   -= a[i * k + p] * b[p];
+            b[i]                        = value / a[i * k + i];
+        }
+        for(int i = k - 1; i >= 0; i--) {
+            double value                = b[i];
+            for(int p = i + 1; p < k; p++)
+                value                   -= a[p * k + i] * b[p];
+            b[i]                        = value / a[i * k + i];
+        }
+        for(int i = 0; i < k; i++)
+            solved[row * k + i]         = (float) b[i];
+    }
+
+    /**
+     * Predict the rating of a user for a movie.
+     * Users or movies unknown to the model fall back to the biases that are known.
+     *
+     * @param user      Dense index of the user.
+     * @param movie     Dense index of the movie.
+     * @return          Predicted rating.
+     */
+    public double predict(int user, int movie) {
+        boolean knownUser               = user >= 0 && user < this.userCount;
+        boolean knownMovie              = movie >= 0 && movie < this.movieCount;
+        double prediction               = this.mean + (knownUser ? this.userBiases[user] : 0f) + (knownMovie ? this.movieBiases[movie] : 0f);
+        if(knownUser && knownMovie) {
+            for(int i = 0; i < this.factors; i++)
+                prediction              += this.userFactors[user * this.factors + i] * this.movieFactors[movie * this.factors + i];
+        }
+        return prediction;
+    }
+
+    /**
+     * Predict the ratings of a user for every movie of the model, up to the shared user bias.
+     *
+     * @param user      Dense index of the user, known to the model.
+     * @param out       Score per dense movie index, at least {@link #movieCount()} long.
+     */
+    public void scores(int user, float[] out) {
+        int base                        = user * this.factors;
+        for(int movie = 0; movie < this.movieCount; movie++) {
+            float dot                   = this.movieBiases[movie];
+            int offset                  = movie * this.factors;
+            for(int i = 0; i < this.factors; i++)
+                dot                     += this.userFactors[base + i] * this.movieFactors[offset + i];
+            out[movie]                  = dot;
+        }
+    }
+
+    /**
+     * Root mean squared error of the model on the ratings of a matrix sharing its dictionaries.
+     *
+     * @param matrix    Rating matrix, e.g. held-out ratings.
+     * @return          RMSE, 0 without ratings.
+     */
+    public double rmse(RatingMatrix matrix) {
+        double squares                  = 0.0;
+        for(int user = 0; user < matrix.userCount(); user++) {
+            int[] movies                = matrix.rowMovies(user);
+            float[] ratings             = matrix.rowRatings(user);
+            for(int k = matrix.rowStart(user); k < matrix.rowEnd(user); k++) {
+                double error            = ratings[k] - this.predict(user, movies[k]);
+                squares                 += error * error;
+            }
+        }
+        return matrix.ratingCount() == 0 ? 0.0 : Math.sqrt(squares / matrix.ratingCount());
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get number of latent factors.
+     *
+     * @return  Factors per user and movie.
+     */
+    public int factors() {
+        return factors;
+    }
+
+    /**
+     * Get number of users.
+     *
+     * @return  Number of users covered by the model.
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * Get number of movies.
+     *
+     * @return  Number of movies covered by the model.
+     */
+    public int movieCount() {
+        return movieCount;
+    }
+
+    /**
+     * Get movie factors.
+     *
+     * @return  Row-major movie factors, {@link #factors()} floats per movie.
+     */
+    public float[] movieFactors() {
+        return movieFactors;
+    }
+
+    /**
+     * Get user factors.
+     *
+     * @return  Row-major user factors, {@link #factors()} floats per user.
+     */
+    public float[] userFactors() {
+        return userFactors;
+    }
+
+    /**
+     * Get global mean.
+     *
+     * @return  Global mean rating.
+     */
+    public float mean() {
+        return mean;
+    }
+
+    /**
+     * Get user biases.
+     *
+     * @return  Rating offset per user.
+     */
+    public float[] userBiases() {
+        return userBiases;
+    }
+
+    /**
+     * Get movie biases.
+     *
+     * @return  Rating offset per movie.
+     */
+    public float[] movieBiases() {
+        return movieBiases;
+    }
+
+    /**
+     * Get training error.
+     *
+     * @return  Root mean squared error on the training ratings.
+     */
+    public double rmse() {
+        return rmse;
+    }
+}
@@ -0,0 +1,425 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of the in-memory model: ID dictionaries, compressed rating matrix with norms, genre features,
+ * item similarity index, item-based CF index and latent-factor model, with the settings they were built with,
+ * so a restart serves every algorithm without rebuilding or retraining anything.
+ * <p>
+ * Layout, little-endian: magic, format version, the origin of the ratings, the sections as length-prefixed
+ * primitive arrays, then a CRC-32C of everything before it. The origin names the source and its state when
+ * the snapshot was taken, and a snapshot is only restored while the source is still in that state.
+ * Snapshots are written through a {@link FileChannel} to a temporary file that atomically replaces the previous
+ * one, and read back by memory-mapping the file, verifying the checksum and bulk-copying each section into
+ * heap arrays. The mapping is not served from directly: the model classes are heap arrays that incremental
+ * updates and compactions replace, so restoring costs one sequential copy of the file instead of a rebuild.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class ModelSnapshot {
+    private static final int MAGIC          = 0x524D534E;   // "RMSN".
+    private static final int FORMAT_VERSION = 4;            // Bumped on every layout change.
+    private static final int HEADER_BYTES   = 2 * Integer.BYTES;
+    private static final int BUFFER_SIZE    = 1 << 20;      // Bytes written to the channel at once.
+
+    /**
+     * Settings the derived models of a snapshot were built with.
+     *
+     * @param itemNeighbours    Number of neighbours per movie of the item index.
+     * @param tagWeight         Share of tag similarity in the item index.
+     * @param itemCfNeighbours  Number of rating neighbours per movie of the item-based CF index.
+     * @param factors           Latent factors per user and movie.
+     * @param iterations        ALS sweeps of the training.
+     * @param regularization    ALS ridge penalty per rating.
+     */
+    public record Settings(int itemNeighbours, double tagWeight, int itemCfNeighbours, int factors, int iterations, double regularization) {
+    }
+
+    /**
+     * Model restored from a snapshot.
+     *
+     * @param ratings           Rating matrix.
+     * @param features          Genre features.
+     * @param itemIndex         Item similarity index.
+     * @param ratingItemIndex   Rating neighbourhoods of movies, for item-based CF.
+     * @param factorization     Latent-factor model.
+     * @param settings          Settings the item indices and the latent-factor model were built with.
+     */
+    public record Model(RatingMatrix ratings, GenreFeatures features, ItemSimilarityIndex itemIndex, ItemSimilarityIndex ratingItemIndex,
+                        MatrixFactorization factorization, Settings settings) {
+    }
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private ModelSnapshot() {
+    }
+
+    /**
+     * Write a snapshot of the model.
+     *
+     * @param path              Snapshot file, replaced atomically.
+     * @param origin            Source of the ratings and its state, e.g. a row count and highest ID.
+     * @param ratings           Rating matrix, compacted before writing.
+     * @param features          Genre features.
+     * @param itemIndex         Item similarity index.
+     * @param ratingItemIndex   Rating neighbourhoods of movies, for item-based CF.
+     * @param factorization     Latent-factor model.
+     * @param settings          Settings the item indices and the latent-factor model were built with.
+     * @return                  Size of the snapshot in bytes.
+     */
+    public static long write(   Path path, String origin, RatingMatrix ratings, GenreFeatures features, ItemSimilarityIndex itemIndex,
+                                ItemSimilarityIndex ratingItemIndex, MatrixFactorization factorization, Settings settings) throws IOException {
+        RatingMatrix matrix         = ratings.compact();
+        IdIndex users               = matrix.users();
+        IdIndex movies              = matrix.movies();
+
+        // Dictionaries are append-only, so the first entries are exactly the ones the model refers to.
+        int movieCount              = Math.max(Math.max(matrix.movieCount(), features.movieCount()), Math.max(itemIndex.movieCount(), ratingItemIndex.movieCount()));
+        long[] userIds              = new long[matrix.userCount()];
+        long[] movieIds             = new long[movieCount];
+        for(int u = 0; u < userIds.length; u++)
+            userIds[u]              = users.idAt(u);
+        for(int m = 0; m < movieIds.length; m++)
+            movieIds[m]             = movies.idAt(m);
+
+        Path parent                 = path.toAbsolutePath().getParent();
+        if(parent != null)
+            Files.createDirectories(parent);
+        Path temporary              = path.resolveSibling(path.getFileName() + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out              = new Writer(channel);
+            out.putInt(ModelSnapshot.MAGIC);
+            out.putInt(ModelSnapshot.FORMAT_VERSION);
+            byte[] originBytes      = origin.getBytes(StandardCharsets.UTF_8);
+            out.putInt(originBytes.length);
+            out.putBytes(originBytes);
+
+            // Dictionaries.
+            out.putLongs(userIds);
+            out.putLongs(movieIds);
+
+            // Rating matrix.
+            out.putInt(matrix.movieCount());
+            out.putInts(matrix.rowPtr());
+            out.putInts(matrix.rowMovies());
+            out.putFloats(matrix.rowRatings());
+            out.putInts(matrix.colPtr());
+            out.putInts(matrix.colUsers());
+            out.putFloats(matrix.colRatings());
+            out.putDoubles(matrix.userNorms());
+
+            // Genre features, genres in bit order.
+            String[] genres         = new String[features.genreBits().size()];
+            for(Map.Entry<String, Integer> genre : features.genreBits().entrySet())
+                genres[genre.getValue()] = genre.getKey();
+            out.putInt(genres.length);
+            for(String genre : genres) {
+                byte[] bytes        = genre.getBytes(StandardCharsets.UTF_8);
+                out.putInt(bytes.length);
+                out.putBytes(bytes);
+            }
+            out.putLongs(features.masks());
+
+            // Item similarity index.
+            out.putInt(settings.itemNeighbours());
+            out.putDouble(settings.tagWeight());
+            out.putInt(itemIndex.movieCount());
+            out.putInts(itemIndex.ptr());
+            out.putInts(itemIndex.neighbours());
+            out.putFloats(itemIndex.similarities());
+
+            // Item-based CF index.
+            out.putInt(settings.itemCfNeighbours());
+            out.putInt(ratingItemIndex.movieCount());
+            out.putInts(ratingItemIndex.ptr());
+            out.putInts(ratingItemIndex.neighbours());
+            out.putFloats(ratingItemIndex.similarities());
+
+            // Latent-factor model.
+            out.putInt(settings.factors());
+            out.putInt(settings.iterations());
+            out.putDouble(settings.regularization());
+            out.putInt(factorization.userCount());
+            out.putInt(factorization.movieCount());
+            out.putDouble(factorization.mean());
+            out.putDouble(factorization.rmse());
+            out.putFloats(factorization.userBiases());
+            out.putFloats(factorization.movieBiases());
+            out.putFloats(factorization.userFactors());
+            out.putFloats(factorization.movieFactors());
+
+            out.finish();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Files.size(path);
+    }
+
+    /**
+     * Read a snapshot.
+     * The dictionaries are extended only once the whole snapshot has been verified and decoded,
+     * and must not hold any ID yet, so the snapshot's dense indices stay valid.
+     *
+     * @param path      Snapshot file.
+     * @param origin    Current source of the ratings and its state, the snapshot must have been taken from it.
+     * @param users     Empty dictionary for user IDs.
+     * @param movies    Empty dictionary for movie IDs.
+     * @return          The restored model.
+     * @throws IOException  If the file is unreadable, from another format version or origin, or corrupted.
+     */
+    public static Model read(Path path, String origin, IdIndex users, IdIndex movies) throws IOException {
+        if(users.size() > 0 || movies.size() > 0)
+            throw new IllegalStateException("Snapshots can only be restored into empty dictionaries");
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size                   = channel.size();
+            if(size < ModelSnapshot.HEADER_BYTES + Long.BYTES || size > Integer.MAX_VALUE)
+                throw new IOException("Invalid snapshot size " + size);
+            MappedByteBuffer mapped     = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer in               = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            // Header and checksum first, nothing is decoded from a stale or damaged file.
+            if(in.getInt(0) != ModelSnapshot.MAGIC)
+                throw new IOException("Not a model snapshot");
+            if(in.getInt(Integer.BYTES) != ModelSnapshot.FORMAT_VERSION)
+                throw new IOException("Unsupported snapshot format " + in.getInt(Integer.BYTES) + ", expected " + ModelSnapshot.FORMAT_VERSION);
+            int payloadEnd              = (int) size - Long.BYTES;
+            CRC32C crc                  = new CRC32C();
+            crc.update(in.duplicate().limit(payloadEnd));
+            if(crc.getValue() != in.getLong(payloadEnd))
+                throw new IOException("Snapshot checksum mismatch");
+            in.position(ModelSnapshot.HEADER_BYTES).limit(payloadEnd);
+
+            try {
+                byte[] originBytes      = new byte[in.getInt()];
+                in.get(originBytes);
+                String snapshotOrigin   = new String(originBytes, StandardCharsets.UTF_8);
+                if(!snapshotOrigin.equals(origin))
+                    throw new IOException("Snapshot of " + snapshotOrigin + ", source is now " + origin);
+
+                long[] userIds          = ModelSnapshot.getLongs(in);
+                long[] movieIds         = ModelSnapshot.getLongs(in);
+
+                int movieCount          = in.getInt();
+                int[] rowPtr            = ModelSnapshot.getInts(in);
+                int[] rowMovies         = ModelSnapshot.getInts(in);
+                float[] rowRatings      = ModelSnapshot.getFloats(in);
+                int[] colPtr            = ModelSnapshot.getInts(in);
+                int[] colUsers          = ModelSnapshot.getInts(in);
+                float[] colRatings      = ModelSnapshot.getFloats(in);
+                double[] userNorms      = ModelSnapshot.getDoubles(in);
+
+                Map<String, Integer> genreBits = new LinkedHashMap<String, Integer>();
+                int genreCount          = in.getInt();
+                for(int bit = 0; bit < genreCount; bit++) {
+                    byte[] bytes        = new byte[in.getInt()];
+                    in.get(bytes);
+                    genreBits.put(new String(bytes, StandardCharsets.UTF_8), bit);
+                }
+                long[] masks            = ModelSnapshot.getLongs(in);
+
+                int itemNeighbours      = in.getInt();
+                double tagWeight        = in.getDouble();
+                int itemMovieCount      = in.getInt();
+                int[] ptr               = ModelSnapshot.getInts(in);
+                int[] neighbours        = ModelSnapshot.getInts(in);
+                float[] similarities    = ModelSnapshot.getFloats(in);
+
+                int itemCfNeighbours    = in.getInt();
+                int cfMovieCount        = in.getInt();
+                int[] cfPtr             = ModelSnapshot.getInts(in);
+                int[] cfNeighbours      = ModelSnapshot.getInts(in);
+                float[] cfSimilarities  = ModelSnapshot.getFloats(in);
+
+                int factors             = in.getInt();
+                int iterations          = in.getInt();
+                double regularization   = in.getDouble();
+                int factorUsers         = in.getInt();
+                int factorMovies        = in.getInt();
+                float mean              = (float) in.getDouble();
+                double rmse             = in.getDouble();
+                float[] userBiases      = ModelSnapshot.getFloats(in);
+                float[] movieBiases     = ModelSnapshot.getFloats(in);
+                float[] userFactors     = ModelSnapshot.getFloats(in);
+                float[] movieFactors    = ModelSnapshot.getFloats(in);
+
+                if(in.hasRemaining() || rowPtr.length != userIds.length + 1 || colPtr.length != movieCount + 1
+                        || movieCount > movieIds.length || masks.length > movieIds.length || itemMovieCount > movieIds.length
+                        || cfMovieCount > movieIds.length || factorUsers > userIds.length || factorMovies > movieIds.length
+                        || userBiases.length != factorUsers || movieBiases.length != factorMovies
+                        || userFactors.length != (long) factorUsers * factors || movieFactors.length != (long) factorMovies * factors)
+                    throw new IOException("Inconsistent snapshot sections");
+
+                // Verified: register the IDs in their original dense order.
+                for(long userId : userIds)
+                    users.getOrAdd(userId);
+                for(long movieId : movieIds)
+                    movies.getOrAdd(movieId);
+
+                RatingMatrix ratings    = RatingMatrix.restore( users, movies, userIds.length, movieCount,
+                                                                rowPtr, rowMovies, rowRatings, colPtr, colUsers, colRatings, userNorms);
+                GenreFeatures features  = new GenreFeatures(Collections.unmodifiableMap(genreBits), masks);
+                ItemSimilarityIndex itemIndex = new ItemSimilarityIndex(itemMovieCount, ptr, neighbours, similarities);
+                ItemSimilarityIndex ratingItemIndex = new ItemSimilarityIndex(cfMovieCount, cfPtr, cfNeighbours, cfSimilarities);
+                MatrixFactorization factorization   = new MatrixFactorization(  factors, factorUsers, factorMovies, mean,
+                                                                                userBiases, movieBiases, userFactors, movieFactors, rmse);
+                return new Model(ratings, features, itemIndex, ratingItemIndex, factorization,
+                                    new Settings(itemNeighbours, tagWeight, itemCfNeighbours, factors, iterations, regularization));
+            }
+            catch(RuntimeException e) {
+                throw new IOException("Malformed snapshot", e);
+            }
+        }
+    }
+
+    /*  BULK READS FROM THE MAPPED FILE */
+
+    private static int[] getInts(ByteBuffer in) {
+        int[] values        = new int[in.getInt()];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    private static long[] getLongs(ByteBuffer in) {
+        long[] values       = new long[in.getInt()];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    private static float[] getFloats(ByteBuffer in) {
+        float[] values      = new float[in.getInt()];
+        in.asFloatBuffer().get(values);
+        in.position(in.position() + values.length * Float.BYTES);
+        return values;
+    }
+
+    private static double[] getDoubles(ByteBuffer in) {
+        double[] values     = new double[in.getInt()];
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + values.length * Double.BYTES);
+        return values;
+    }
+
+    /**
+     * Buffered writer of length-prefixed primitive arrays, checksumming every byte it flushes.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer     = ByteBuffer.allocateDirect(ModelSnapshot.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc            = new CRC32C();
+
+        Writer(FileChannel channel) {
+            this.channel    = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            this.ensure(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            this.ensure(Double.BYTES);
+            this.buffer.putDouble(value);
+        }
+
+        void putBytes(byte[] values) throws IOException {
+            for(int from = 0; from < values.length; ) {
+                int count   = Math.min(values.length - from, this.available(Byte.BYTES));
+                this.buffer.put(values, from, count);
+                from        += count;
+            }
+        }
+
+        void putInts(int[] values) throws IOException {
+            this.putInt(values.length);
+            for(int from = 0; from < values.length; ) {
+                int count   = Math.min(values.length - from, this.available(Integer.BYTES));
+                this.buffer.asIntBuffer().put(values, from, count);
+                this.buffer.position(this.buffer.position() + count * Integer.BYTES);
+                from        += count;
+            }
+        }
+
+        void putLongs(long[] values) throws IOException {
+            this.putInt(values.length);
+            for(int from = 0; from < values.length; ) {
+                int count   = Math.min(values.length - from, this.available(Long.BYTES));
+                this.buffer.asLongBuffer().put(values, from, count);
+                this.buffer.position(this.buffer.position() + count * Long.BYTES);
+                from        += count;
+            }
+        }
+
+        void putFloats(float[] values) throws IOException {
+            this.putInt(values.length);
+            for(int from = 0; from < values.length; ) {
+                int count   = Math.min(values.length - from, this.available(Float.BYTES));
+                this.buffer.asFloatBuffer().put(values, from, count);
+                this.buffer.position(this.buffer.position() + count * Float.BYTES);
+                from        += count;
+            }
+        }
+
+        void putDoubles(double[] values) throws IOException {
+            this.putInt(values.length);
+            for(int from = 0; from < values.length; ) {
+                int count   = Math.min(values.length - from, this.available(Double.BYTES));
+                this.buffer.asDoubleBuffer().put(values, from, count);
+                this.buffer.position(this.buffer.position() + count * Double.BYTES);
+                from        += count;
+            }
+        }
+
+        /**
+         * Flush the buffer and append the checksum.
+         */
+        void finish() throws IOException {
+            this.flush();
+            long checksum   = this.crc.getValue();
+            this.buffer.putLong(checksum);
+            this.buffer.flip();
+            while(this.buffer.hasRemaining())
+                this.channel.write(this.buffer);
+            this.buffer.clear();
+        }
+
+        /**
+         * Get the number of whole elements that fit in the buffer, flushing it if none does.
+         */
+        private int available(int elementBytes) throws IOException {
+            this.ensure(elementBytes);
+            return this.buffer.remaining() / elementBytes;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if(this.buffer.remaining() < bytes)
+                this.flush();
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            this.crc.update(this.buffer.duplicate());
+            while(this.buffer.hasRemaining())
+                this.channel.write(this.buffer);
+            this.buffer.clear();
+        }
+    }
+}
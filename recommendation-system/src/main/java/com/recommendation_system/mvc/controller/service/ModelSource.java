@@ -0,0 +1,16 @@
+package com.recommendation_system.mvc.controller.service;
+
+/**
+ * Sources the in-memory recommendation model can be loaded from.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public enum ModelSource {
+
+    /** Movies and ratings tables, through the JPA repositories. */
+    DATABASE,
+
+    /** MovieLens CSV files (movies.csv, ratings.csv) under recommendation.data.location. */
+    CSV
+}
@@ -0,0 +1,93 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service for reading the movie catalogue without materializing it:
+ * keyset-paginated pages, or a database cursor streaming every movie.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@Service
+public class MovieCatalogService {
+    private final MovieRepository movieRepository;  // Repository for Movie entity.
+    private final EntityManager entityManager;      // Persistence context of the streaming transaction.
+
+    /**
+     * Page of movies.
+     *
+     * @param movies        Movies ordered by ID.
+     * @param nextAfter     Value of the after parameter for the next page, null on the last page.
+     */
+    public record MoviePage(List<Movie> movies, Long nextAfter) {
+    }
+
+    /**
+     * Receiver of streamed movies.
+     */
+    @FunctionalInterface
+    public interface MovieSink {
+
+        /**
+         * Accept one movie.
+         *
+         * @param movie     Movie, detached once the call returns.
+         */
+        void accept(Movie movie) throws IOException;
+    }
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param movieRepository   Repository for Movie entity.
+     * @param entityManager     Persistence context of the streaming transaction.
+     */
+    public MovieCatalogService(MovieRepository movieRepository, EntityManager entityManager) {
+        this.movieRepository    = movieRepository;
+        this.entityManager      = entityManager;
+    }
+
+    /**
+     * Get the page of movies following a movie ID.
+     *
+     * @param afterId   Movies with an ID greater than this one are returned.
+     * @param limit     Maximum number of movies.
+     * @return          The page.
+     */
+    public MoviePage page(long afterId, int limit) {
+        List<Movie> movies      = movieRepository.findByMovieIdGreaterThanOrderByMovieIdAsc(afterId, Limit.of(limit));
+        Long nextAfter          = movies.size() < limit ? null : movies.get(movies.size() - 1).getMovieId();
+        return new MoviePage(movies, nextAfter);
+    }
+
+    /**
+     * Stream every movie ordered by ID.
+     * Rows are fetched in batches and each movie is detached once handed out,
+     * so memory stays constant whatever the size of the catalogue.
+     *
+     * @param sink  Receiver of the movies.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(MovieSink sink) throws IOException {
+        try(Stream<Movie> movies = movieRepository.streamAllOrderedById()) {
+            Iterator<Movie> iterator    = movies.iterator();
+            while(iterator.hasNext()) {
+                Movie movie             = iterator.next();
+                sink.accept(movie);
+                entityManager.detach(movie);
+            }
+        }
+    }
+}
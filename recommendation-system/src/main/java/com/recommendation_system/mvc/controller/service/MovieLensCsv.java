@@ -0,0 +1,123 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bulk loaders for the MovieLens CSV files, streaming them through {@link CsvReader}
+ * straight into the in-memory model.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class MovieLensCsv {
+    private static final int INITIAL_RATINGS    = 1 << 16;  // Initial capacity of the rating arrays.
+    private static final int INITIAL_TAGS       = 1 << 12;  // Initial capacity of the tag arrays.
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private MovieLensCsv() {
+    }
+
+    /**
+     * Read movies.csv (movieId,title,genres).
+     *
+     * @param in    Stream of the file, closed on return.
+     * @return      List of movies.
+     */
+    public static List<Movie> readMovies(InputStream in) throws IOException {
+        List<Movie> movies          = new ArrayList<Movie>();
+        try(CsvReader reader = new CsvReader(in)) {
+            reader.skipLine();
+            while(reader.hasNext()) {
+                long movieId        = reader.nextLong();
+                Movie movie         = new Movie(reader.nextString(), reader.nextString());
+                movie.setMovieId(movieId);
+                movies.add(movie);
+            }
+        }
+        return movies;
+    }
+
+    /**
+     * Read ratings.csv (userId,movieId,rating,timestamp) into a rating matrix.
+     *
+     * @param in        Stream of the file, closed on return.
+     * @param users     Dictionary for user IDs, extended with unseen users.
+     * @param movies    Dictionary for movie IDs, extended with unseen movies.
+     * @return          The rating matrix.
+     */
+    public static RatingMatrix readRatings(InputStream in, IdIndex users, IdIndex movies) throws IOException {
+        return MovieLensCsv.readRatings(in, users, movies, RatingDecay.NONE).ratings();
+    }
+
+    /**
+     * Read ratings.csv (userId,movieId,rating,timestamp) into a rating matrix and its entries weighted by age.
+     *
+     * @param in        Stream of the file, closed on return.
+     * @param users     Dictionary for user IDs, extended with unseen users.
+     * @param movies    Dictionary for movie IDs, extended with unseen movies.
+     * @param decay     Decay of the ratings by age.
+     * @return          The rating matrix and its decayed counterpart, the same matrix without decay.
+     */
+    public static RatingDecay.Matrices readRatings(InputStream in, IdIndex users, IdIndex movies, RatingDecay decay) throws IOException {
+        int size                    = 0;
+        int[] entryUsers            = new int[MovieLensCsv.INITIAL_RATINGS];
+        int[] entryMovies           = new int[MovieLensCsv.INITIAL_RATINGS];
+        float[] entryRatings        = new float[MovieLensCsv.INITIAL_RATINGS];
+        long[] entryTimestamps      = new long[MovieLensCsv.INITIAL_RATINGS];
+        try(CsvReader reader = new CsvReader(in)) {
+            reader.skipLine();
+            while(reader.hasNext()) {
+                if(size == entryUsers.length) {
+                    entryUsers      = Arrays.copyOf(entryUsers, size * 2);
+                    entryMovies     = Arrays.copyOf(entryMovies, size * 2);
+                    entryRatings    = Arrays.copyOf(entryRatings, size * 2);
+                    entryTimestamps = Arrays.copyOf(entryTimestamps, size * 2);
+                }
+                entryUsers[size]    = users.getOrAdd(reader.nextLong());
+                entryMovies[size]   = movies.getOrAdd(reader.nextLong());
+                entryRatings[size]  = (float) reader.nextDouble();
+                entryTimestamps[size] = reader.nextLong();
+                size++;
+            }
+        }
+        return decay.build(users, movies, entryUsers, entryMovies, entryRatings, entryTimestamps, size);
+    }
+
+    /**
+     * Read tags.csv (userId,movieId,tag,timestamp) into TF-IDF tag profiles.
+     * Tags of movies unknown to the dictionary are skipped.
+     *
+     * @param in            Stream of the file, closed on return.
+     * @param movies        Dictionary for movie IDs, not extended.
+     * @param movieCount    Number of movies covered by the profiles.
+     * @return              The tag features.
+     */
+    public static TagFeatures readTags(InputStream in, IdIndex movies, int movieCount) throws IOException {
+        int size                    = 0;
+        int[] entryMovies           = new int[MovieLensCsv.INITIAL_TAGS];
+        String[] entryTags          = new String[MovieLensCsv.INITIAL_TAGS];
+        try(CsvReader reader = new CsvReader(in)) {
+            reader.skipLine();
+            while(reader.hasNext()) {
+                if(size == entryMovies.length) {
+                    entryMovies     = Arrays.copyOf(entryMovies, size * 2);
+                    entryTags       = Arrays.copyOf(entryTags, size * 2);
+                }
+                reader.skipField();
+                entryMovies[size]   = movies.indexOf(reader.nextLong());
+                entryTags[size]     = reader.nextString();
+                reader.skipLine();
+                size++;
+            }
+        }
+        return TagFeatures.build(entryMovies, entryTags, size, movieCount);
+    }
+}
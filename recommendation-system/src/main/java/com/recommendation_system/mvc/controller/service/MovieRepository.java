@@ -1,7 +1,13 @@
 package com.recommendation_system.mvc.controller.service;
 
 import java.util.List;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import com.recommendation_system.mvc.model.entity.Movie;
 
 /**
@@ -30,4 +36,42 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
      */
     List<Movie> findByGenres(String genres);
 
+    /**
+     * Find the page of movies following a movie ID (keyset pagination).
+     * 
+     * @param afterId   Movies with an ID greater than this one are returned.
+     * @param limit     Maximum number of movies.
+     * @return          Movies ordered by ID.
+     */
+    List<Movie> findByMovieIdGreaterThanOrderByMovieIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Stream every movie ordered by ID, fetched from the database in batches.
+     * Must be consumed inside a transaction and closed afterwards.
+     * 
+     * @return          Stream of movies.
+     */
+    @Query("select m from Movie m order by m.movieId")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Movie> streamAllOrderedById();
+
+    /**
+     * Aggregates of the movies table that change with every insert or delete.
+     */
+    interface Watermark {
+        Long getMovies();
+        Long getLastId();
+    }
+
+    /**
+     * Get the current watermark of the movies table, to tell whether the genre features of a model snapshot are stale.
+     *
+     * @return  Row count and highest ID.
+     */
+    @Query("select count(m) as movies, max(m.movieId) as lastId from Movie m")
+    Watermark findWatermark();
+
 }
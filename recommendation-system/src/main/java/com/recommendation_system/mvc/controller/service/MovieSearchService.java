@@ -0,0 +1,110 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for searching movie titles in memory instead of with a LIKE query.
+ * The title index is built on the first search from the model's movie source (the movie table, or movies.csv
+ * of the data location), so startup does not scan the catalogue, and updated copy-on-write as movies are added,
+ * so searches read a consistent index without locking.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@Service
+public class MovieSearchService {
+    private static final Logger LOG                 = LoggerFactory.getLogger(MovieSearchService.class);
+    private static final ResourceLoader RESOURCES   = new DefaultResourceLoader();  // Resolves classpath: and file: data locations.
+
+    private final MovieRepository movieRepository;  // Repository for Movie entity.
+    private volatile TitleSearchIndex index;        // Current title index, null until the first search.
+    private final List<Movie> pending               = new ArrayList<Movie>();      // Movies added before the index was built.
+
+    @Value("${recommendation.data.source:database}")
+    private ModelSource modelSource;                // Where movies are loaded from.
+
+    @Value("${recommendation.data.location:classpath:data/}")
+    private String dataLocation;                    // Directory of the MovieLens CSV files.
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param movieRepository   Repository for Movie entity.
+     */
+    public MovieSearchService(MovieRepository movieRepository) {
+        this.movieRepository    = movieRepository;
+    }
+
+    /**
+     * Search movies by title, ignoring case and accents.
+     *
+     * @param keyword   Keyword to search.
+     * @param prefix    True to match the start of title words, false to match anywhere in the title.
+     * @param limit     Maximum number of movies.
+     * @return          Matching movies, ordered by ID.
+     */
+    public List<Movie> search(String keyword, boolean prefix, int limit) {
+        TitleSearchIndex index  = this.index;
+        if(index == null)
+            index               = this.initIndex();
+        return prefix ? index.prefix(keyword, limit) : index.contains(keyword, limit);
+    }
+
+    /**
+     * Add a saved movie to the title index.
+     *
+     * @param movie     Movie, with its ID.
+     */
+    public synchronized void add(Movie movie) {
+        if(this.index == null)
+            this.pending.add(movie);
+        else
+            this.index          = this.index.withMovie(movie);
+    }
+
+    /**
+     * Build the title index from the movie source, unless another search already did.
+     * Movies added meanwhile are appended, those the source already returned are skipped.
+     *
+     * @return  The index.
+     */
+    private synchronized TitleSearchIndex initIndex() {
+        if(this.index != null)
+            return this.index;
+        long start              = System.nanoTime();
+        TitleSearchIndex built  = TitleSearchIndex.build(this.modelSource == ModelSource.CSV ? this.readMovies() : movieRepository.findAll());
+        for(Movie movie : this.pending)
+            built               = built.withMovie(movie);
+        this.pending.clear();
+        this.index              = built;
+        LOG.info("Indexed {} movie titles from {} in {} ms", built.size(), this.modelSource, (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    /**
+     * Read movies.csv of the data location.
+     *
+     * @return  List of movies.
+     */
+    private List<Movie> readMovies() {
+        String location         = this.dataLocation.endsWith("/") ? this.dataLocation : this.dataLocation + "/";
+        try {
+            return MovieLensCsv.readMovies(MovieSearchService.RESOURCES.getResource(location + "movies.csv").getInputStream());
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException("Cannot read " + location + "movies.csv", e);
+        }
+    }
+}
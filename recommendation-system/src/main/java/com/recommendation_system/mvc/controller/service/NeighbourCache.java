@@ -0,0 +1,181 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Bounded cache of each user's most similar users, tied to a rating matrix version.
+ * When ratings change, cached neighbourhoods are patched with one similarity per changed user
+ * instead of rescanning every user. A neighbourhood is dropped only when the patch cannot prove
+ * that no uncached user overtook it.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+final class NeighbourCache {
+    private final Cache<Integer, Neighbours> cache;     // User row -> neighbourhood.
+
+    /**
+     * Most similar users of one user, best first.
+     *
+     * @param version       Version of the rating matrix the neighbourhood is valid for.
+     * @param users         Row indices of the neighbours.
+     * @param similarities  Similarities aligned with users.
+     * @param floor         Upper bound on the similarity of every user not in the list.
+     */
+    record Neighbours(long version, int[] users, double[] similarities, double floor) {
+
+        /**
+         * Create a neighbourhood from a sorted selection.
+         *
+         * @param version   Version of the rating matrix.
+         * @param top       Selection sorted best first.
+         * @param k         Requested size, a shorter selection means every other user is listed.
+         * @return          The neighbourhood.
+         */
+        static Neighbours of(long version, TopK top, int k) {
+            int[] users             = new int[top.size()];
+            double[] similarities   = new double[top.size()];
+            for(int rank = 0; rank < top.size(); rank++) {
+                users[rank]         = top.id(rank);
+                similarities[rank]  = top.score(rank);
+            }
+            double floor            = top.size() < k ? Double.NEGATIVE_INFINITY : similarities[top.size() - 1];
+            return new Neighbours(version, users, similarities, floor);
+        }
+
+        /**
+         * Apply the new similarity of a user whose ratings changed.
+         *
+         * @param version   Version of the updated rating matrix.
+         * @param user      Row index of the changed user.
+         * @param sim       New similarity of the changed user.
+         * @param k         Maximum number of neighbours.
+         * @return          The patched neighbourhood, or null if it must be recomputed.
+         */
+        Neighbours patch(long version, int user, double sim, int k) {
+            int pos                 = -1;
+            for(int i = 0; i < this.users.length; i++) {
+                if(this.users[i] == user)
+                    pos             = i;
+            }
+
+            // A listed user falling below the floor may have been overtaken by an unlisted one.
+            if(pos >= 0 && sim < this.floor)
+                return null;
+
+            int[] patchedUsers      = this.users;
+            double[] patchedSims    = this.similarities;
+            double patchedFloor     = this.floor;
+            if(pos >= 0) {
+                patchedUsers        = this.users.clone();
+                patchedSims         = this.similarities.clone();
+                patchedSims[pos]    = sim;
+            }
+            else if(this.users.length < k) {
+                patchedUsers        = Arrays.copyOf(this.users, this.users.length + 1);
+                patchedSims         = Arrays.copyOf(this.similarities, this.similarities.length + 1);
+                patchedUsers[this.users.length] = user;
+                patchedSims[this.users.length]  = sim;
+            }
+            else if(sim > this.similarities[this.users.length - 1]) {
+
+                // The evicted neighbour becomes the best unlisted user.
+                patchedFloor        = Math.max(this.floor, this.similarities[this.users.length - 1]);
+                patchedUsers        = this.users.clone();
+                patchedSims         = this.similarities.clone();
+                patchedUsers[this.users.length - 1] = user;
+                patchedSims[this.users.length - 1]  = sim;
+            }
+            else
+                patchedFloor        = Math.max(this.floor, sim);
+
+            // Insertion sort back to best first, the list holds a handful of users.
+            for(int i = 1; i < patchedUsers.length; i++) {
+                for(int j = i; j > 0 && (patchedSims[j] > patchedSims[j - 1]
+                                    || (patchedSims[j] == patchedSims[j - 1] && patchedUsers[j] < patchedUsers[j - 1])); j--) {
+                    int u           = patchedUsers[j];
+                    double s        = patchedSims[j];
+                    patchedUsers[j] = patchedUsers[j - 1];
+                    patchedSims[j]  = patchedSims[j - 1];
+                    patchedUsers[j - 1] = u;
+                    patchedSims[j - 1]  = s;
+                }
+            }
+            return new Neighbours(version, patchedUsers, patchedSims, patchedFloor);
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize   Maximum number of cached neighbourhoods.
+     */
+    NeighbourCache(long maximumSize) {
+        this.cache  = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Get the neighbourhood of a user for a matrix version.
+     *
+     * @param user      Row index of the user.
+     * @param version   Version of the rating matrix.
+     * @return          The neighbourhood, or null if missing or computed on another version.
+     */
+    Neighbours get(int user, long version) {
+        Neighbours neighbours   = this.cache.getIfPresent(user);
+        return neighbours != null && neighbours.version() == version ? neighbours : null;
+    }
+
+    /**
+     * Store the neighbourhood of a user.
+     *
+     * @param user          Row index of the user.
+     * @param neighbours    The neighbourhood.
+     */
+    void put(int user, Neighbours neighbours) {
+        this.cache.put(user, neighbours);
+    }
+
+    /**
+     * Carry the cached neighbourhoods over to an updated rating matrix.
+     * Users with changed ratings lose their own neighbourhood, every other neighbourhood is
+     * patched with its similarity to each changed user.
+     *
+     * @param previous      Version the neighbourhoods were computed on.
+     * @param updated       Updated rating matrix.
+     * @param changedUsers  Row indices of the users whose ratings changed.
+     * @param changedCount  Number of changed users.
+     * @param k             Maximum number of neighbours.
+     * @param similarity    User similarity.
+     */
+    void update(long previous, RatingMatrix updated, int[] changedUsers, int changedCount, int k, UserSimilarity similarity) {
+        for(int i = 0; i < changedCount; i++)
+            this.cache.invalidate(changedUsers[i]);
+
+        for(Map.Entry<Integer, Neighbours> entry : this.cache.asMap().entrySet()) {
+            int user                = entry.getKey();
+            Neighbours neighbours   = entry.getValue();
+            if(neighbours.version() != previous) {
+                this.cache.invalidate(user);
+                continue;
+            }
+            for(int i = 0; i < changedCount && neighbours != null; i++)
+                neighbours          = neighbours.patch(updated.version(), changedUsers[i], similarity.between(updated, user, changedUsers[i]), k);
+            if(neighbours == null)
+                this.cache.invalidate(user);
+            else
+                this.cache.put(user, neighbours);
+        }
+    }
+
+    /**
+     * Drop every cached neighbourhood.
+     */
+    void clear() {
+        this.cache.invalidateAll();
+    }
+}
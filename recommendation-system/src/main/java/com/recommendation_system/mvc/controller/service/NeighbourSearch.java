@@ -0,0 +1,16 @@
+package com.recommendation_system.mvc.controller.service;
+
+/**
+ * Strategies for finding the users most similar to a target user.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public enum NeighbourSearch {
+
+    /** Score every user, exact but linear in the number of users. */
+    EXACT,
+
+    /** Score only the candidates of the {@link UserLshIndex}, approximate and sub-linear. */
+    LSH
+}
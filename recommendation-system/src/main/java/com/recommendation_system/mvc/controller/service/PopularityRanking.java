@@ -0,0 +1,160 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable ranking of movies by Bayesian-average rating, for users with too few ratings to compare.
+ * A movie with n ratings summing to s scores {@code (C * mean + s) / (C + n)}: the global mean weighted as C
+ * extra ratings, so a few enthusiastic ratings do not outrank a film that many users rated well.
+ * Movies without ratings are not ranked. The global order and one order per genre are precomputed,
+ * so the best N movies are read off a prefix instead of sorting the catalogue per request.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class PopularityRanking {
+    private final double prior;                     // C, the weight of the global mean in ratings.
+    private final float[] scores;                   // Bayesian average per dense movie index, NaN if unrated.
+    private final int[] order;                      // Rated movies, best first.
+    private final int[][] genreOrders;              // Per genre bit, rated movies of the genre, best first.
+    private final Map<String, Integer> genreBits;   // Genre name -> bit position.
+
+    /**
+     * Constructor from prebuilt arrays.
+     */
+    private PopularityRanking(double prior, float[] scores, int[] order, int[][] genreOrders, Map<String, Integer> genreBits) {
+        this.prior          = prior;
+        this.scores         = scores;
+        this.order          = order;
+        this.genreOrders    = genreOrders;
+        this.genreBits      = genreBits;
+    }
+
+    /**
+     * Build the ranking from the ratings, including incremental updates not compacted yet.
+     *
+     * @param matrix        Rating matrix.
+     * @param features      Genre features, for the per-genre orders.
+     * @param priorRatings  Weight of the global mean in ratings, 0 or less for the mean number of ratings per rated movie.
+     * @return              The ranking.
+     */
+    public static PopularityRanking build(RatingMatrix matrix, GenreFeatures features, double priorRatings) {
+        int movieCount                  = matrix.movieCount();
+        double[] sums                   = new double[movieCount];
+        int[] counts                    = new int[movieCount];
+        double total                    = 0.0;
+        long ratings                    = 0;
+        int rated                       = 0;
+        for(int movie = 0; movie < movieCount; movie++) {
+            float[] values              = matrix.colRatings(movie);
+            for(int k = matrix.colStart(movie); k < matrix.colEnd(movie); k++)
+                sums[movie]             += values[k];
+            counts[movie]               = matrix.colEnd(movie) - matrix.colStart(movie);
+            total                       += sums[movie];
+            ratings                     += counts[movie];
+            if(counts[movie] > 0)
+                rated++;
+        }
+        double mean                     = ratings == 0 ? 0.0 : total / ratings;
+        double prior                    = priorRatings > 0 ? priorRatings : rated == 0 ? 0.0 : (double) ratings / rated;
+
+        // Sort by score, then by number of ratings, then by index, so the order is deterministic.
+        float[] scores                  = new float[movieCount];
+        Integer[] sorted                = new Integer[rated];
+        int next                        = 0;
+        for(int movie = 0; movie < movieCount; movie++) {
+            scores[movie]               = counts[movie] == 0 ? Float.NaN : (float) ((prior * mean + sums[movie]) / (prior + counts[movie]));
+            if(counts[movie] > 0)
+                sorted[next++]          = movie;
+        }
+        Arrays.sort(sorted, (a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a])
+                                        : counts[a] != counts[b] ? Integer.compare(counts[b], counts[a]) : Integer.compare(a, b));
+        int[] order                     = new int[rated];
+        for(int i = 0; i < rated; i++)
+            order[i]                    = sorted[i];
+
+        // Split the global order by genre, keeping it within each genre.
+        int genres                      = features.genreBits().size();
+        int[] genreCounts               = new int[genres];
+        for(int movie : order) {
+            for(long mask = features.mask(movie); mask != 0; mask &= mask - 1)
+                genreCounts[Long.numberOfTrailingZeros(mask)]++;
+        }
+        int[][] genreOrders             = new int[genres][];
+        for(int bit = 0; bit < genres; bit++)
+            genreOrders[bit]            = new int[genreCounts[bit]];
+        Arrays.fill(genreCounts, 0);
+        for(int movie : order) {
+            for(long mask = features.mask(movie); mask != 0; mask &= mask - 1) {
+                int bit                 = Long.numberOfTrailingZeros(mask);
+                genreOrders[bit][genreCounts[bit]++] = movie;
+            }
+        }
+        return new PopularityRanking(prior, scores, order, genreOrders, features.genreBits());
+    }
+
+    /**
+     * Get the most popular movies matching a genre filter.
+     * Walks the order of the rarest requested genre for an AND filter and of the only genre for a one-genre filter,
+     * so the cost is proportional to N plus the skipped movies, not to the catalogue.
+     *
+     * @param topN      Number of movies.
+     * @param filter    Genre filter.
+     * @param allowed   Bitmap of the movies matching the filter, null if the filter is empty.
+     * @param exclude   Movies not to return, e.g. those the user already rated.
+     * @return          Dense movie indices, best first.
+     */
+    public int[] top(int topN, GenreFilter filter, long[] allowed, IntPredicate exclude) {
+        int[] walked                    = this.order;
+        if(!filter.isEmpty() && (filter.matchAll() || filter.genres().size() == 1)) {
+            for(String genre : filter.genres()) {
+                Integer bit             = this.genreBits.get(genre);
+                int[] genreOrder        = bit == null || bit >= this.genreOrders.length ? new int[0] : this.genreOrders[bit];
+                if(genreOrder.length < walked.length)
+                    walked              = genreOrder;
+            }
+        }
+
+        List<Integer> top               = new ArrayList<Integer>(Math.min(topN, walked.length));
+        for(int i = 0; i < walked.length && top.size() < topN; i++) {
+            int movie                   = walked[i];
+            if((allowed == null || GenreFeatures.contains(allowed, movie)) && !exclude.test(movie))
+                top.add(movie);
+        }
+        return top.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Get the Bayesian-average rating of a movie.
+     *
+     * @param movie     Dense index of the movie.
+     * @return          Score, NaN if the movie is unknown or unrated.
+     */
+    public double score(int movie) {
+        return movie >= 0 && movie < this.scores.length ? this.scores[movie] : Double.NaN;
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get the weight of the global mean.
+     *
+     * @return  Prior weight, in ratings.
+     */
+    public double prior() {
+        return prior;
+    }
+
+    /**
+     * Get number of ranked movies.
+     *
+     * @return  Number of movies with at least one rating.
+     */
+    public int size() {
+        return order.length;
+    }
+}
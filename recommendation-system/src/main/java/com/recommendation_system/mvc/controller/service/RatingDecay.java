@@ -0,0 +1,193 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.time.Duration;
+
+/**
+ * Immutable exponential decay of ratings by age, {@code weight = 2^(-(reference - timestamp) / halfLife)}.
+ * Weights are relative to a reference time, and moving the reference scales every weight by the same factor,
+ * which leaves cosine and Pearson similarities and the ranking of aggregated scores unchanged.
+ * So the decayed ratings are computed once, new ratings are weighed as they arrive, and a periodic
+ * {@link #rebased(long)} only rescales the matrix to keep the weights of recent ratings near 1.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class RatingDecay {
+
+    /** No decay, every rating weighs 1. */
+    public static final RatingDecay NONE    = new RatingDecay(0.0, 0L);
+
+    private final double rate;              // ln 2 / half-life, per second. 0 without decay.
+    private final long reference;           // Epoch second at which a rating weighs 1.
+
+    /**
+     * Ratings with their decayed counterparts, published together so readers never mix two updates.
+     *
+     * @param ratings   Rating matrix, as rated.
+     * @param decayed   Same entries weighted by age, the ratings themselves without decay.
+     * @param decay     Decay the weights are relative to.
+     */
+    public record Matrices(RatingMatrix ratings, RatingMatrix decayed, RatingDecay decay) {
+
+        /**
+         * Wrap a matrix without decay.
+         *
+         * @param ratings   Rating matrix.
+         * @return          The matrix as both the ratings and their decayed counterpart.
+         */
+        public static Matrices of(RatingMatrix ratings) {
+            return new Matrices(ratings, ratings, RatingDecay.NONE);
+        }
+
+        /**
+         * Apply new or changed ratings to both matrices, weighing them once.
+         *
+         * @param entryUsers        User index of each entry.
+         * @param entryMovies       Movie index of each entry.
+         * @param entryRatings      Rating of each entry.
+         * @param entryTimestamps   Epoch second of each entry.
+         * @param size              Number of entries.
+         * @return                  The updated matrices, with new versions.
+         */
+        Matrices withRatings(int[] entryUsers, int[] entryMovies, float[] entryRatings, long[] entryTimestamps, int size) {
+            RatingMatrix updated    = this.ratings.withRatings(entryUsers, entryMovies, entryRatings, size);
+            if(!this.decay.isEnabled())
+                return new Matrices(updated, updated, this.decay);
+            return new Matrices(updated, this.decayed.withRatings(entryUsers, entryMovies, this.decay.weigh(entryRatings, entryTimestamps, size), size), this.decay);
+        }
+
+        /**
+         * Fold incremental updates of both matrices back into compressed arrays.
+         *
+         * @return  The compacted matrices, with the same versions.
+         */
+        public Matrices compact() {
+            RatingMatrix compacted  = this.ratings.compact();
+            return new Matrices(compacted, this.decay.isEnabled() ? this.decayed.compact() : compacted, this.decay);
+        }
+
+        /**
+         * Move the reference time of the decay, rescaling the decayed ratings.
+         *
+         * @param reference     New epoch second at which a rating weighs 1.
+         * @return              The rebased matrices, with the same versions.
+         */
+        public Matrices rebased(long reference) {
+            if(!this.decay.isEnabled())
+                return this;
+            return new Matrices(this.ratings, this.decayed.scaled(this.decay.factor(reference)), this.decay.rebased(reference));
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rate          Decay rate per second.
+     * @param reference     Epoch second at which a rating weighs 1.
+     */
+    private RatingDecay(double rate, long reference) {
+        this.rate           = rate;
+        this.reference      = reference;
+    }
+
+    /**
+     * Create a decay.
+     *
+     * @param halfLife      Age at which a rating weighs half, zero or negative for no decay.
+     * @param reference     Epoch second at which a rating weighs 1, usually now.
+     * @return              The decay.
+     */
+    public static RatingDecay of(Duration halfLife, long reference) {
+        if(halfLife.isZero() || halfLife.isNegative())
+            return RatingDecay.NONE;
+        return new RatingDecay(Math.log(2) / halfLife.toSeconds(), reference);
+    }
+
+    /**
+     * Check whether ratings are weighted at all.
+     *
+     * @return  True if the decay rate is positive.
+     */
+    public boolean isEnabled() {
+        return this.rate > 0;
+    }
+
+    /**
+     * Get the weight of a rating.
+     *
+     * @param timestamp     Epoch second of the rating.
+     * @return              Weight, above 1 for ratings after the reference time.
+     */
+    public float weight(long timestamp) {
+        if(this.rate == 0)
+            return 1f;
+        return (float) Math.exp(-this.rate * (this.reference - timestamp));
+    }
+
+    /**
+     * Move the reference time.
+     *
+     * @param reference     New epoch second at which a rating weighs 1.
+     * @return              The rebased decay.
+     */
+    public RatingDecay rebased(long reference) {
+        return this.rate == 0 ? this : new RatingDecay(this.rate, reference);
+    }
+
+    /**
+     * Get the factor turning weights of this decay into weights of a rebased one.
+     *
+     * @param reference     New reference time, epoch second.
+     * @return              Uniform scale factor.
+     */
+    public double factor(long reference) {
+        return Math.exp(-this.rate * (reference - this.reference));
+    }
+
+    /**
+     * Build the rating matrix and its decayed counterpart from parallel arrays of dense indices.
+     * Without decay both are the same matrix.
+     *
+     * @param users             Dictionary for user IDs.
+     * @param movies            Dictionary for movie IDs.
+     * @param entryUsers        User index of each entry.
+     * @param entryMovies       Movie index of each entry.
+     * @param entryRatings      Rating of each entry.
+     * @param entryTimestamps   Epoch second of each entry.
+     * @param size              Number of entries.
+     * @return                  Both matrices.
+     */
+    Matrices build( IdIndex users, IdIndex movies, int[] entryUsers, int[] entryMovies,
+                    float[] entryRatings, long[] entryTimestamps, int size) {
+        RatingMatrix ratings        = RatingMatrix.build(users, movies, entryUsers, entryMovies, entryRatings, size);
+        if(this.rate == 0)
+            return Matrices.of(ratings);
+        return new Matrices(ratings, RatingMatrix.build(users, movies, entryUsers, entryMovies, this.weigh(entryRatings, entryTimestamps, size), size), this);
+    }
+
+    /**
+     * Weigh ratings by age.
+     *
+     * @param entryRatings      Rating of each entry.
+     * @param entryTimestamps   Epoch second of each entry.
+     * @param size              Number of entries.
+     * @return                  Decayed rating of each entry.
+     */
+    float[] weigh(float[] entryRatings, long[] entryTimestamps, int size) {
+        float[] decayed             = new float[size];
+        for(int i = 0; i < size; i++)
+            decayed[i]              = entryRatings[i] * this.weight(entryTimestamps[i]);
+        return decayed;
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get reference time.
+     *
+     * @return  Epoch second at which a rating weighs 1.
+     */
+    public long reference() {
+        return reference;
+    }
+}
@@ -0,0 +1,707 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Rating;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable in-memory rating matrix stored in compressed sparse row form.
+ * Rows are users with their movie indices sorted ascending, and a compressed
+ * sparse column transpose gives the users who rated each movie.
+ * Users and movies are addressed through the dense indices of shared {@link IdIndex} dictionaries.
+ * <p>
+ * Incremental updates produce a new snapshot that shares the compressed arrays and overlays
+ * the rows and columns that changed, so readers holding the previous snapshot are unaffected.
+ * {@link #compact()} folds the overlays back into compressed arrays.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class RatingMatrix {
+    private static final AtomicLong VERSIONS = new AtomicLong();   // Source of snapshot versions.
+
+    private final long version;             // Unique, increasing version of this snapshot.
+    private final IdIndex users;            // Dictionary userId -> row index.
+    private final IdIndex movies;           // Dictionary movieId -> column index.
+    private final int userCount;            // Number of rows in this snapshot.
+    private final int movieCount;           // Number of columns in this snapshot.
+
+    // CSR by user.
+    private final int[] rowPtr;             // Row u spans [rowPtr[u], rowPtr[u + 1]).
+    private final int[] rowMovies;          // Movie indices, sorted within each row.
+    private final float[] rowRatings;       // Ratings aligned with rowMovies.
+
+    // CSC by movie.
+    private final int[] colPtr;             // Column m spans [colPtr[m], colPtr[m + 1]).
+    private final int[] colUsers;           // User indices, sorted within each column.
+    private final float[] colRatings;       // Ratings aligned with colUsers.
+
+    private final double[] userNorms;       // Euclidean norm of each compressed user row.
+    private final double[] userMeans;       // Mean rating of each compressed user row, 0 when empty.
+    private final double[] movieMeans;      // Mean rating of each compressed movie column, 0 when empty.
+
+    // Rows and columns changed since the last compaction, null entries fall back to the compressed arrays.
+    private final SparseVector[] rowOverlay;
+    private final SparseVector[] colOverlay;
+    private final int overlayRows;          // Number of overlaid rows.
+    private final int ratingCount;          // Number of stored ratings.
+
+    /**
+     * Immutable sparse vector used for overlaid rows and columns.
+     *
+     * @param indices   Indices, sorted ascending.
+     * @param values    Values aligned with indices.
+     * @param norm      Euclidean norm of the values.
+     * @param mean      Mean of the values, 0 when empty.
+     */
+    record SparseVector(int[] indices, float[] values, double norm, double mean) {
+    }
+
+    /**
+     * Constructor from prebuilt arrays, without overlays.
+     */
+    private RatingMatrix(   long version, IdIndex users, IdIndex movies, int userCount, int movieCount,
+                            int[] rowPtr, int[] rowMovies, float[] rowRatings,
+                            int[] colPtr, int[] colUsers, float[] colRatings, double[] userNorms) {
+        this.version        = version;
+        this.users          = users;
+        this.movies         = movies;
+        this.userCount      = userCount;
+        this.movieCount     = movieCount;
+        this.rowPtr         = rowPtr;
+        this.rowMovies      = rowMovies;
+        this.rowRatings     = rowRatings;
+        this.colPtr         = colPtr;
+        this.colUsers       = colUsers;
+        this.colRatings     = colRatings;
+        this.userNorms      = userNorms;
+        this.userMeans      = RatingMatrix.means(rowPtr, rowRatings, userCount);
+        this.movieMeans     = RatingMatrix.means(colPtr, colRatings, movieCount);
+        this.rowOverlay     = null;
+        this.colOverlay     = null;
+        this.overlayRows    = 0;
+        this.ratingCount    = rowPtr[userCount];
+    }
+
+    /**
+     * Constructor for an updated snapshot sharing the compressed arrays of a previous one.
+     */
+    private RatingMatrix(   RatingMatrix base, int userCount, int movieCount,
+                            SparseVector[] rowOverlay, SparseVector[] colOverlay, int overlayRows, int ratingCount) {
+        this.version        = RatingMatrix.VERSIONS.incrementAndGet();
+        this.users          = base.users;
+        this.movies         = base.movies;
+        this.userCount      = userCount;
+        this.movieCount     = movieCount;
+        this.rowPtr         = base.rowPtr;
+        this.rowMovies      = base.rowMovies;
+        this.rowRatings     = base.rowRatings;
+        this.colPtr         = base.colPtr;
+        this.colUsers       = base.colUsers;
+        this.colRatings     = base.colRatings;
+        this.userNorms      = base.userNorms;
+        this.userMeans      = base.userMeans;
+        this.movieMeans     = base.movieMeans;
+        this.rowOverlay     = rowOverlay;
+        this.colOverlay     = colOverlay;
+        this.overlayRows    = overlayRows;
+        this.ratingCount    = ratingCount;
+    }
+
+    /**
+     * Compute the mean of each compressed vector.
+     *
+     * @param ptr       Vector v spans [ptr[v], ptr[v + 1]).
+     * @param values    Values of the vectors.
+     * @param count     Number of vectors.
+     * @return          Mean per vector, 0 when empty.
+     */
+    private static double[] means(int[] ptr, float[] values, int count) {
+        double[] means          = new double[count];
+        for(int v = 0; v < count; v++) {
+            double sum          = 0.0;
+            for(int k = ptr[v]; k < ptr[v + 1]; k++)
+                sum             += values[k];
+            means[v]            = ptr[v + 1] == ptr[v] ? 0.0 : sum / (ptr[v + 1] - ptr[v]);
+        }
+        return means;
+    }
+
+    /**
+     * Build a matrix from rating entities.
+     * When a user rated the same movie more than once, the last rating wins.
+     *
+     * @param ratings   Ratings to load.
+     * @param users     Dictionary for user IDs, extended with unseen users.
+     * @param movies    Dictionary for movie IDs, extended with unseen movies.
+     * @return          The rating matrix.
+     */
+    public static RatingMatrix build(Iterable<Rating> ratings, IdIndex users, IdIndex movies) {
+        return RatingMatrix.build(ratings, users, movies, RatingDecay.NONE).ratings();
+    }
+
+    /**
+     * Build a matrix from rating entities, together with its entries weighted by age.
+     * When a user rated the same movie more than once, the last rating wins.
+     * Ratings without a timestamp weigh as rated at the reference time of the decay.
+     *
+     * @param ratings   Ratings to load.
+     * @param users     Dictionary for user IDs, extended with unseen users.
+     * @param movies    Dictionary for movie IDs, extended with unseen movies.
+     * @param decay     Decay of the ratings by age.
+     * @return          The rating matrix and its decayed counterpart, the same matrix without decay.
+     */
+    public static RatingDecay.Matrices build(Iterable<Rating> ratings, IdIndex users, IdIndex movies, RatingDecay decay) {
+        int size                = 0;
+        int[] entryUsers        = new int[1024];
+        int[] entryMovies       = new int[1024];
+        float[] entryRatings    = new float[1024];
+        long[] entryTimestamps  = new long[1024];
+
+        // Translate IDs into dense indices.
+        for(Rating rating : ratings) {
+            if(rating.getUserId() == null || rating.getMovieId() == null || rating.getRating() == null)
+                continue;
+            if(size == entryUsers.length) {
+                entryUsers      = Arrays.copyOf(entryUsers, size * 2);
+                entryMovies     = Arrays.copyOf(entryMovies, size * 2);
+                entryRatings    = Arrays.copyOf(entryRatings, size * 2);
+                entryTimestamps = Arrays.copyOf(entryTimestamps, size * 2);
+            }
+            entryUsers[size]    = users.getOrAdd(rating.getUserId());
+            entryMovies[size]   = movies.getOrAdd(rating.getMovieId());
+            entryRatings[size]  = rating.getRating().floatValue();
+            entryTimestamps[size] = rating.getTimestamp() == null ? decay.reference() : rating.getTimestamp();
+            size++;
+        }
+        return decay.build(users, movies, entryUsers, entryMovies, entryRatings, entryTimestamps, size);
+    }
+
+    /**
+     * Build a matrix from parallel arrays of dense indices.
+     * When a user rated the same movie more than once, the entry appearing last wins.
+     *
+     * @param users         Dictionary for user IDs.
+     * @param movies        Dictionary for movie IDs.
+     * @param entryUsers    User index of each entry.
+     * @param entryMovies   Movie index of each entry.
+     * @param entryRatings  Rating of each entry.
+     * @param size          Number of entries.
+     * @return              The rating matrix.
+     */
+    static RatingMatrix build(  IdIndex users, IdIndex movies,
+                                int[] entryUsers, int[] entryMovies, float[] entryRatings, int size) {
+        int userCount           = users.size();
+        int movieCount          = movies.size();
+
+        // Counting sort of the entries by user, keeping the input order inside each row.
+        int[] rowPtr            = new int[userCount + 1];
+        for(int i = 0; i < size; i++)
+            rowPtr[entryUsers[i] + 1]++;
+        for(int u = 0; u < userCount; u++)
+            rowPtr[u + 1]       += rowPtr[u];
+        int[] next              = Arrays.copyOf(rowPtr, userCount);
+        long[] keys             = new long[size];
+        for(int i = 0; i < size; i++)
+            keys[next[entryUsers[i]]++] = ((long) entryMovies[i] << 32) | i;
+
+        // Sort each row by movie and drop duplicates, keeping the last entry.
+        int[] rowMovies         = new int[size];
+        float[] rowRatings      = new float[size];
+        int[] compactPtr        = new int[userCount + 1];
+        int out                 = 0;
+        for(int u = 0; u < userCount; u++) {
+            int start           = rowPtr[u];
+            int end             = rowPtr[u + 1];
+            Arrays.sort(keys, start, end);
+            for(int k = start; k < end; k++) {
+                int movie       = (int) (keys[k] >>> 32);
+                if(k + 1 < end && (int) (keys[k + 1] >>> 32) == movie)
+                    continue;
+                rowMovies[out]  = movie;
+                rowRatings[out] = entryRatings[(int) keys[k]];
+                out++;
+            }
+            compactPtr[u + 1]   = out;
+        }
+        rowMovies               = Arrays.copyOf(rowMovies, out);
+        rowRatings              = Arrays.copyOf(rowRatings, out);
+        return RatingMatrix.fromRows(users, movies, userCount, movieCount, compactPtr, rowMovies, rowRatings);
+    }
+
+    /**
+     * Create a matrix from CSR arrays, deriving the CSC transpose.
+     *
+     * @return  The rating matrix, with a new version.
+     */
+    static RatingMatrix fromRows(   IdIndex users, IdIndex movies, int userCount, int movieCount,
+                                    int[] rowPtr, int[] rowMovies, float[] rowRatings) {
+        return RatingMatrix.fromRows(RatingMatrix.VERSIONS.incrementAndGet(), users, movies, userCount, movieCount, rowPtr, rowMovies, rowRatings);
+    }
+
+    /**
+     * Create a matrix from CSR arrays, deriving the CSC transpose.
+     *
+     * @param version   Version of the matrix.
+     * @return          The rating matrix.
+     */
+    private static RatingMatrix fromRows(   long version, IdIndex users, IdIndex movies, int userCount, int movieCount,
+                                            int[] rowPtr, int[] rowMovies, float[] rowRatings) {
+        int nnz                 = rowPtr[userCount];
+        int[] colPtr            = new int[movieCount + 1];
+        for(int k = 0; k < nnz; k++)
+            colPtr[rowMovies[k] + 1]++;
+        for(int m = 0; m < movieCount; m++)
+            colPtr[m + 1]       += colPtr[m];
+
+        // Rows are visited in ascending order, so users come out sorted within each column.
+        int[] next              = Arrays.copyOf(colPtr, movieCount);
+        int[] colUsers          = new int[nnz];
+        float[] colRatings      = new float[nnz];
+        for(int u = 0; u < userCount; u++) {
+            for(int k = rowPtr[u]; k < rowPtr[u + 1]; k++) {
+                int pos         = next[rowMovies[k]]++;
+                colUsers[pos]   = u;
+                colRatings[pos] = rowRatings[k];
+            }
+        }
+
+        // Norms are fixed per row, so compute them once per snapshot.
+        double[] userNorms      = new double[userCount];
+        for(int u = 0; u < userCount; u++) {
+            double sum          = 0.0;
+            for(int k = rowPtr[u]; k < rowPtr[u + 1]; k++)
+                sum             += (double) rowRatings[k] * rowRatings[k];
+            userNorms[u]        = Math.sqrt(sum);
+        }
+        return new RatingMatrix(version, users, movies, userCount, movieCount,
+                                rowPtr, rowMovies, rowRatings, colPtr, colUsers, colRatings, userNorms);
+    }
+
+    /**
+     * Restore a matrix from previously compressed arrays, such as a {@link ModelSnapshot}.
+     * The arrays are used as they are, without validation.
+     *
+     * @return  The rating matrix, with a new version.
+     */
+    static RatingMatrix restore(IdIndex users, IdIndex movies, int userCount, int movieCount,
+                                int[] rowPtr, int[] rowMovies, float[] rowRatings,
+                                int[] colPtr, int[] colUsers, float[] colRatings, double[] userNorms) {
+        return new RatingMatrix(RatingMatrix.VERSIONS.incrementAndGet(), users, movies, userCount, movieCount,
+                                rowPtr, rowMovies, rowRatings, colPtr, colUsers, colRatings, userNorms);
+    }
+
+    /**
+     * Get the row index of a user.
+     *
+     * @param userId    ID of the user.
+     * @return          Row index, or -1 if the user has no row in this snapshot.
+     */
+    public int userIndex(long userId) {
+        int index = this.users.indexOf(userId);
+        return index < this.userCount ? index : -1;
+    }
+
+    /**
+     * Get the column index of a movie.
+     *
+     * @param movieId   ID of the movie.
+     * @return          Column index, or -1 if the movie has no column in this snapshot.
+     */
+    public int movieIndex(long movieId) {
+        int index = this.movies.indexOf(movieId);
+        return index < this.movieCount ? index : -1;
+    }
+
+    /**
+     * Get a new snapshot with ratings inserted or replaced.
+     * Only the rows and columns touched by the update are copied, everything else is shared.
+     * Users and movies must already be registered in the dictionaries.
+     *
+     * @param entryUsers    User index of each rating.
+     * @param entryMovies   Movie index of each rating.
+     * @param entryRatings  Rating values.
+     * @param size          Number of ratings. When a pair appears twice, the last one wins.
+     * @return              The updated snapshot.
+     */
+    public RatingMatrix withRatings(int[] entryUsers, int[] entryMovies, float[] entryRatings, int size) {
+        int newUserCount            = this.users.size();
+        int newMovieCount           = this.movies.size();
+        SparseVector[] rows         = this.rowOverlay == null ? new SparseVector[newUserCount] : Arrays.copyOf(this.rowOverlay, newUserCount);
+        SparseVector[] cols         = this.colOverlay == null ? new SparseVector[newMovieCount] : Arrays.copyOf(this.colOverlay, newMovieCount);
+        int overlaid                = this.overlayRows;
+        int count                   = this.ratingCount;
+
+        // Group the update by user, then by movie, then by arrival so the last duplicate wins.
+        Integer[] order             = new Integer[size];
+        for(int i = 0; i < size; i++)
+            order[i]                = i;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> entryUsers[i]).thenComparingInt(i -> entryMovies[i]).thenComparingInt(i -> i));
+        for(int start = 0, end; start < size; start = end) {
+            int user                = entryUsers[order[start]];
+            for(end = start; end < size && entryUsers[order[end]] == user; end++);
+            if(rows[user] == null)
+                overlaid++;
+            rows[user]              = RatingMatrix.merge(   this.rowMovies(user), this.rowRatings(user), this.rowStart(user), this.rowEnd(user),
+                                                            order, start, end, entryMovies, entryRatings);
+            count                   += rows[user].indices().length - (this.rowEnd(user) - this.rowStart(user));
+        }
+
+        // Same for the columns.
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> entryMovies[i]).thenComparingInt(i -> entryUsers[i]).thenComparingInt(i -> i));
+        for(int start = 0, end; start < size; start = end) {
+            int movie               = entryMovies[order[start]];
+            for(end = start; end < size && entryMovies[order[end]] == movie; end++);
+            cols[movie]             = RatingMatrix.merge(   this.colUsers(movie), this.colRatings(movie), this.colStart(movie), this.colEnd(movie),
+                                                            order, start, end, entryUsers, entryRatings);
+        }
+        return new RatingMatrix(this, newUserCount, newMovieCount, rows, cols, overlaid, count);
+    }
+
+    /**
+     * Merge sorted updates into a sparse vector, updates replacing existing values.
+     *
+     * @param indices       Current indices, sorted.
+     * @param values        Current values.
+     * @param from          Start of the current vector (inclusive).
+     * @param to            End of the current vector (exclusive).
+     * @param order         Update entries sorted by index then arrival.
+     * @param start         First update entry (inclusive).
+     * @param end           Last update entry (exclusive).
+     * @param updateIndices Index of each update entry.
+     * @param updateValues  Value of each update entry.
+     * @return              The merged vector.
+     */
+    private static SparseVector merge(  int[] indices, float[] values, int from, int to,
+                                        Integer[] order, int start, int end, int[] updateIndices, float[] updateValues) {
+        int[] mergedIndices         = new int[(to - from) + (end - start)];
+        float[] mergedValues        = new float[mergedIndices.length];
+        int out                     = 0;
+        int i                       = from;
+        int j                       = start;
+        while(i < to || j < end) {
+            int entry               = j < end ? order[j] : -1;
+
+            // Skip an update superseded by a later one on the same index.
+            if(j + 1 < end && updateIndices[order[j + 1]] == updateIndices[entry]) {
+                j++;
+                continue;
+            }
+            if(j >= end || (i < to && indices[i] < updateIndices[entry])) {
+                mergedIndices[out]  = indices[i];
+                mergedValues[out++] = values[i++];
+            }
+            else {
+                if(i < to && indices[i] == updateIndices[entry])
+                    i++;
+                mergedIndices[out]  = updateIndices[entry];
+                mergedValues[out++] = updateValues[entry];
+                j++;
+            }
+        }
+
+        double norm                 = 0.0;
+        double sum                  = 0.0;
+        for(int k = 0; k < out; k++) {
+            norm                    += (double) mergedValues[k] * mergedValues[k];
+            sum                     += mergedValues[k];
+        }
+        return new SparseVector(Arrays.copyOf(mergedIndices, out), Arrays.copyOf(mergedValues, out), Math.sqrt(norm), out == 0 ? 0.0 : sum / out);
+    }
+
+    /**
+     * Fold the overlays into freshly compressed arrays.
+     * The content does not change, so the compacted snapshot keeps this version.
+     *
+     * @return  A snapshot without overlays, or this one if there is nothing to fold.
+     */
+    public RatingMatrix compact() {
+        if(this.rowOverlay == null && this.userCount == this.rowPtr.length - 1 && this.movieCount == this.colPtr.length - 1)
+            return this;
+
+        int[] ptr                   = new int[this.userCount + 1];
+        int[] compactMovies         = new int[this.ratingCount];
+        float[] compactRatings      = new float[this.ratingCount];
+        for(int u = 0; u < this.userCount; u++) {
+            int length              = this.rowEnd(u) - this.rowStart(u);
+            System.arraycopy(this.rowMovies(u), this.rowStart(u), compactMovies, ptr[u], length);
+            System.arraycopy(this.rowRatings(u), this.rowStart(u), compactRatings, ptr[u], length);
+            ptr[u + 1]              = ptr[u] + length;
+        }
+        return RatingMatrix.fromRows(this.version, this.users, this.movies, this.userCount, this.movieCount, ptr, compactMovies, compactRatings);
+    }
+
+    /**
+     * Get a copy with every rating multiplied by the same factor, e.g. to rebase decayed weights.
+     * Cosine and Pearson similarities do not change, so the scaled snapshot keeps this version.
+     *
+     * @param factor    Scale factor, positive.
+     * @return          A compacted, scaled snapshot.
+     */
+    public RatingMatrix scaled(double factor) {
+        RatingMatrix compacted      = this.compact();
+        float[] scaledRatings       = new float[compacted.ratingCount];
+        for(int k = 0; k < scaledRatings.length; k++)
+            scaledRatings[k]        = (float) (compacted.rowRatings[k] * factor);
+        return RatingMatrix.fromRows(this.version, this.users, this.movies, this.userCount, this.movieCount,
+                                        compacted.rowPtr, compacted.rowMovies, scaledRatings);
+    }
+
+    /**
+     * Get the cached norm of a user row.
+     *
+     * @param user  Row index.
+     * @return      Euclidean norm of the user's ratings.
+     */
+    public double userNorm(int user) {
+        if(this.rowOverlay != null && this.rowOverlay[user] != null)
+            return this.rowOverlay[user].norm();
+        return user < this.userNorms.length ? this.userNorms[user] : 0.0;
+    }
+
+    /**
+     * Get the cached mean rating of a user row.
+     *
+     * @param user  Row index.
+     * @return      Mean of the user's ratings, 0 if the user has none.
+     */
+    public double userMean(int user) {
+        if(this.rowOverlay != null && this.rowOverlay[user] != null)
+            return this.rowOverlay[user].mean();
+        return user < this.userMeans.length ? this.userMeans[user] : 0.0;
+    }
+
+    /**
+     * Get the cached mean rating of a movie column.
+     *
+     * @param movie     Column index.
+     * @return          Mean of the movie's ratings, 0 if the movie has none.
+     */
+    public double movieMean(int movie) {
+        if(this.colOverlay != null && this.colOverlay[movie] != null)
+            return this.colOverlay[movie].mean();
+        return movie < this.movieMeans.length ? this.movieMeans[movie] : 0.0;
+    }
+
+    /*  ROW AND COLUMN ACCESS */
+
+    /**
+     * Get the array holding the movie indices of a user row.
+     *
+     * @param user  Row index.
+     * @return      Array holding the row in [{@link #rowStart(int)}, {@link #rowEnd(int)}).
+     */
+    public int[] rowMovies(int user) {
+        return this.rowOverlay != null && this.rowOverlay[user] != null ? this.rowOverlay[user].indices() : this.rowMovies;
+    }
+
+    /**
+     * Get the array holding the ratings of a user row.
+     *
+     * @param user  Row index.
+     * @return      Array holding the row in [{@link #rowStart(int)}, {@link #rowEnd(int)}).
+     */
+    public float[] rowRatings(int user) {
+        return this.rowOverlay != null && this.rowOverlay[user] != null ? this.rowOverlay[user].values() : this.rowRatings;
+    }
+
+    /**
+     * Get the start of a user row.
+     *
+     * @param user  Row index.
+     * @return      First position of the row (inclusive).
+     */
+    public int rowStart(int user) {
+        if(this.rowOverlay != null && this.rowOverlay[user] != null)
+            return 0;
+        return user < this.rowPtr.length - 1 ? this.rowPtr[user] : 0;
+    }
+
+    /**
+     * Get the end of a user row.
+     *
+     * @param user  Row index.
+     * @return      Last position of the row (exclusive).
+     */
+    public int rowEnd(int user) {
+        if(this.rowOverlay != null && this.rowOverlay[user] != null)
+            return this.rowOverlay[user].indices().length;
+        return user < this.rowPtr.length - 1 ? this.rowPtr[user + 1] : 0;
+    }
+
+    /**
+     * Get the array holding the user indices of a movie column.
+     *
+     * @param movie     Column index.
+     * @return          Array holding the column in [{@link #colStart(int)}, {@link #colEnd(int)}).
+     */
+    public int[] colUsers(int movie) {
+        return this.colOverlay != null && this.colOverlay[movie] != null ? this.colOverlay[movie].indices() : this.colUsers;
+    }
+
+    /**
+     * Get the array holding the ratings of a movie column.
+     *
+     * @param movie     Column index.
+     * @return          Array holding the column in [{@link #colStart(int)}, {@link #colEnd(int)}).
+     */
+    public float[] colRatings(int movie) {
+        return this.colOverlay != null && this.colOverlay[movie] != null ? this.colOverlay[movie].values() : this.colRatings;
+    }
+
+    /**
+     * Get the start of a movie column.
+     *
+     * @param movie     Column index.
+     * @return          First position of the column (inclusive).
+     */
+    public int colStart(int movie) {
+        if(this.colOverlay != null && this.colOverlay[movie] != null)
+            return 0;
+        return movie < this.colPtr.length - 1 ? this.colPtr[movie] : 0;
+    }
+
+    /**
+     * Get the end of a movie column.
+     *
+     * @param movie     Column index.
+     * @return          Last position of the column (exclusive).
+     */
+    public int colEnd(int movie) {
+        if(this.colOverlay != null && this.colOverlay[movie] != null)
+            return this.colOverlay[movie].indices().length;
+        return movie < this.colPtr.length - 1 ? this.colPtr[movie + 1] : 0;
+    }
+
+    /*  COMPRESSED ARRAYS, ignoring overlays: only complete on a compacted matrix */
+
+    /**
+     * Get row pointers of the compressed rows.
+     *
+     * @return  Row pointers of the compressed rows.
+     */
+    int[] rowPtr() {
+        return rowPtr;
+    }
+
+    /**
+     * Get movie indices of the compressed rows.
+     *
+     * @return  Movie indices of the compressed rows.
+     */
+    int[] rowMovies() {
+        return rowMovies;
+    }
+
+    /**
+     * Get ratings of the compressed rows.
+     *
+     * @return  Ratings of the compressed rows.
+     */
+    float[] rowRatings() {
+        return rowRatings;
+    }
+
+    /**
+     * Get column pointers of the compressed columns.
+     *
+     * @return  Column pointers of the compressed columns.
+     */
+    int[] colPtr() {
+        return colPtr;
+    }
+
+    /**
+     * Get user indices of the compressed columns.
+     *
+     * @return  User indices of the compressed columns.
+     */
+    int[] colUsers() {
+        return colUsers;
+    }
+
+    /**
+     * Get ratings of the compressed columns.
+     *
+     * @return  Ratings of the compressed columns.
+     */
+    float[] colRatings() {
+        return colRatings;
+    }
+
+    /**
+     * Get norms of the compressed rows.
+     *
+     * @return  Norms of the compressed rows.
+     */
+    double[] userNorms() {
+        return userNorms;
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get version.
+     *
+     * @return  Unique, increasing version of this snapshot.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Get user dictionary.
+     *
+     * @return  Dictionary userId -> row index.
+     */
+    public IdIndex users() {
+        return users;
+    }
+
+    /**
+     * Get movie dictionary.
+     *
+     * @return  Dictionary movieId -> column index.
+     */
+    public IdIndex movies() {
+        return movies;
+    }
+
+    /**
+     * Get number of users.
+     *
+     * @return  Number of rows.
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * Get number of movies.
+     *
+     * @return  Number of columns.
+     */
+    public int movieCount() {
+        return movieCount;
+    }
+
+    /**
+     * Get number of stored ratings.
+     *
+     * @return  Number of non-zero entries.
+     */
+    public int ratingCount() {
+        return ratingCount;
+    }
+
+    /**
+     * Get number of overlaid rows.
+     *
+     * @return  Number of rows changed since the last compaction.
+     */
+    public int overlayRows() {
+        return overlayRows;
+    }
+}
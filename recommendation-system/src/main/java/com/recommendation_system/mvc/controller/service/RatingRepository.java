@@ -1,9 +1,11 @@
 package com.recommendation_system.mvc.controller.service;
 
 
+import java.util.Collection;
 import java.util.List;
 import com.recommendation_system.mvc.model.entity.Rating;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Repository interface for Rating entity.
@@ -28,4 +30,31 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
      * @return           List of ratings for the movie.
      */
     List<Rating> findByMovieId(Long movieId);
+
+    /**
+     * Find the ratings of a user for some movies.
+     *
+     * @param userId    ID of the user.
+     * @param movieIds  IDs of the movies.
+     * @return          Existing ratings of the user for those movies.
+     */
+    List<Rating> findByUserIdAndMovieIdIn(Long userId, Collection<Long> movieIds);
+
+    /**
+     * Aggregates of the ratings table that change with every insert, update or delete.
+     */
+    interface Watermark {
+        Long getRatings();
+        Long getLastId();
+        Double getRatingSum();
+        Long getTimestampSum();
+    }
+
+    /**
+     * Get the current watermark of the ratings table, to tell whether a model snapshot is stale.
+     *
+     * @return  Row count, highest ID and sums of the ratings and timestamps.
+     */
+    @Query("select count(r) as ratings, max(r.ratingId) as lastId, sum(r.rating) as ratingSum, sum(r.timestamp) as timestampSum from Rating r")
+    Watermark findWatermark();
 }
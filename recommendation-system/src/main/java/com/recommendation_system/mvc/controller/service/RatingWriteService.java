@@ -0,0 +1,120 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Rating;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for writing ratings, one row per user and movie.
+ * Writes of the same user are serialized from the lookup of the existing rows until the model is updated,
+ * so concurrent first ratings of a movie never insert two rows and the model applies them in commit order.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@Service
+public class RatingWriteService {
+    private static final int LOCK_STRIPES   = 64;   // Locks shared by the users hashing to them.
+
+    private final RatingRepository ratingRepository;                // Repository for Rating entity.
+    private final CosineSimilarityService cosineSimilarityService;  // In-memory recommendation model.
+    private final RecommendationCache recommendationCache;          // Cached recommendation results.
+    private final TransactionTemplate transactions;                 // Transaction of the lookup and the upsert.
+    private final ReentrantLock[] userLocks;                        // Per-user write locks, by stripe.
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param ratingRepository          Repository for Rating entity.
+     * @param cosineSimilarityService   In-memory recommendation model.
+     * @param recommendationCache       Cached recommendation results.
+     * @param transactionManager        Transaction manager of the repository.
+     */
+    public RatingWriteService(  RatingRepository ratingRepository,
+                                CosineSimilarityService cosineSimilarityService,
+                                RecommendationCache recommendationCache,
+                                PlatformTransactionManager transactionManager) {
+        this.ratingRepository           = ratingRepository;
+        this.cosineSimilarityService    = cosineSimilarityService;
+        this.recommendationCache        = recommendationCache;
+        this.transactions               = new TransactionTemplate(transactionManager);
+        this.userLocks                  = new ReentrantLock[RatingWriteService.LOCK_STRIPES];
+        for(int i = 0; i < this.userLocks.length; i++)
+            this.userLocks[i]           = new ReentrantLock();
+    }
+
+    /**
+     * Insert or replace ratings, then apply them to the model and drop the results that depended on their users.
+     * A rating for a movie the user already rated replaces the stored row, and within a batch the last one wins.
+     * Rows left duplicated by earlier writes are deleted, keeping the latest ID.
+     *
+     * @param ratings   Validated ratings, without IDs.
+     * @return          The saved ratings, one per user and movie.
+     */
+    public List<Rating> upsert(List<Rating> ratings) {
+        Map<Long, Map<Long, Rating>> byUser = new LinkedHashMap<Long, Map<Long, Rating>>();
+        for(Rating rating : ratings)
+            byUser.computeIfAbsent(rating.getUserId(), userId -> new LinkedHashMap<Long, Rating>()).put(rating.getMovieId(), rating);
+
+        // Stripes are locked in ascending order, so two batches sharing users cannot deadlock.
+        TreeSet<Integer> stripes        = new TreeSet<Integer>();
+        for(Long userId : byUser.keySet())
+            stripes.add(Math.floorMod(Long.hashCode(userId), RatingWriteService.LOCK_STRIPES));
+        for(int stripe : stripes)
+            this.userLocks[stripe].lock();
+        try {
+            List<Rating> saved          = this.cosineSimilarityService.applyRatings(() -> this.transactions.execute(status -> this.save(byUser)));
+            saved.stream()
+                    .map(Rating::getUserId)
+                    .distinct()
+                    .forEach(this.recommendationCache::invalidateUser);
+            return saved;
+        }
+        finally {
+            for(int stripe : stripes.descendingSet())
+                this.userLocks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Upsert the latest rating per user and movie, in the current transaction.
+     *
+     * @param byUser    Latest rating per movie, by user.
+     * @return          The saved ratings.
+     */
+    private List<Rating> save(Map<Long, Map<Long, Rating>> byUser) {
+        List<Rating> upserts            = new ArrayList<Rating>();
+        List<Long> duplicates           = new ArrayList<Long>();
+        for(Map.Entry<Long, Map<Long, Rating>> user : byUser.entrySet()) {
+            Map<Long, Rating> latest    = user.getValue();
+            for(Rating rating : latest.values())
+                rating.setRatingId(null);
+
+            // The model loads rows in ID order, so the row kept is the one with the highest ID.
+            for(Rating existing : this.ratingRepository.findByUserIdAndMovieIdIn(user.getKey(), latest.keySet())) {
+                Rating rating           = latest.get(existing.getMovieId());
+                if(rating.getRatingId() == null)
+                    rating.setRatingId(existing.getRatingId());
+                else if(rating.getRatingId() < existing.getRatingId()) {
+                    duplicates.add(rating.getRatingId());
+                    rating.setRatingId(existing.getRatingId());
+                }
+                else
+                    duplicates.add(existing.getRatingId());
+            }
+            upserts.addAll(latest.values());
+        }
+        if(!duplicates.isEmpty())
+            this.ratingRepository.deleteAllByIdInBatch(duplicates);
+        return this.ratingRepository.saveAll(upserts);
+    }
+}
@@ -0,0 +1,22 @@
+package com.recommendation_system.mvc.controller.service;
+
+/**
+ * Recommendation algorithms served by {@link CosineSimilarityService}.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public enum RecommendationAlgorithm {
+
+    /** User-based collaborative filtering with cosine similarity. */
+    COSINE,
+
+    /** Collaborative filtering combined with genre content-based filtering. */
+    HYBRID,
+
+    /** Item-based collaborative filtering over precomputed rating neighbourhoods of movies. */
+    ITEM,
+
+    /** Latent-factor model trained with alternating least squares. */
+    FACTORIZATION
+}
@@ -0,0 +1,409 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of recommendation results in front of {@link CosineSimilarityService}.
+ * Entries are keyed by (userId, algorithm, top, genre filter) and evicted by size and TTL.
+ * A reverse index from user to entries lets a rating written by a user invalidate
+ * that user's results and every result that used the user as a neighbour.
+ * Concurrent misses of the same key are coalesced: the first caller computes the result and the others
+ * wait, for a bounded time, on the same future instead of running the pipeline again.
+ * Invalidations are stamped per user, so a rating only keeps results of its own user and of the
+ * results it was a neighbour in from being cached or shared, not every miss in flight.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@Service
+public class RecommendationCache {
+    private static final String CACHE_NAME              = "recommendations";    // Cache name in the metrics.
+    private static final String COALESCED_COUNTER       = "recommendation.coalesced";           // Callers joining a computation in flight.
+    private static final String COALESCED_SUMMARY       = "recommendation.coalesced.callers";   // Callers sharing each computation.
+
+    private final CosineSimilarityService recommender;                          // Service computing the results.
+    private final Cache<Key, Recommendations> cache;                            // Cached results.
+    private final ConcurrentHashMap<Long, Set<Key>> dependents;                 // userId -> entries computed from the user's ratings.
+    private final AtomicLong generation                 = new AtomicLong();     // Stamp of the latest invalidation, bumped on every one.
+    private final ConcurrentHashMap<Long, Long> userGenerations;               // userId -> stamp of the user's latest invalidation.
+    private volatile long resetGeneration;                                      // Stamp of the latest full invalidation.
+    private final Object invalidationLock               = new Object();         // Orders result writes against invalidations.
+    private final ConcurrentHashMap<Key, Flight> inFlight;                      // Computations running, by key.
+    private final Duration coalescingWait;                                      // Longest wait on a computation in flight.
+
+    // Coalescing meters by algorithm, the key dimension that stays bounded.
+    private final Map<RecommendationAlgorithm, Counter> joined                  = new EnumMap<RecommendationAlgorithm, Counter>(RecommendationAlgorithm.class);
+    private final Map<RecommendationAlgorithm, Counter> timeouts                = new EnumMap<RecommendationAlgorithm, Counter>(RecommendationAlgorithm.class);
+    private final Map<RecommendationAlgorithm, DistributionSummary> followers   = new EnumMap<RecommendationAlgorithm, DistributionSummary>(RecommendationAlgorithm.class);
+
+    /**
+     * Cache key.
+     *
+     * @param userId        ID of the target user.
+     * @param algorithm     Recommendation algorithm.
+     * @param top           Number of recommendations.
+     * @param filter        Genres of the recommended movies.
+     */
+    private record Key(long userId, RecommendationAlgorithm algorithm, int top, GenreFilter filter) {
+    }
+
+    /**
+     * Computation in flight.
+     *
+     * @param result        Completed with the result, or exceptionally with the failure.
+     * @param generation    Invalidation stamp when the computation started.
+     * @param followers     Callers waiting on the result besides the one computing it.
+     */
+    private record Flight(CompletableFuture<Recommendations> result, long generation, AtomicInteger followers) {
+    }
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param recommender       Service computing the results.
+     * @param registry          Registry for hit, miss, eviction and coalescing metrics.
+     * @param maximumSize       Maximum number of cached results.
+     * @param ttl               Time to live of a cached result.
+     * @param coalescingWait    Longest wait on an identical computation in flight, before computing again.
+     */
+    public RecommendationCache( CosineSimilarityService recommender,
+                                MeterRegistry registry,
+                                @Value("${recommendation.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${recommendation.cache.ttl:10m}") Duration ttl,
+                                @Value("${recommendation.cache.coalescing-wait:5s}") Duration coalescingWait) {
+        this.recommender     = recommender;
+        this.dependents      = new ConcurrentHashMap<Long, Set<Key>>();
+        this.userGenerations = new ConcurrentHashMap<Long, Long>();
+        this.inFlight        = new ConcurrentHashMap<Key, Flight>();
+        this.coalescingWait  = coalescingWait;
+        this.cache           = Caffeine.newBuilder()
+                                        .maximumSize(maximumSize)
+                                        .expireAfterWrite(ttl)
+                                        .recordStats()
+                                        .executor(Runnable::run)
+                                        .removalListener((Key key, Recommendations value, RemovalCause cause) -> this.onRemoval(key, value))
+                                        .build();
+        CaffeineCacheMetrics.monitor(registry, this.cache, RecommendationCache.CACHE_NAME);
+        for(RecommendationAlgorithm algorithm : RecommendationAlgorithm.values()) {
+            String tag      = algorithm.name().toLowerCase();
+            this.joined.put(algorithm, Counter.builder(RecommendationCache.COALESCED_COUNTER)
+                                        .description("Cache misses served by an identical computation in flight")
+                                        .tag("algorithm", tag)
+                                        .tag("result", "joined")
+                                        .register(registry));
+            this.timeouts.put(algorithm, Counter.builder(RecommendationCache.COALESCED_COUNTER)
+                                        .description("Cache misses served by an identical computation in flight")
+                                        .tag("algorithm", tag)
+                                        .tag("result", "timeout")
+                                        .register(registry));
+            this.followers.put(algorithm, DistributionSummary.builder(RecommendationCache.COALESCED_SUMMARY)
+                                        .description("Callers waiting on one computation besides the one running it")
+                                        .tag("algorithm", tag)
+                                        .register(registry));
+        }
+    }
+
+    /**
+     * Get recommendations, computing and caching them on a miss.
+     *
+     * @param algorithm     Recommendation algorithm.
+     * @param userId        ID of the target user.
+     * @param top           Number of recommendations.
+     * @return              List of recommended movie IDs.
+     */
+    public List<Long> recommend(RecommendationAlgorithm algorithm, Long userId, int top) {
+        return this.recommend(algorithm, userId, top, GenreFilter.NONE);
+    }
+
+    /**
+     * Get recommendations of some genres, computing and caching them on a miss.
+     *
+     * @param algorithm     Recommendation algorithm.
+     * @param userId        ID of the target user.
+     * @param top           Number of recommendations.
+     * @param filter        Genres the recommended movies must have.
+     * @return              List of recommended movie IDs.
+     */
+    public List<Long> recommend(RecommendationAlgorithm algorithm, Long userId, int top, GenreFilter filter) {
+        if(userId == null || top <= 0)
+            return this.recommender.recommend(algorithm, userId, top, filter).movieIds();
+
+        Key key                         = new Key(userId, algorithm, top, filter);
+        Recommendations cached          = this.cache.getIfPresent(key);
+        if(cached != null)
+            return cached.movieIds();
+
+        // Lead a new computation, or join the one in flight unless the user was invalidated since it started.
+        long before                     = this.generation.get();
+        Flight flight                   = new Flight(new CompletableFuture<Recommendations>(), before, new AtomicInteger());
+        Flight running                  = this.inFlight.putIfAbsent(key, flight);
+        if(running == null)
+            return this.lead(key, flight).movieIds();
+        if(!this.invalidatedSince(userId, running.generation()))
+            return this.follow(key, running, before).movieIds();
+        return this.compute(key, before).movieIds();
+    }
+
+    /**
+     * Get recommendations of some genres without blocking the caller.
+     * Hits complete at once, misses are computed on the executor, and identical misses in flight
+     * share its future without taking a thread of their own while they wait.
+     *
+     * @param algorithm     Recommendation algorithm.
+     * @param userId        ID of the target user.
+     * @param top           Number of recommendations.
+     * @param filter        Genres the recommended movies must have.
+     * @param executor      Executor for the computation.
+     * @return              Future list of recommended movie IDs.
+     * @throws RejectedExecutionException   If the executor cannot take the computation.
+     */
+    public CompletableFuture<List<Long>> recommendAsync(RecommendationAlgorithm algorithm, Long userId, int top,
+                                                        GenreFilter filter, Executor executor) {
+        if(userId == null || top <= 0)
+            return CompletableFuture.completedFuture(this.recommender.recommend(algorithm, userId, top, filter).movieIds());
+
+        Key key                         = new Key(userId, algorithm, top, filter);
+        Recommendations cached          = this.cache.getIfPresent(key);
+        if(cached != null)
+            return CompletableFuture.completedFuture(cached.movieIds());
+
+        // Same as the blocking path, but the leader runs on the executor and followers chain on its future.
+        long before                     = this.generation.get();
+        Flight flight                   = new Flight(new CompletableFuture<Recommendations>(), before, new AtomicInteger());
+        Flight running                  = this.inFlight.putIfAbsent(key, flight);
+        if(running == null) {
+            try {
+                return CompletableFuture.supplyAsync(() -> this.lead(key, flight), executor).thenApply(Recommendations::movieIds);
+            }
+            catch(RejectedExecutionException e) {
+                flight.result().completeExceptionally(e);
+                this.inFlight.remove(key, flight);
+                throw e;
+            }
+        }
+        if(this.invalidatedSince(userId, running.generation()))
+            return CompletableFuture.supplyAsync(() -> this.compute(key, before), executor).thenApply(Recommendations::movieIds);
+
+        running.followers().incrementAndGet();
+        this.joined.get(algorithm).increment();
+        return running.result().copy()
+                .orTimeout(this.coalescingWait.toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionallyCompose(e -> {
+                    if(!(e instanceof TimeoutException))
+                        return CompletableFuture.failedFuture(e);
+                    this.timeouts.get(algorithm).increment();
+                    return CompletableFuture.supplyAsync(() -> this.compute(key, before), executor);
+                })
+                .thenApply(Recommendations::movieIds);
+    }
+
+    /**
+     * Compute a result and share it with the callers that joined the flight meanwhile.
+     *
+     * @param key       Cache key.
+     * @param flight    Flight registered for the key.
+     * @return          Computed result.
+     */
+    private Recommendations lead(Key key, Flight flight) {
+        try {
+            Recommendations computed    = this.compute(key, flight.generation());
+            flight.result().complete(computed);
+            return computed;
+        }
+        catch(RuntimeException | Error e) {
+            flight.result().completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            this.inFlight.remove(key, flight);
+            this.followers.get(key.algorithm()).record(flight.followers().get());
+        }
+    }
+
+    /**
+     * Wait on the result of an identical computation, computing it again if the wait runs out.
+     *
+     * @param key       Cache key.
+     * @param flight    Flight in progress for the key.
+     * @param before    Invalidation stamp before the cache lookup.
+     * @return          Shared or recomputed result.
+     */
+    private Recommendations follow(Key key, Flight flight, long before) {
+        flight.followers().incrementAndGet();
+        this.joined.get(key.algorithm()).increment();
+        try {
+            return flight.result().get(this.coalescingWait.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        catch(TimeoutException e) {
+            this.timeouts.get(key.algorithm()).increment();
+            return this.compute(key, before);
+        }
+        catch(ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if(e.getCause() instanceof Error error)
+                throw error;
+            throw new IllegalStateException(e.getCause());
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for recommendations", e);
+        }
+    }
+
+    /**
+     * Compute a result and cache it.
+     * The result is dropped if its user or one of its neighbours was invalidated while it was computed, it may be stale.
+     * The check and the write hold the invalidation lock, so an invalidation either sees the cached
+     * result through its registration or stamps the user before the check.
+     *
+     * @param key       Cache key.
+     * @param before    Invalidation stamp before the cache lookup.
+     * @return          Computed result.
+     */
+    private Recommendations compute(Key key, long before) {
+        Recommendations computed        = this.recommender.recommend(key.algorithm(), key.userId(), key.top(), key.filter());
+        this.register(key, computed);
+        synchronized(this.invalidationLock) {
+            if(!this.invalidatedSince(key, computed, before)) {
+                this.cache.put(key, computed);
+                return computed;
+            }
+        }
+        this.unregister(key, computed);
+        return computed;
+    }
+
+    /**
+     * Invalidate results affected by a rating change of a user:
+     * the user's own results and those that used the user as a neighbour.
+     *
+     * @param userId    ID of the user whose ratings changed.
+     */
+    public void invalidateUser(long userId) {
+        Set<Key> keys;
+        synchronized(this.invalidationLock) {
+            this.userGenerations.put(userId, this.generation.incrementAndGet());
+            keys                        = this.dependents.remove(userId);
+        }
+        if(keys != null)
+            this.cache.invalidateAll(keys);
+    }
+
+    /**
+     * Invalidate every cached result, e.g. after the model is reloaded.
+     */
+    public void invalidateAll() {
+        synchronized(this.invalidationLock) {
+            this.resetGeneration        = this.generation.incrementAndGet();
+            this.userGenerations.clear();
+        }
+        this.cache.invalidateAll();
+        this.dependents.clear();
+    }
+
+    /**
+     * Check whether a user was invalidated after a stamp.
+     *
+     * @param userId    ID of the user.
+     * @param since     Invalidation stamp.
+     * @return          True if the user's ratings, or the whole model, changed after the stamp.
+     */
+    private boolean invalidatedSince(long userId, long since) {
+        return this.resetGeneration > since || this.userGenerations.getOrDefault(userId, 0L) > since;
+    }
+
+    /**
+     * Check whether a computed result depends on a user invalidated after a stamp.
+     *
+     * @param key       Cache key.
+     * @param value     Computed result.
+     * @param since     Invalidation stamp before the computation.
+     * @return          True if the result's user or one of its neighbours was invalidated after the stamp.
+     */
+    private boolean invalidatedSince(Key key, Recommendations value, long since) {
+        if(this.invalidatedSince(key.userId(), since))
+            return true;
+        for(long neighbourId : value.neighbourIds()) {
+            if(this.invalidatedSince(neighbourId, since))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keep the reverse index in step with evictions and invalidations.
+     * A key that is back in the cache (replaced or recomputed meanwhile) keeps its registration.
+     *
+     * @param key       Removed key.
+     * @param value     Removed result, may be null if it was collected.
+     */
+    private void onRemoval(Key key, Recommendations value) {
+        if(!this.cache.asMap().containsKey(key))
+            this.unregister(key, value);
+    }
+
+    /**
+     * Index a result under its user and neighbours.
+     *
+     * @param key       Cache key.
+     * @param value     Cached result.
+     */
+    private void register(Key key, Recommendations value) {
+        this.dependents.computeIfAbsent(key.userId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        for(long neighbourId : value.neighbourIds())
+            this.dependents.computeIfAbsent(neighbourId, id -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    /**
+     * Remove a result from the reverse index.
+     *
+     * @param key       Cache key.
+     * @param value     Removed result, may be null if it was collected.
+     */
+    private void unregister(Key key, Recommendations value) {
+        this.unregister(key.userId(), key);
+        if(value == null)
+            return;
+        for(long neighbourId : value.neighbourIds())
+            this.unregister(neighbourId, key);
+    }
+
+    /**
+     * Remove a key from the entries of one user, dropping the user once empty.
+     *
+     * @param userId    ID of the user.
+     * @param key       Cache key.
+     */
+    private void unregister(long userId, Key key) {
+        this.dependents.computeIfPresent(userId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.recommendation_system.mvc.controller.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executor for CPU-bound recommendation scoring, kept apart from the request threads.
+ * A fixed number of platform threads drains a bounded queue; once both are full, new work is rejected
+ * with {@link RejectedExecutionException} right away, so overload is answered quickly instead of queueing
+ * without limit and delaying every other endpoint. Batches hold a permit for their whole run and score on the same
+ * threads, so a few bulk requests cannot take the cores from single-user ones.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@Service
+public class RecommendationExecutor implements Executor {
+    private final ThreadPoolExecutor pool;          // Scoring threads and their bounded queue.
+    private final Counter rejected;                 // Tasks refused because the pool and queue were full.
+    private final Semaphore batches;                // Permits of the batches running at once.
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param registry          Registry for queue and rejection metrics.
+     * @param threads           Scoring threads, 0 for one per core.
+     * @param queueCapacity     Tasks waiting for a thread before new ones are rejected.
+     * @param batchPermits      Batches running at once before new ones are rejected.
+     */
+    public RecommendationExecutor(  MeterRegistry registry,
+                                    @Value("${recommendation.executor.threads:0}") int threads,
+                                    @Value("${recommendation.executor.queue-capacity:64}") int queueCapacity,
+                                    @Value("${recommendation.executor.batch-permits:1}") int batchPermits) {
+        int size                    = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger next          = new AtomicInteger();
+        this.pool                   = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                                                            new ArrayBlockingQueue<Runnable>(queueCapacity), r -> {
+                                                                Thread thread = new Thread(r, "recommendation-" + next.getAndIncrement());
+                                                                thread.setDaemon(true);
+                                                                return thread;
+                                                            }, new ThreadPoolExecutor.AbortPolicy());
+        this.batches                = new Semaphore(batchPermits);
+        this.rejected               = Counter.builder("recommendation.executor.rejected")
+                                                .description("Recommendation tasks rejected because the executor was saturated")
+                                                .register(registry);
+        Gauge.builder("recommendation.executor.queued", this.pool, pool -> pool.getQueue().size())
+                .description("Recommendation tasks waiting for a scoring thread")
+                .register(registry);
+        Gauge.builder("recommendation.executor.active", this.pool, ThreadPoolExecutor::getActiveCount)
+                .description("Scoring threads running a recommendation task")
+                .register(registry);
+    }
+
+    /**
+     * Run a task on a scoring thread.
+     *
+     * @param task  Task to run.
+     * @throws RejectedExecutionException   If every thread is busy and the queue is full.
+     */
+    @Override
+    public void execute(Runnable task) {
+        try {
+            this.pool.execute(task);
+        }
+        catch(RejectedExecutionException e) {
+            this.rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Take a batch permit, released with {@link #releaseBatch()} once the batch is scored.
+     *
+     * @throws RejectedExecutionException   If every permit is taken.
+     */
+    public void acquireBatch() {
+        if(!this.batches.tryAcquire()) {
+            this.rejected.increment();
+            throw new RejectedExecutionException("Too many concurrent recommendation batches");
+        }
+    }
+
+    /**
+     * Release a batch permit taken with {@link #acquireBatch()}.
+     */
+    public void releaseBatch() {
+        this.batches.release();
+    }
+
+    /**
+     * Stop the scoring threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.recommendation_system.mvc.controller.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the recommendation pipeline.
+ * Every meter is registered once up front, so recording is a clock read and an atomic add,
+ * cheap enough to stay enabled in production.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class RecommendationMetrics {
+    private static final String STAGE_TIMER = "recommendation.stage";      // Timer per pipeline stage.
+    private static final String REQUEST_TIMER = "recommendation.request";  // Timer per recommendation request.
+
+    /**
+     * Stages of the recommendation pipeline.
+     */
+    public enum Stage {
+        LOAD,           // Loading ratings and building the model.
+        SIMILARITY,     // Scanning users for the most similar ones.
+        AGGREGATE,      // Aggregating candidate scores from the neighbours.
+        CONTENT,        // Content-based stage of the hybrid algorithm.
+        RANK            // Selecting and sorting the top results.
+    }
+
+    private final Map<Stage, Timer> stages                          = new EnumMap<Stage, Timer>(Stage.class);
+    private final Map<RecommendationAlgorithm, Timer> requests      = new EnumMap<RecommendationAlgorithm, Timer>(RecommendationAlgorithm.class);
+    private final Counter usersScanned;             // Users compared with a target user.
+    private final Counter candidatesScored;         // Candidate movies scored.
+    private final Counter neighbourHits;            // Neighbourhoods served from the cache.
+    private final Counter neighbourMisses;          // Neighbourhoods computed.
+    private final Counter coldStarts;               // Requests served from the popularity ranking.
+
+    /**
+     * Constructor, registering every meter.
+     *
+     * @param registry  Registry to publish to.
+     */
+    public RecommendationMetrics(MeterRegistry registry) {
+        for(Stage stage : Stage.values())
+            this.stages.put(stage, Timer.builder(RecommendationMetrics.STAGE_TIMER)
+                                        .description("Time spent in one stage of the recommendation pipeline")
+                                        .tag("stage", stage.name().toLowerCase())
+                                        .publishPercentileHistogram()
+                                        .register(registry));
+        for(RecommendationAlgorithm algorithm : RecommendationAlgorithm.values())
+            this.requests.put(algorithm, Timer.builder(RecommendationMetrics.REQUEST_TIMER)
+                                        .description("Time to compute recommendations, result cache excluded")
+                                        .tag("algorithm", algorithm.name().toLowerCase())
+                                        .publishPercentileHistogram()
+                                        .register(registry));
+        this.usersScanned       = Counter.builder("recommendation.users.scanned")
+                                        .description("Users compared with a target user")
+                                        .register(registry);
+        this.candidatesScored   = Counter.builder("recommendation.candidates.scored")
+                                        .description("Candidate movies scored")
+                                        .register(registry);
+        this.neighbourHits      = Counter.builder("recommendation.neighbours.cache")
+                                        .description("Neighbourhood lookups in the neighbour cache")
+                                        .tag("result", "hit")
+                                        .register(registry);
+        this.neighbourMisses    = Counter.builder("recommendation.neighbours.cache")
+                                        .description("Neighbourhood lookups in the neighbour cache")
+                                        .tag("result", "miss")
+                                        .register(registry);
+        this.coldStarts         = Counter.builder("recommendation.cold-start")
+                                        .description("Requests of users with too few ratings, served from the popularity ranking")
+                                        .register(registry);
+    }
+
+    /**
+     * Record the time of a stage.
+     *
+     * @param stage     Pipeline stage.
+     * @param start     {@link System#nanoTime()} at the start of the stage.
+     * @return          Current {@link System#nanoTime()}, the start of the next stage.
+     */
+    public long stage(Stage stage, long start) {
+        long now        = System.nanoTime();
+        this.stages.get(stage).record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Record the time of a whole request.
+     *
+     * @param algorithm     Recommendation algorithm.
+     * @param start         {@link System#nanoTime()} at the start of the request.
+     */
+    public void request(RecommendationAlgorithm algorithm, long start) {
+        this.requests.get(algorithm).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count users compared with a target user.
+     *
+     * @param count     Number of users.
+     */
+    public void usersScanned(int count) {
+        this.usersScanned.increment(count);
+    }
+
+    /**
+     * Count scored candidate movies.
+     *
+     * @param count     Number of candidates.
+     */
+    public void candidatesScored(int count) {
+        this.candidatesScored.increment(count);
+    }
+
+    /**
+     * Count a neighbour cache lookup.
+     *
+     * @param hit   True if the neighbourhood was cached.
+     */
+    public void neighbourLookup(boolean hit) {
+        (hit ? this.neighbourHits : this.neighbourMisses).increment();
+    }
+
+    /**
+     * Count a request served from the popularity ranking.
+     */
+    public void coldStart() {
+        this.coldStarts.increment();
+    }
+}
@@ -0,0 +1,42 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Newline-delimited JSON encoding of recommendation results, one user per line:
+ * {@code {"userId":1,"movieIds":[318,296,2571]}}.
+ * Results only hold numbers, so lines are written directly without a JSON tree.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class RecommendationNdjson {
+    public static final String MEDIA_TYPE = "application/x-ndjson";    // Content type of the encoding.
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private RecommendationNdjson() {
+    }
+
+    /**
+     * Write the result of one user as a line.
+     *
+     * @param out       Destination.
+     * @param userId    ID of the user.
+     * @param movieIds  Recommended movie IDs, best first.
+     */
+    public static void writeLine(Writer out, long userId, List<Long> movieIds) throws IOException {
+        out.write("{\"userId\":");
+        out.write(Long.toString(userId));
+        out.write(",\"movieIds\":[");
+        for(int i = 0; i < movieIds.size(); i++) {
+            if(i > 0)
+                out.write(',');
+            out.write(Long.toString(movieIds.get(i)));
+        }
+        out.write("]}\n");
+    }
+}
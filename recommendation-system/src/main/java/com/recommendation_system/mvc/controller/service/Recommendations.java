@@ -0,0 +1,19 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a recommendation request.
+ *
+ * @param movieIds      Recommended movie IDs, best first.
+ * @param neighbourIds  IDs of the users whose ratings produced the result.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public record Recommendations(List<Long> movieIds, long[] neighbourIds) {
+
+    /** Result for unknown users and invalid requests. */
+    public static final Recommendations EMPTY = new Recommendations(Collections.emptyList(), new long[0]);
+}
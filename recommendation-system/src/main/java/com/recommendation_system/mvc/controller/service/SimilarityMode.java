@@ -0,0 +1,22 @@
+package com.recommendation_system.mvc.controller.service;
+
+/**
+ * Similarity measures between two users.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public enum SimilarityMode {
+
+    /** Cosine of the raw ratings, with norms over all ratings of each user. */
+    COSINE,
+
+    /** Pearson correlation: ratings centered on each user's mean, norms over the co-rated movies. */
+    PEARSON,
+
+    /** Adjusted cosine: ratings centered on each movie's mean, norms over the co-rated movies. */
+    ADJUSTED_COSINE,
+
+    /** Pearson correlation shrunk when the users share fewer co-rated movies than the significance threshold. */
+    SIGNIFICANCE_WEIGHTED
+}
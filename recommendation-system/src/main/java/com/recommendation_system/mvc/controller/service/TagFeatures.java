@@ -0,0 +1,194 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable TF-IDF tag profiles of movies for content-based filtering.
+ * Each movie is a sparse vector over the tag vocabulary, weighted by {@code (1 + log count) * log(movies / df)},
+ * stored in compressed sparse row form with terms sorted ascending and the inverse norm cached,
+ * plus the transposed postings, so one movie is compared with every movie by visiting shared tags only.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class TagFeatures {
+    private final int movieCount;           // Number of movies covered by the features.
+    private final int termCount;            // Size of the tag vocabulary.
+
+    // CSR by movie.
+    private final int[] ptr;                // Profile of movie m spans [ptr[m], ptr[m + 1]).
+    private final int[] terms;              // Tag indices, sorted within each movie.
+    private final float[] weights;          // TF-IDF weights aligned with terms.
+    private final double[] inverseNorms;    // 1 / norm of each profile, 0 for movies without tags.
+
+    // CSC by tag.
+    private final int[] termPtr;            // Movies of tag t span [termPtr[t], termPtr[t + 1]).
+    private final int[] termMovies;         // Movie indices, sorted within each tag.
+    private final float[] termWeights;      // TF-IDF weights aligned with termMovies.
+
+    /**
+     * Constructor from prebuilt profiles, deriving norms and postings.
+     */
+    private TagFeatures(int movieCount, int termCount, int[] ptr, int[] terms, float[] weights) {
+        this.movieCount     = movieCount;
+        this.termCount      = termCount;
+        this.ptr            = ptr;
+        this.terms          = terms;
+        this.weights        = weights;
+        this.inverseNorms   = new double[movieCount];
+        for(int movie = 0; movie < movieCount; movie++) {
+            double sum      = 0.0;
+            for(int k = ptr[movie]; k < ptr[movie + 1]; k++)
+                sum         += (double) weights[k] * weights[k];
+            this.inverseNorms[movie] = sum == 0 ? 0.0 : 1.0 / Math.sqrt(sum);
+        }
+
+        // Movies are visited in ascending order, so they come out sorted within each tag.
+        this.termPtr        = new int[termCount + 1];
+        for(int k = 0; k < terms.length; k++)
+            this.termPtr[terms[k] + 1]++;
+        for(int t = 0; t < termCount; t++)
+            this.termPtr[t + 1] += this.termPtr[t];
+        int[] next          = Arrays.copyOf(this.termPtr, termCount);
+        this.termMovies     = new int[terms.length];
+        this.termWeights    = new float[terms.length];
+        for(int movie = 0; movie < movieCount; movie++) {
+            for(int k = ptr[movie]; k < ptr[movie + 1]; k++) {
+                int pos                 = next[terms[k]]++;
+                this.termMovies[pos]    = movie;
+                this.termWeights[pos]   = weights[k];
+            }
+        }
+    }
+
+    /**
+     * Build TF-IDF profiles from tag applications.
+     * Tags are compared ignoring case and surrounding spaces, each application of a tag to a movie counts once.
+     *
+     * @param entryMovies   Dense movie index of each application, negative or beyond movieCount to skip it.
+     * @param entryTags     Tag of each application.
+     * @param size          Number of applications.
+     * @param movieCount    Number of movies covered by the features.
+     * @return              The tag features.
+     */
+    public static TagFeatures build(int[] entryMovies, String[] entryTags, int size, int movieCount) {
+
+        // Dictionary tag -> term, and (movie, term) pairs sorted so repeated applications are adjacent.
+        Map<String, Integer> vocabulary     = new HashMap<String, Integer>();
+        long[] pairs                        = new long[size];
+        int count                           = 0;
+        for(int i = 0; i < size; i++) {
+            String tag                      = entryTags[i] == null ? "" : entryTags[i].strip().toLowerCase(Locale.ROOT);
+            if(tag.isEmpty() || entryMovies[i] < 0 || entryMovies[i] >= movieCount)
+                continue;
+            int term                        = vocabulary.computeIfAbsent(tag, key -> vocabulary.size());
+            pairs[count++]                  = ((long) entryMovies[i] << 32) | term;
+        }
+        Arrays.sort(pairs, 0, count);
+
+        // Term frequencies per movie, and document frequencies per term.
+        int[] ptr                           = new int[movieCount + 1];
+        int[] terms                         = new int[count];
+        float[] frequencies                 = new float[count];
+        int[] documents                     = new int[vocabulary.size()];
+        int out                             = 0;
+        for(int i = 0; i < count; ) {
+            int movie                       = (int) (pairs[i] >>> 32);
+            int term                        = (int) pairs[i];
+            int j                           = i;
+            while(j < count && pairs[j] == pairs[i])
+                j++;
+            terms[out]                      = term;
+            frequencies[out++]              = (float) (1.0 + Math.log(j - i));
+            documents[term]++;
+            ptr[movie + 1]                  = out;
+            i                               = j;
+        }
+        for(int movie = 0; movie < movieCount; movie++)
+            ptr[movie + 1]                  = Math.max(ptr[movie + 1], ptr[movie]);
+
+        // Inverse document frequency over the tagged movies.
+        int tagged                          = 0;
+        for(int movie = 0; movie < movieCount; movie++) {
+            if(ptr[movie + 1] > ptr[movie])
+                tagged++;
+        }
+        for(int k = 0; k < out; k++)
+            frequencies[k]                  *= (float) Math.log((double) tagged / documents[terms[k]]);
+        return new TagFeatures(movieCount, vocabulary.size(), ptr, Arrays.copyOf(terms, out), Arrays.copyOf(frequencies, out));
+    }
+
+    /**
+     * Cosine similarity between the tag profiles of two movies, merging the sparse vectors.
+     *
+     * @param a     Dense index of the first movie.
+     * @param b     Dense index of the second movie.
+     * @return      Cosine similarity, 0 if either movie is unknown or has no tags.
+     */
+    public double similarity(int a, int b) {
+        if(a >= this.movieCount || b >= this.movieCount || this.inverseNorms[a] == 0 || this.inverseNorms[b] == 0)
+            return 0.0;
+        double dot              = CosineKernel.sortedDot(   this.terms, this.weights, this.ptr[a], this.ptr[a + 1],
+                                                            this.terms, this.weights, this.ptr[b], this.ptr[b + 1]);
+        return dot * this.inverseNorms[a] * this.inverseNorms[b];
+    }
+
+    /**
+     * Add the weighted cosine similarity between one movie and every movie sharing a tag with it.
+     * Only the postings of the movie's own tags are visited.
+     *
+     * @param a         Dense index of the movie.
+     * @param weight    Weight of the tag similarity.
+     * @param out       Similarities by dense movie index, incremented in place.
+     */
+    public void addSimilarities(int a, double weight, double[] out) {
+        if(a >= this.movieCount || this.inverseNorms[a] == 0)
+            return;
+        double scale            = weight * this.inverseNorms[a];
+        for(int k = this.ptr[a]; k < this.ptr[a + 1]; k++) {
+            double wa           = scale * this.weights[k];
+            int term            = this.terms[k];
+            for(int p = this.termPtr[term]; p < this.termPtr[term + 1]; p++) {
+                int b           = this.termMovies[p];
+                out[b]          += wa * this.termWeights[p] * this.inverseNorms[b];
+            }
+        }
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get number of movies.
+     *
+     * @return  Number of movies covered by the features.
+     */
+    public int movieCount() {
+        return movieCount;
+    }
+
+    /**
+     * Get size of the tag vocabulary.
+     *
+     * @return  Number of distinct tags.
+     */
+    public int termCount() {
+        return termCount;
+    }
+
+    /**
+     * Get number of tagged movies.
+     *
+     * @return  Number of movies with at least one weighted tag.
+     */
+    public int taggedMovies() {
+        int tagged              = 0;
+        for(double inverseNorm : this.inverseNorms) {
+            if(inverseNorm != 0)
+                tagged++;
+        }
+        return tagged;
+    }
+}
@@ -0,0 +1,326 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory search index over movie titles.
+ * Titles are normalized (lower case, accents removed), then indexed twice:
+ * <ul>
+ *     <li>trigrams, for substring queries: the posting lists of the keyword's trigrams are intersected
+ *     and the candidates verified against the title;</li>
+ *     <li>words, sorted, for prefix queries: the words starting with the keyword form one contiguous range.</li>
+ * </ul>
+ * Posting lists are int arrays of document positions stored in compressed sparse row form.
+ * Movies added after the build are kept in a small tail scanned linearly, until the next rebuild.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class TitleSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");  // Combining marks left by NFD.
+    private static final int GRAM           = 3;                            // Length of the indexed n-grams.
+    private static final int MAX_TAIL       = 1024;                         // Added movies before a rebuild.
+
+    private final Movie[] movies;           // Indexed movies by document position, ordered by ID.
+    private final String[] normalized;      // Normalized titles aligned with movies.
+
+    // Trigram postings.
+    private final int[] grams;              // Distinct trigram keys, sorted.
+    private final int[] gramPtr;            // Documents of grams[g] span [gramPtr[g], gramPtr[g + 1]).
+    private final int[] gramDocs;           // Document positions, ascending within each gram.
+
+    // Sorted words.
+    private final String[] words;           // Words of every title, sorted.
+    private final int[] wordDocs;           // Document position of each word.
+
+    private final Movie[] tail;             // Movies added after the build.
+    private final String[] tailNormalized;  // Normalized titles aligned with tail.
+
+    /**
+     * Constructor from prebuilt arrays.
+     */
+    private TitleSearchIndex(   Movie[] movies, String[] normalized, int[] grams, int[] gramPtr, int[] gramDocs,
+                                String[] words, int[] wordDocs, Movie[] tail, String[] tailNormalized) {
+        this.movies         = movies;
+        this.normalized     = normalized;
+        this.grams          = grams;
+        this.gramPtr        = gramPtr;
+        this.gramDocs       = gramDocs;
+        this.words          = words;
+        this.wordDocs       = wordDocs;
+        this.tail           = tail;
+        this.tailNormalized = tailNormalized;
+    }
+
+    /**
+     * Build the index.
+     *
+     * @param catalogue     Movies to index. Movies without title or ID are skipped.
+     * @return              The index.
+     */
+    public static TitleSearchIndex build(List<Movie> catalogue) {
+        Movie[] movies                  = catalogue.stream()
+                                                .filter(movie -> movie.getMovieId() != null && movie.getTitle() != null)
+                                                .sorted(Comparator.comparing(Movie::getMovieId))
+                                                .toArray(Movie[]::new);
+        String[] normalized             = new String[movies.length];
+        for(int doc = 0; doc < movies.length; doc++)
+            normalized[doc]             = TitleSearchIndex.normalize(movies[doc].getTitle());
+
+        // Trigram postings: sort (gram, doc) pairs, then drop duplicates and split into rows.
+        int size                        = 0;
+        long[] pairs                    = new long[16];
+        for(int doc = 0; doc < movies.length; doc++) {
+            String title                = normalized[doc];
+            for(int i = 0; i + TitleSearchIndex.GRAM <= title.length(); i++) {
+                if(size == pairs.length)
+                    pairs               = Arrays.copyOf(pairs, size * 2);
+                pairs[size++]           = ((long) TitleSearchIndex.gram(title, i) << 32) | doc;
+            }
+        }
+        Arrays.sort(pairs, 0, size);
+        int[] grams                     = new int[size];
+        int[] gramPtr                   = new int[size + 1];
+        int[] gramDocs                  = new int[size];
+        int gramCount                   = 0;
+        int docCount                    = 0;
+        for(int i = 0; i < size; i++) {
+            if(i > 0 && pairs[i] == pairs[i - 1])
+                continue;
+            int gram                    = (int) (pairs[i] >> 32);
+            if(gramCount == 0 || grams[gramCount - 1] != gram) {
+                grams[gramCount]        = gram;
+                gramPtr[gramCount++]    = docCount;
+            }
+            gramDocs[docCount++]        = (int) pairs[i];
+        }
+        gramPtr[gramCount]              = docCount;
+
+        // Sorted words with their documents.
+        List<String> allWords           = new ArrayList<String>();
+        List<Integer> allDocs           = new ArrayList<Integer>();
+        for(int doc = 0; doc < movies.length; doc++) {
+            for(String word : TitleSearchIndex.words(normalized[doc])) {
+                allWords.add(word);
+                allDocs.add(doc);
+            }
+        }
+        Integer[] order                 = new Integer[allWords.size()];
+        for(int i = 0; i < order.length; i++)
+            order[i]                    = i;
+        Arrays.sort(order, Comparator.comparing(allWords::get));
+        String[] words                  = new String[order.length];
+        int[] wordDocs                  = new int[order.length];
+        for(int i = 0; i < order.length; i++) {
+            words[i]                    = allWords.get(order[i]);
+            wordDocs[i]                 = allDocs.get(order[i]);
+        }
+
+        return new TitleSearchIndex(movies, normalized, Arrays.copyOf(grams, gramCount), Arrays.copyOf(gramPtr, gramCount + 1),
+                                    Arrays.copyOf(gramDocs, docCount), words, wordDocs, new Movie[0], new String[0]);
+    }
+
+    /**
+     * Create an index that also contains a new movie.
+     * The movie is appended to the tail, the index is rebuilt once the tail is full.
+     *
+     * @param movie     Movie to add.
+     * @return          The new index, or this one if the movie has no ID or title or its ID is already indexed.
+     */
+    public TitleSearchIndex withMovie(Movie movie) {
+        if(movie.getMovieId() == null || movie.getTitle() == null || this.indexes(movie.getMovieId()))
+            return this;
+        if(this.tail.length >= TitleSearchIndex.MAX_TAIL) {
+            List<Movie> all             = new ArrayList<Movie>(Arrays.asList(this.movies));
+            all.addAll(Arrays.asList(this.tail));
+            all.add(movie);
+            return TitleSearchIndex.build(all);
+        }
+        Movie[] tail                    = Arrays.copyOf(this.tail, this.tail.length + 1);
+        String[] tailNormalized         = Arrays.copyOf(this.tailNormalized, this.tailNormalized.length + 1);
+        tail[this.tail.length]          = movie;
+        tailNormalized[this.tail.length] = TitleSearchIndex.normalize(movie.getTitle());
+        return new TitleSearchIndex(this.movies, this.normalized, this.grams, this.gramPtr, this.gramDocs,
+                                    this.words, this.wordDocs, tail, tailNormalized);
+    }
+
+    /**
+     * Tell whether a movie ID is indexed, by binary search over the movies then a scan of the tail.
+     *
+     * @param movieId   ID of the movie.
+     * @return          True if a movie with this ID is indexed.
+     */
+    private boolean indexes(long movieId) {
+        int low                         = 0;
+        int high                        = this.movies.length - 1;
+        while(low <= high) {
+            int middle                  = (low + high) >>> 1;
+            long id                     = this.movies[middle].getMovieId();
+            if(id == movieId)
+                return true;
+            if(id < movieId)
+                low                     = middle + 1;
+            else
+                high                    = middle - 1;
+        }
+        for(Movie movie : this.tail) {
+            if(movie.getMovieId() == movieId)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find the movies whose title contains a keyword, ignoring case and accents.
+     *
+     * @param keyword   Keyword to search.
+     * @param limit     Maximum number of movies.
+     * @return          Matching movies, ordered by ID, then the movies added since the build.
+     */
+    public List<Movie> contains(String keyword, int limit) {
+        String query                    = TitleSearchIndex.normalize(keyword);
+        List<Movie> result              = new ArrayList<Movie>(Math.min(limit, 64));
+        if(query.length() < TitleSearchIndex.GRAM) {
+
+            // Too short for a trigram: scan the titles, stopping at the limit.
+            for(int doc = 0; doc < this.movies.length && result.size() < limit; doc++) {
+                if(this.normalized[doc].contains(query))
+                    result.add(this.movies[doc]);
+            }
+        }
+        else {
+            int[] candidates            = null;
+            for(int i = 0; i + TitleSearchIndex.GRAM <= query.length(); i++) {
+                int g                   = Arrays.binarySearch(this.grams, TitleSearchIndex.gram(query, i));
+                if(g < 0)
+                    return this.scanTail(query, false, result, limit);
+                int[] postings          = Arrays.copyOfRange(this.gramDocs, this.gramPtr[g], this.gramPtr[g + 1]);
+                candidates              = candidates == null ? postings : TitleSearchIndex.intersect(candidates, postings);
+            }
+
+            // Trigrams may match out of order or collide, so verify every candidate.
+            for(int i = 0; i < candidates.length && result.size() < limit; i++) {
+                if(this.normalized[candidates[i]].contains(query))
+                    result.add(this.movies[candidates[i]]);
+            }
+        }
+        return this.scanTail(query, false, result, limit);
+    }
+
+    /**
+     * Find the movies with a title word starting with a keyword, ignoring case and accents.
+     *
+     * @param keyword   Keyword to search.
+     * @param limit     Maximum number of movies.
+     * @return          Matching movies, ordered by ID, then the movies added since the build.
+     */
+    public List<Movie> prefix(String keyword, int limit) {
+        String query                    = TitleSearchIndex.normalize(keyword).strip();
+        List<Movie> result              = new ArrayList<Movie>(Math.min(limit, 64));
+        if(query.isEmpty())
+            return result;
+
+        // Words starting with the query are contiguous in sorted order.
+        int from                        = Arrays.binarySearch(this.words, query);
+        from                            = from < 0 ? -from - 1 : from;
+        while(from > 0 && this.words[from - 1].startsWith(query))
+            from--;
+        int to                          = from;
+        while(to < this.words.length && this.words[to].startsWith(query))
+            to++;
+        int[] docs                      = Arrays.copyOfRange(this.wordDocs, from, to);
+        Arrays.sort(docs);
+        for(int i = 0; i < docs.length && result.size() < limit; i++) {
+            if(i == 0 || docs[i] != docs[i - 1])
+                result.add(this.movies[docs[i]]);
+        }
+        return this.scanTail(query, true, result, limit);
+    }
+
+    /**
+     * Get the number of indexed movies.
+     *
+     * @return  Number of movies, tail included.
+     */
+    public int size() {
+        return this.movies.length + this.tail.length;
+    }
+
+    /**
+     * Add the matching movies of the tail.
+     */
+    private List<Movie> scanTail(String query, boolean prefix, List<Movie> result, int limit) {
+        for(int i = 0; i < this.tail.length && result.size() < limit; i++) {
+            boolean match               = prefix
+                                            ? TitleSearchIndex.words(this.tailNormalized[i]).stream().anyMatch(word -> word.startsWith(query))
+                                            : this.tailNormalized[i].contains(query);
+            if(match)
+                result.add(this.tail[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Intersect two ascending arrays.
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out                       = new int[Math.min(a.length, b.length)];
+        int count                       = 0;
+        for(int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if(a[i] < b[j])
+                i++;
+            else if(a[i] > b[j])
+                j++;
+            else {
+                out[count++]            = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    /**
+     * Key of the trigram starting at a position. Distinct trigrams may share a key, candidates are verified.
+     */
+    private static int gram(String text, int from) {
+        return (text.charAt(from) * 31 + text.charAt(from + 1)) * 31 + text.charAt(from + 2);
+    }
+
+    /**
+     * Split a normalized title into words of letters and digits.
+     */
+    private static List<String> words(String title) {
+        List<String> words              = new ArrayList<String>();
+        int start                       = -1;
+        for(int i = 0; i <= title.length(); i++) {
+            boolean inWord              = i < title.length() && Character.isLetterOrDigit(title.charAt(i));
+            if(inWord && start < 0)
+                start                   = i;
+            else if(!inWord && start >= 0) {
+                words.add(title.substring(start, i));
+                start                   = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Normalize a text for matching: lower case and without accents.
+     *
+     * @param text  Text to normalize.
+     * @return      Normalized text.
+     */
+    static String normalize(String text) {
+        String decomposed               = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return TitleSearchIndex.DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
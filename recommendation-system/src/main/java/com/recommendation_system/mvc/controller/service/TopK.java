@@ -0,0 +1,195 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Arrays;
+
+/**
+ * Bounded top-K selector over (int id, double score) pairs.
+ * Keeps the K best pairs in a fixed-size min-heap, so selecting from n pairs costs O(n log k)
+ * and never boxes. Higher scores win, equal scores are broken by the lower id so results are reproducible.
+ * NaN scores are ignored.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class TopK {
+    private final int[] ids;        // Heap of ids, worst pair at the root.
+    private final double[] scores;  // Scores aligned with ids.
+    private int size;               // Number of pairs in the heap.
+    private boolean sorted;         // True once the pairs have been sorted best first.
+
+    /**
+     * Constructor.
+     *
+     * @param k     Maximum number of pairs to keep.
+     */
+    public TopK(int k) {
+        this.ids        = new int[Math.max(k, 0)];
+        this.scores     = new double[Math.max(k, 0)];
+    }
+
+    /**
+     * Offer a pair to the selector.
+     *
+     * @param id        ID of the element.
+     * @param score     Score of the element.
+     */
+    public void offer(int id, double score) {
+        if(this.sorted)
+            throw new IllegalStateException("TopK already sorted, call clear() before offering again");
+        if(Double.isNaN(score) || this.ids.length == 0)
+            return;
+
+        if(this.size < this.ids.length) {
+            this.ids[this.size]     = id;
+            this.scores[this.size]  = score;
+            this.siftUp(this.size++);
+        }
+        else if(TopK.worse(this.scores[0], this.ids[0], score, id)) {
+            this.ids[0]             = id;
+            this.scores[0]          = score;
+            this.siftDown(0, this.size);
+        }
+    }
+
+    /**
+     * Offer every pair held by another selector.
+     *
+     * @param other     Selector to merge, left untouched.
+     */
+    public void offerAll(TopK other) {
+        for(int i = 0; i < other.size; i++)
+            this.offer(other.ids[i], other.scores[i]);
+    }
+
+    /**
+     * Check whether a score would currently be kept.
+     *
+     * @param id        ID of the element.
+     * @param score     Score of the element.
+     * @return          True if offering the pair would change the selection.
+     */
+    public boolean accepts(int id, double score) {
+        return this.size < this.ids.length || TopK.worse(this.scores[0], this.ids[0], score, id);
+    }
+
+    /**
+     * Sort the selected pairs best first. Call before reading {@link #id(int)} and {@link #score(int)}.
+     *
+     * @return  This selector.
+     */
+    public TopK sort() {
+        if(this.sorted)
+            return this;
+
+        // Heap sort: move the current worst pair to the end of the shrinking heap.
+        for(int end = this.size - 1; end > 0; end--) {
+            this.swap(0, end);
+            this.siftDown(0, end);
+        }
+        this.sorted     = true;
+        return this;
+    }
+
+    /**
+     * Get the IDs of the selected pairs, best first.
+     *
+     * @return  New array of IDs.
+     */
+    public int[] toIdArray() {
+        this.sort();
+        return Arrays.copyOf(this.ids, this.size);
+    }
+
+    /**
+     * Empty the selector so it can be reused.
+     */
+    public void clear() {
+        this.size       = 0;
+        this.sorted     = false;
+    }
+
+    /**
+     * Get the number of selected pairs.
+     *
+     * @return  Number of pairs, at most K.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get the ID at a rank. Only valid after {@link #sort()}.
+     *
+     * @param rank  Rank, 0 being the best.
+     * @return      ID at the rank.
+     */
+    public int id(int rank) {
+        return this.ids[rank];
+    }
+
+    /**
+     * Get the score at a rank. Only valid after {@link #sort()}.
+     *
+     * @param rank  Rank, 0 being the best.
+     * @return      Score at the rank.
+     */
+    public double score(int rank) {
+        return this.scores[rank];
+    }
+
+    /**
+     * Compare two pairs.
+     *
+     * @return  True if pair a ranks below pair b.
+     */
+    private static boolean worse(double scoreA, int idA, double scoreB, int idB) {
+        return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+    }
+
+    /**
+     * Restore the heap property upwards from a position.
+     *
+     * @param pos   Position of the new pair.
+     */
+    private void siftUp(int pos) {
+        while(pos > 0) {
+            int parent  = (pos - 1) >>> 1;
+            if(!TopK.worse(this.scores[pos], this.ids[pos], this.scores[parent], this.ids[parent]))
+                return;
+            this.swap(pos, parent);
+            pos         = parent;
+        }
+    }
+
+    /**
+     * Restore the heap property downwards from a position.
+     *
+     * @param pos   Position of the replaced pair.
+     * @param end   Exclusive end of the heap region.
+     */
+    private void siftDown(int pos, int end) {
+        while(true) {
+            int child   = 2 * pos + 1;
+            if(child >= end)
+                return;
+            if(child + 1 < end && TopK.worse(this.scores[child + 1], this.ids[child + 1], this.scores[child], this.ids[child]))
+                child++;
+            if(!TopK.worse(this.scores[child], this.ids[child], this.scores[pos], this.ids[pos]))
+                return;
+            this.swap(pos, child);
+            pos         = child;
+        }
+    }
+
+    /**
+     * Swap two heap positions.
+     */
+    private void swap(int a, int b) {
+        int id          = this.ids[a];
+        double score    = this.scores[a];
+        this.ids[a]     = this.ids[b];
+        this.scores[a]  = this.scores[b];
+        this.ids[b]     = id;
+        this.scores[b]  = score;
+    }
+}
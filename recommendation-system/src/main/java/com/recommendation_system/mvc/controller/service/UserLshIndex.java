@@ -0,0 +1,225 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate nearest-neighbour index of user rating vectors for cosine similarity,
+ * with random-hyperplane locality-sensitive hashing.
+ * <p>
+ * Each of the L tables hashes a user to a b-bit signature, one bit per random hyperplane:
+ * two users share a bit with probability 1 - angle / pi, so similar users tend to share buckets.
+ * A query collects the users of the target's bucket in every table, plus the buckets reached by
+ * flipping its least certain bits (multi-probe), and ranks these candidates with the exact similarity.
+ * More tables and probes raise recall, more bits shrink the buckets and the query latency.
+ * <p>
+ * Hyperplanes have random +1/-1 coordinates derived from a hash of (seed, table, movie), so they
+ * cover movies added after the build without being stored. The index is immutable: users added
+ * after the build are not candidates until the next rebuild, users whose ratings changed are
+ * still scored with their current ratings.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+public final class UserLshIndex {
+    public static final int MAX_BITS        = 32;   // Signatures share a long with the user row.
+
+    private final int tables;               // Number of hash tables.
+    private final int bits;                 // Signature bits per table.
+    private final int probes;               // Extra buckets probed per table.
+    private final long seed;                // Seed of the hyperplanes.
+    private final int userCount;            // Number of indexed users.
+    private final long[][] buckets;         // Per table, (signature << 32 | user) sorted ascending.
+
+    /**
+     * Constructor from prebuilt tables.
+     */
+    private UserLshIndex(int tables, int bits, int probes, long seed, int userCount, long[][] buckets) {
+        this.tables         = tables;
+        this.bits           = bits;
+        this.probes         = probes;
+        this.seed           = seed;
+        this.userCount      = userCount;
+        this.buckets        = buckets;
+    }
+
+    /**
+     * Build the index over every user of a rating matrix, users in parallel.
+     *
+     * @param matrix    Rating matrix.
+     * @param tables    Number of hash tables, at least 1.
+     * @param bits      Signature bits per table, 1 to {@link #MAX_BITS}.
+     * @param probes    Extra buckets probed per table, 0 to bits.
+     * @param seed      Seed of the random hyperplanes.
+     * @return          The index.
+     */
+    public static UserLshIndex build(RatingMatrix matrix, int tables, int bits, int probes, long seed) {
+        if(tables < 1 || bits < 1 || bits > UserLshIndex.MAX_BITS || probes < 0 || probes > bits)
+            throw new IllegalArgumentException("Invalid LSH parameters: tables=" + tables + ", bits=" + bits + ", probes=" + probes);
+
+        int userCount               = matrix.userCount();
+        long[][] buckets            = new long[tables][userCount];
+        IntStream.range(0, userCount).parallel().forEach(user -> {
+            double[] sums           = new double[tables * bits];
+            UserLshIndex.project(matrix, user, tables, bits, seed, sums);
+            for(int t = 0; t < tables; t++)
+                buckets[t][user]    = ((long) UserLshIndex.signature(sums, t, bits) << 32) | user;
+        });
+        for(long[] table : buckets)
+            Arrays.parallelSort(table);
+        return new UserLshIndex(tables, bits, probes, seed, userCount, buckets);
+    }
+
+    /**
+     * Find the users most similar to a target user among the candidates sharing a bucket with it.
+     *
+     * @param matrix        Current rating matrix, possibly newer than the index.
+     * @param target        Row index of the target user.
+     * @param k             Number of similar users to return.
+     * @param similarity    Exact similarity of a user row to the target.
+     * @return              Unsorted selection, or null if fewer than k candidates were found.
+     */
+    public TopK query(RatingMatrix matrix, int target, int k, IntToDoubleFunction similarity) {
+        double[] sums               = new double[this.tables * this.bits];
+        UserLshIndex.project(matrix, target, this.tables, this.bits, this.seed, sums);
+
+        int count                   = 0;
+        int[] candidates            = new int[64];
+        int[] order                 = new int[this.bits];
+        for(int t = 0; t < this.tables; t++) {
+            int signature           = UserLshIndex.signature(sums, t, this.bits);
+
+            // Bits closest to their hyperplane are the likeliest to differ for a near neighbour.
+            if(this.probes > 0)
+                UserLshIndex.leastCertainBits(sums, t, this.bits, order);
+            for(int probe = 0; probe <= this.probes; probe++) {
+                int bucket          = probe == 0 ? signature : signature ^ (1 << order[probe - 1]);
+                long[] table        = this.buckets[t];
+                for(int i = UserLshIndex.firstOf(table, bucket); i < table.length && (int) (table[i] >>> 32) == bucket; i++) {
+                    if(count == candidates.length)
+                        candidates  = Arrays.copyOf(candidates, count * 2);
+                    candidates[count++] = (int) table[i];
+                }
+            }
+        }
+
+        // Each candidate is scored once, however many buckets it shares with the target.
+        Arrays.sort(candidates, 0, count);
+        TopK top                    = new TopK(k);
+        int distinct                = 0;
+        for(int i = 0; i < count; i++) {
+            int user                = candidates[i];
+            if(user == target || (i > 0 && user == candidates[i - 1]))
+                continue;
+            top.offer(user, similarity.applyAsDouble(user));
+            distinct++;
+        }
+        return distinct < k ? null : top;
+    }
+
+    /**
+     * Project a user row on every hyperplane.
+     *
+     * @param sums  Dot product with hyperplane b of table t at [t * bits + b].
+     */
+    private static void project(RatingMatrix matrix, int user, int tables, int bits, long seed, double[] sums) {
+        Arrays.fill(sums, 0.0);
+        int[] movies                = matrix.rowMovies(user);
+        float[] ratings             = matrix.rowRatings(user);
+        for(int k = matrix.rowStart(user); k < matrix.rowEnd(user); k++) {
+            for(int t = 0; t < tables; t++) {
+
+                // One hash gives the +1/-1 coordinate of this movie on every hyperplane of the table.
+                long signs          = UserLshIndex.mix(seed + t * 0x9E3779B97F4A7C15L + movies[k]);
+                for(int b = 0; b < bits; b++)
+                    sums[t * bits + b] += ((signs >>> b) & 1L) == 0 ? ratings[k] : -ratings[k];
+            }
+        }
+    }
+
+    /**
+     * Get the signature of one table from the projections.
+     */
+    private static int signature(double[] sums, int table, int bits) {
+        int signature               = 0;
+        for(int b = 0; b < bits; b++) {
+            if(sums[table * bits + b] > 0)
+                signature           |= 1 << b;
+        }
+        return signature;
+    }
+
+    /**
+     * Order the bits of one table by distance of the projection to the hyperplane, closest first.
+     */
+    private static void leastCertainBits(double[] sums, int table, int bits, int[] order) {
+        for(int b = 0; b < bits; b++)
+            order[b]                = b;
+        for(int i = 1; i < bits; i++) {
+            int bit                 = order[i];
+            double margin           = Math.abs(sums[table * bits + bit]);
+            int j                   = i - 1;
+            for(; j >= 0 && Math.abs(sums[table * bits + order[j]]) > margin; j--)
+                order[j + 1]        = order[j];
+            order[j + 1]            = bit;
+        }
+    }
+
+    /**
+     * Find the first entry of a bucket in a sorted table.
+     *
+     * @return  Position of the first entry with the signature, or of the next bucket if empty.
+     */
+    private static int firstOf(long[] table, int signature) {
+        long key                    = (long) signature << 32;
+        int low                     = 0;
+        int high                    = table.length;
+        while(low < high) {
+            int mid                 = (low + high) >>> 1;
+            if(table[mid] < key)
+                low                 = mid + 1;
+            else
+                high                = mid;
+        }
+        return low;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z                           = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z                           = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*  DEFAULT GETTERS */
+
+    /**
+     * Get number of indexed users.
+     *
+     * @return  Number of users covered by the index.
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * Get number of hash tables.
+     *
+     * @return  Number of hash tables.
+     */
+    public int tables() {
+        return tables;
+    }
+
+    /**
+     * Get signature bits per table.
+     *
+     * @return  Signature bits per table.
+     */
+    public int bits() {
+        return bits;
+    }
+}
@@ -0,0 +1,21 @@
+package com.recommendation_system.mvc.controller.service;
+
+/**
+ * Similarity between two users of a rating matrix.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+@FunctionalInterface
+public interface UserSimilarity {
+
+    /**
+     * Compute the similarity of two users.
+     *
+     * @param matrix        Rating matrix.
+     * @param user          Row index of user.
+     * @param otherUser     Row index of other user.
+     * @return              Similarity score, higher is more similar.
+     */
+    double between(RatingMatrix matrix, int user, int otherUser);
+}
@@ -0,0 +1,73 @@
+package com.recommendation_system.mvc.controller.service;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Fork-join task selecting the users most similar to a target user.
+ * The user range is split in halves down to a grain size, each partition keeps its own
+ * top-K and partial results are merged on the way back up.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+final class UserSimilarityTask extends RecursiveTask<TopK> {
+    private final int from;                         // First user row (inclusive).
+    private final int to;                           // Last user row (exclusive).
+    private final int target;                       // Row of the target user, skipped.
+    private final int k;                            // Number of users to select.
+    private final int grain;                        // Partition size below which rows are scanned directly.
+    private final IntToDoubleFunction similarity;   // Similarity of a user row to the target.
+
+    /**
+     * Constructor.
+     *
+     * @param from          First user row (inclusive).
+     * @param to            Last user row (exclusive).
+     * @param target        Row of the target user, skipped.
+     * @param k             Number of users to select.
+     * @param grain         Partition size below which rows are scanned directly.
+     * @param similarity    Similarity of a user row to the target.
+     */
+    UserSimilarityTask(int from, int to, int target, int k, int grain, IntToDoubleFunction similarity) {
+        this.from           = from;
+        this.to             = to;
+        this.target         = target;
+        this.k              = k;
+        this.grain          = grain;
+        this.similarity     = similarity;
+    }
+
+    @Override
+    protected TopK compute() {
+        if(this.to - this.from <= this.grain)
+            return UserSimilarityTask.scan(this.from, this.to, this.target, this.k, this.similarity);
+
+        int mid                     = (this.from + this.to) >>> 1;
+        UserSimilarityTask left     = new UserSimilarityTask(this.from, mid, this.target, this.k, this.grain, this.similarity);
+        UserSimilarityTask right    = new UserSimilarityTask(mid, this.to, this.target, this.k, this.grain, this.similarity);
+        left.fork();
+        TopK top                    = right.compute();
+        top.offerAll(left.join());
+        return top;
+    }
+
+    /**
+     * Scan a range of user rows on the calling thread.
+     *
+     * @param from          First user row (inclusive).
+     * @param to            Last user row (exclusive).
+     * @param target        Row of the target user, skipped.
+     * @param k             Number of users to select.
+     * @param similarity    Similarity of a user row to the target.
+     * @return              Unsorted top-K of the range.
+     */
+    static TopK scan(int from, int to, int target, int k, IntToDoubleFunction similarity) {
+        TopK top                    = new TopK(k);
+        for(int otherUser = from; otherUser < to; otherUser++) {
+            if(otherUser != target)
+                top.offer(otherUser, similarity.applyAsDouble(otherUser));
+        }
+        return top;
+    }
+}
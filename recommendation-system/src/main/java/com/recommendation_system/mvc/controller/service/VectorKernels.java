@@ -0,0 +1,87 @@
+package com.recommendation_system.mvc.controller.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels written with the incubating Vector API.
+ * Only loaded in {@link ExecutionMode#VECTORIZED} mode, which requires the JVM to run
+ * with {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+final class VectorKernels {
+    private static final VectorSpecies<Long> LONGS      = LongVector.SPECIES_PREFERRED;                         // Preferred long shape.
+    private static final VectorSpecies<Double> DOUBLES  = VectorSpecies.of(double.class, LONGS.vectorShape());  // Doubles with the same lane count.
+    private static final VectorSpecies<Float> FLOATS    = FloatVector.SPECIES_PREFERRED;                        // Preferred float shape.
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private VectorKernels() {
+    }
+
+    /**
+     * Genre cosine similarity of one movie to every movie.
+     * Same result as {@link GenreFeatures#similarities(int, double[])}, several masks per instruction.
+     *
+     * @param masks         Genre bitmask per dense movie index.
+     * @param inverseNorms  1 / sqrt(bitCount(mask)) per dense movie index.
+     * @param a             Dense index of the movie.
+     * @param out           Similarities by dense movie index.
+     */
+    static void genreSimilarities(long[] masks, double[] inverseNorms, int a, double[] out) {
+        long mask               = masks[a];
+        double inverseNorm      = inverseNorms[a];
+        int bound               = VectorKernels.LONGS.loopBound(masks.length);
+        int b                   = 0;
+        for(; b < bound; b += VectorKernels.LONGS.length()) {
+            DoubleVector common = (DoubleVector) LongVector.fromArray(VectorKernels.LONGS, masks, b)
+                                                            .and(mask)
+                                                            .lanewise(VectorOperators.BIT_COUNT)
+                                                            .convertShape(VectorOperators.L2D, VectorKernels.DOUBLES, 0);
+            common.mul(inverseNorm)
+                    .mul(DoubleVector.fromArray(VectorKernels.DOUBLES, inverseNorms, b))
+                    .intoArray(out, b);
+        }
+
+        // Scalar tail.
+        for(; b < masks.length; b++)
+            out[b]              = Long.bitCount(mask & masks[b]) * inverseNorm * inverseNorms[b];
+    }
+
+    /**
+     * Latent-factor scores of one user for every movie.
+     * Same result as {@link MatrixFactorization#scores(int, float[])} up to rounding, several factors per instruction.
+     *
+     * @param model     Latent-factor model.
+     * @param user      Dense index of the user, known to the model.
+     * @param out       Score per dense movie index.
+     */
+    static void factorScores(MatrixFactorization model, int user, float[] out) {
+        int k                   = model.factors();
+        float[] userFactors     = model.userFactors();
+        float[] movieFactors    = model.movieFactors();
+        float[] movieBiases     = model.movieBiases();
+        int bound               = VectorKernels.FLOATS.loopBound(k);
+        int base                = user * k;
+        for(int movie = 0; movie < model.movieCount(); movie++) {
+            int offset          = movie * k;
+            FloatVector sum     = FloatVector.zero(VectorKernels.FLOATS);
+            int i               = 0;
+            for(; i < bound; i += VectorKernels.FLOATS.length())
+                sum             = FloatVector.fromArray(VectorKernels.FLOATS, userFactors, base + i)
+                                                .fma(FloatVector.fromArray(VectorKernels.FLOATS, movieFactors, offset + i), sum);
+            float dot           = movieBiases[movie] + sum.reduceLanes(VectorOperators.ADD);
+
+            // Scalar tail.
+            for(; i < k; i++)
+                dot             += userFactors[base + i] * movieFactors[offset + i];
+            out[movie]          = dot;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.recommendation_system.mvc.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recommendation_system.mvc.controller.service.MovieCatalogService;
+import com.recommendation_system.mvc.controller.service.MovieRepository;
+import com.recommendation_system.mvc.controller.service.MovieSearchService;
+import com.recommendation_system.mvc.model.entity.Movie;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the bounds and the last page of /movies/page, and that /movies/stream returns the same JSON as /movies.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class MovieControllerTests {
+    private static final List<Movie> CATALOGUE = List.of(   movie(1L, "Toy Story (1995)", "Adventure|Animation|Children|Comedy|Fantasy"),
+                                                            movie(2L, "Jumanji (1995)", "Adventure|Children|Fantasy"),
+                                                            movie(5L, "Father of the Bride Part II (1995)", "Comedy"),
+                                                            movie(6L, "Heat (1995)", "Action|Crime|Thriller"),
+                                                            movie(11L, "American President, The (1995)", "Comedy|Drama|Romance"));
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        MovieRepository repository = Mockito.mock(MovieRepository.class);
+        Mockito.when(repository.findAll()).thenReturn(CATALOGUE);
+        Mockito.when(repository.streamAllOrderedById()).thenAnswer(invocation -> CATALOGUE.stream());
+        Mockito.when(repository.findByMovieIdGreaterThanOrderByMovieIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0, Long.class);
+            int limit = invocation.getArgument(1, Limit.class).max();
+            return CATALOGUE.stream().filter(movie -> movie.getMovieId() > after).limit(limit).toList();
+        });
+        MovieCatalogService catalog = new MovieCatalogService(repository, Mockito.mock(EntityManager.class));
+        this.mvc = MockMvcBuilders.standaloneSetup(new MovieController(repository, catalog, Mockito.mock(MovieSearchService.class), new ObjectMapper()))
+                                  .build();
+    }
+
+    @Test
+    void rejectsLimitsOutOfBounds() throws Exception {
+        mvc.perform(get("/movies/page").param("limit", "0")).andExpect(status().isBadRequest());
+        mvc.perform(get("/movies/page").param("limit", "1001")).andExpect(status().isBadRequest());
+        mvc.perform(get("/movies/page").param("limit", "-5")).andExpect(status().isBadRequest());
+        mvc.perform(get("/movies/page").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.movies.length()").value(CATALOGUE.size()))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+    }
+
+    @Test
+    void pagesUntilNextAfterIsNull() throws Exception {
+        mvc.perform(get("/movies/page").param("limit", "2"))
+                .andExpect(jsonPath("$.movies[*].movieId", contains(1, 2)))
+                .andExpect(jsonPath("$.nextAfter").value(2));
+        mvc.perform(get("/movies/page").param("after", "2").param("limit", "2"))
+                .andExpect(jsonPath("$.movies[*].movieId", contains(5, 6)))
+                .andExpect(jsonPath("$.nextAfter").value(6));
+        mvc.perform(get("/movies/page").param("after", "6").param("limit", "2"))
+                .andExpect(jsonPath("$.movies[*].movieId", contains(11)))
+                .andExpect(jsonPath("$.nextAfter").value((Object) null));
+
+        // A full last page still names a next one, which comes back empty.
+        mvc.perform(get("/movies/page").param("after", "5").param("limit", "2"))
+                .andExpect(jsonPath("$.nextAfter").value(11));
+        mvc.perform(get("/movies/page").param("after", "11").param("limit", "2"))
+                .andExpect(jsonPath("$.movies.length()").value(0))
+                .andExpect(jsonPath("$.nextAfter").value((Object) null));
+    }
+
+    @Test
+    void streamsTheSameArrayAsTheFullList() throws Exception {
+        String all = mvc.perform(get("/movies")).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        MvcResult started = mvc.perform(get("/movies/stream")).andExpect(request().asyncStarted()).andReturn();
+        String streamed = mvc.perform(asyncDispatch(started))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                                .andReturn().getResponse().getContentAsString();
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode expected = mapper.readTree(all), found = mapper.readTree(streamed);
+        assertEquals(CATALOGUE.size(), found.size());
+        assertEquals(expected, found);
+    }
+
+    private static Movie movie(long movieId, String title, String genres) {
+        Movie movie = new Movie(title, genres);
+        movie.setMovieId(movieId);
+        return movie;
+    }
+}
@@ -0,0 +1,87 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that batch scoring returns, in request order, what per-user requests return for every user of the
+ * bundled MovieLens data, and the NDJSON encoding of the results.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class BatchRecommendationTests {
+    private static final int TOP = 10;
+    private static final long UNKNOWN_USER = 999_999L;
+
+    private static CosineSimilarityService service;
+
+    @BeforeAll
+    static void loadModel() throws Exception {
+        service = ServiceFixtures.service(Mockito.mock(RatingRepository.class), Mockito.mock(MovieRepository.class),
+                                          Map.of("recommendation.data.source", "csv"));
+    }
+
+    @AfterAll
+    static void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void matchesPerUserRecommendations() throws Exception {
+        long[] userIds = Arrays.copyOf(service.userIds(), service.userIds().length + 1);
+        userIds[userIds.length - 1] = UNKNOWN_USER;
+        assertEquals(611, userIds.length);
+
+        // A small executor also exercises the slices scored on the caller when its queue is full.
+        RecommendationExecutor executor = new RecommendationExecutor(new SimpleMeterRegistry(), 2, 2, 1);
+        for(RecommendationAlgorithm algorithm : RecommendationAlgorithm.values()) {
+            List<Long> pooledUsers = new ArrayList<Long>(), executorUsers = new ArrayList<Long>();
+            List<List<Long>> pooled = new ArrayList<List<Long>>(), onExecutor = new ArrayList<List<Long>>();
+            service.recommendBatch(algorithm, userIds, TOP, (userId, recommendations) -> {
+                pooledUsers.add(userId);
+                pooled.add(recommendations.movieIds());
+            });
+            service.recommendBatch(algorithm, userIds, TOP, (userId, recommendations) -> {
+                executorUsers.add(userId);
+                onExecutor.add(recommendations.movieIds());
+            }, executor);
+
+            assertEquals(Arrays.stream(userIds).boxed().toList(), pooledUsers, algorithm.name());
+            assertEquals(pooledUsers, executorUsers, algorithm.name());
+            for(int i = 0; i < userIds.length; i++) {
+                List<Long> expected = service.recommend(algorithm, userIds[i], TOP).movieIds();
+                assertEquals(expected, pooled.get(i), algorithm + " user " + userIds[i]);
+                assertEquals(expected, onExecutor.get(i), algorithm + " user " + userIds[i]);
+            }
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        StringWriter out = new StringWriter();
+        RecommendationNdjson.writeLine(out, 7L, List.of(318L, 296L, 2571L));
+        RecommendationNdjson.writeLine(out, 8L, List.of());
+
+        assertEquals("{\"userId\":7,\"movieIds\":[318,296,2571]}\n{\"userId\":8,\"movieIds\":[]}\n", out.toString());
+        String[] lines = out.toString().split("\n");
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(7L, first.get("userId").asLong());
+        assertEquals(2571L, first.get("movieIds").get(2).asLong());
+        assertEquals(0, new ObjectMapper().readTree(lines[1]).get("movieIds").size());
+    }
+}
@@ -0,0 +1,118 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Rating;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the sorted-merge similarity kernels against map-based reference implementations
+ * on the bundled MovieLens ratings.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class CosineKernelTests {
+    private static Map<Long, Map<Long, Double>> userRatings;
+    private static RatingMatrix matrix;
+
+    @BeforeAll
+    static void loadRatings() throws Exception {
+        List<Rating> ratings = new ArrayList<Rating>();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(
+                CosineKernelTests.class.getResourceAsStream("/data/ratings.csv"), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            for(String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] fields = line.split(",");
+                ratings.add(new Rating(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                                        Double.parseDouble(fields[2]), Long.parseLong(fields[3])));
+            }
+        }
+        userRatings = ratings.stream()
+                                .collect(Collectors.groupingBy( Rating::getUserId,
+                                                                Collectors.toMap(Rating::getMovieId, Rating::getRating, (a, b) -> b)));
+        matrix      = RatingMatrix.build(ratings, new IdIndex(), new IdIndex());
+    }
+
+    /**
+     * Original implementation from CosineSimilarityService, kept as reference.
+     */
+    private static double referenceCosine(Map<Long, Double> user, Map<Long, Double> otherUser) {
+        Set<Long> commonMovies = new HashSet<>(user.keySet());
+        commonMovies.retainAll(otherUser.keySet());
+        if(commonMovies.isEmpty())
+            return 0.0;
+
+        double dotProduct = 0.0, userNorm = 0.0, otherUserNorm = 0.0;
+        for(Long movieId : commonMovies)
+            dotProduct += user.get(movieId) * otherUser.get(movieId);
+        for(double userRate : user.values())
+            userNorm += userRate * userRate;
+        for(double otherUserRate : otherUser.values())
+            otherUserNorm += otherUserRate * otherUserRate;
+        if(userNorm == 0 || otherUserNorm == 0)
+            return 0.0;
+        return dotProduct / (Math.sqrt(userNorm) * Math.sqrt(otherUserNorm));
+    }
+
+    @Test
+    void kernelMatchesReferenceOnAllPairs() {
+        assertEquals(userRatings.size(), matrix.userCount());
+        for(int u = 0; u < matrix.userCount(); u++) {
+            Map<Long, Double> user = userRatings.get(matrix.users().idAt(u));
+            for(int v = 0; v < matrix.userCount(); v++) {
+                Map<Long, Double> other = userRatings.get(matrix.users().idAt(v));
+                assertEquals(referenceCosine(user, other), CosineKernel.cosine(matrix, u, v), 1e-12);
+            }
+        }
+    }
+
+    /**
+     * Map-based cosine of co-rated ratings centered on the given means.
+     */
+    private static double referenceCentered(Map<Long, Double> user, Map<Long, Double> otherUser,
+                                            ToDoubleFunction<Long> userMean,
+                                            ToDoubleFunction<Long> otherMean) {
+        double dot = 0.0, userNorm = 0.0, otherUserNorm = 0.0;
+        for(Long movieId : user.keySet()) {
+            if(!otherUser.containsKey(movieId))
+                continue;
+            double x = user.get(movieId) - userMean.applyAsDouble(movieId);
+            double y = otherUser.get(movieId) - otherMean.applyAsDouble(movieId);
+            dot += x * y;
+            userNorm += x * x;
+            otherUserNorm += y * y;
+        }
+        return userNorm == 0 || otherUserNorm == 0 ? 0.0 : dot / Math.sqrt(userNorm * otherUserNorm);
+    }
+
+    @Test
+    void centeredKernelsMatchReference() {
+        Map<Long, Double> movieMeans = userRatings.values().stream()
+                .flatMap(ratings -> ratings.entrySet().stream())
+                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.averagingDouble(Map.Entry::getValue)));
+        for(int u = 0; u < matrix.userCount(); u += 7) {
+            Map<Long, Double> user = userRatings.get(matrix.users().idAt(u));
+            double userMean = user.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+            for(int v = 0; v < matrix.userCount(); v++) {
+                Map<Long, Double> other = userRatings.get(matrix.users().idAt(v));
+                double otherMean = other.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+                double pearson = referenceCentered(user, other, movie -> userMean, movie -> otherMean);
+                long common = user.keySet().stream().filter(other::containsKey).count();
+
+                assertEquals(pearson, CosineKernel.pearson(matrix, u, v), 1e-9);
+                assertEquals(pearson * Math.min(common, 50) / 50, CosineKernel.significanceWeighted(matrix, u, v, 50), 1e-9);
+                assertEquals(referenceCentered(user, other, movieMeans::get, movieMeans::get), CosineKernel.adjustedCosine(matrix, u, v), 1e-9);
+            }
+        }
+    }
+}
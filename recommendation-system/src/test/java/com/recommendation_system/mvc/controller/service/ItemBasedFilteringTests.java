@@ -0,0 +1,99 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import com.recommendation_system.mvc.model.entity.Rating;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Checks the rating neighbourhoods of movies and the item-based recommendations on a matrix small enough to
+ * compute by hand.
+ * <pre>
+ *          10  20  30  40  50
+ *  user 1   4   .   2   .   .
+ *  user 2   2   .   4   2   .
+ *  user 3   .   4   .   4   .
+ *  user 4   5   1   .   .   3
+ * </pre>
+ * Column norms are sqrt(45), sqrt(17), sqrt(20), sqrt(20) and 3.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class ItemBasedFilteringTests {
+    private static final int NEIGHBOURS = 2;
+    private static final List<Rating> RATINGS = List.of(
+            new Rating(1L, 10L, 4.0, 0L), new Rating(1L, 30L, 2.0, 0L),
+            new Rating(2L, 10L, 2.0, 0L), new Rating(2L, 30L, 4.0, 0L), new Rating(2L, 40L, 2.0, 0L),
+            new Rating(3L, 20L, 4.0, 0L), new Rating(3L, 40L, 4.0, 0L),
+            new Rating(4L, 10L, 5.0, 0L), new Rating(4L, 20L, 1.0, 0L), new Rating(4L, 50L, 3.0, 0L));
+
+    // Cosines of the co-rated pairs, every other pair is 0.
+    private static final double SIM_10_20 = 5 / Math.sqrt(45 * 17), SIM_10_30 = 16 / 30.0, SIM_10_40 = 4 / 30.0, SIM_10_50 = 15 / (Math.sqrt(45) * 3);
+    private static final double SIM_20_40 = 16 / Math.sqrt(17 * 20), SIM_20_50 = 3 / (Math.sqrt(17) * 3), SIM_30_40 = 8 / 20.0;
+
+    @Test
+    void keepsTheBestRatingNeighbours() {
+        IdIndex movies = new IdIndex();
+        RatingMatrix matrix = RatingMatrix.build(RATINGS, new IdIndex(), movies);
+        double[] norms = CosineKernel.movieNorms(matrix);
+        ItemSimilarityIndex index = ItemSimilarityIndex.build(matrix.movieCount(), NEIGHBOURS,
+                                                              (a, out) -> CosineKernel.movieCosines(matrix, norms, a, out));
+
+        // 10 drops 20 and 40, 20 drops 10, 40 drops 10: only the two best neighbours are kept, best first.
+        assertNeighbours(index, movies, 10L, new long[] { 50L, 30L }, new double[] { SIM_10_50, SIM_10_30 });
+        assertNeighbours(index, movies, 20L, new long[] { 40L, 50L }, new double[] { SIM_20_40, SIM_20_50 });
+        assertNeighbours(index, movies, 30L, new long[] { 10L, 40L }, new double[] { SIM_10_30, SIM_30_40 });
+        assertNeighbours(index, movies, 40L, new long[] { 20L, 30L }, new double[] { SIM_20_40, SIM_30_40 });
+        assertNeighbours(index, movies, 50L, new long[] { 10L, 20L }, new double[] { SIM_10_50, SIM_20_50 });
+        assertTrue(SIM_10_20 > SIM_10_40 && SIM_10_20 < SIM_10_30);
+    }
+
+    @Test
+    void recommendsUnratedNeighboursOfRatedMovies() throws Exception {
+        RatingRepository ratingRepository = Mockito.mock(RatingRepository.class);
+        MovieRepository movieRepository = Mockito.mock(MovieRepository.class);
+        Mockito.when(ratingRepository.findAll(any(Sort.class))).thenReturn(RATINGS);
+        Mockito.when(movieRepository.findAll()).thenReturn(List.of(
+                movie(10L, "Comedy"), movie(20L, "Drama"), movie(30L, "Comedy"), movie(40L, "Drama"), movie(50L, "Comedy")));
+        CosineSimilarityService service = ServiceFixtures.service(ratingRepository, movieRepository,
+                                                                  Map.of("recommendation.item-cf.neighbours", String.valueOf(NEIGHBOURS)));
+
+        // User 4 rated 10, 20 and 50: 30 scores 5 x sim(10, 30), 40 scores 1 x sim(20, 40), the rated movies never come back.
+        assertTrue(5 * SIM_10_30 > SIM_20_40);
+        assertEquals(List.of(30L, 40L), service.recommend(RecommendationAlgorithm.ITEM, 4L, 10).movieIds());
+        assertEquals(List.of(30L), service.recommend(RecommendationAlgorithm.ITEM, 4L, 1).movieIds());
+        assertEquals(List.of(40L), service.recommend(RecommendationAlgorithm.ITEM, 4L, 10, GenreFilter.of(List.of("Drama"), false)).movieIds());
+        assertEquals(List.of(30L), service.recommend(RecommendationAlgorithm.ITEM, 4L, 10, GenreFilter.of(List.of("Comedy"), false)).movieIds());
+        assertEquals(List.of(), service.recommend(RecommendationAlgorithm.ITEM, 4L, 10, GenreFilter.of(List.of("Comedy", "Drama"), true)).movieIds());
+        service.shutdown();
+    }
+
+    private static void assertNeighbours(ItemSimilarityIndex index, IdIndex movies, long movieId, long[] neighbourIds, double[] similarities) {
+        int movie = movies.indexOf(movieId);
+        int from = index.ptr()[movie], to = index.ptr()[movie + 1];
+        long[] found = new long[to - from];
+        double[] scores = new double[to - from];
+        for(int n = from; n < to; n++) {
+            found[n - from] = movies.idAt(index.neighbours()[n]);
+            scores[n - from] = index.similarities()[n];
+        }
+        assertArrayEquals(neighbourIds, found, "neighbours of " + movieId);
+        assertArrayEquals(similarities, scores, 1e-6, "similarities of " + movieId);
+    }
+
+    private static Movie movie(long movieId, String genres) {
+        Movie movie = new Movie("Movie " + movieId, genres);
+        movie.setMovieId(movieId);
+        return movie;
+    }
+}
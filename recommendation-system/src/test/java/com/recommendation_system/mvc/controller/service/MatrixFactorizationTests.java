@@ -0,0 +1,49 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Trains the ALS model on 90% of the bundled ratings and measures the error on the held-out 10%.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class MatrixFactorizationTests {
+    private static final int FACTORS            = 16;
+    private static final int ITERATIONS         = 10;
+    private static final double REGULARIZATION  = 0.2;
+
+    @Test
+    void beatsBiasBaselineOnHeldOutRatings() throws Exception {
+        RatingMatrix all;
+        IdIndex users = new IdIndex(), movies = new IdIndex();
+        try(InputStream in = MatrixFactorizationTests.class.getResourceAsStream("/data/ratings.csv")) {
+            all = MovieLensCsv.readRatings(in, users, movies);
+        }
+
+        // Split every user's ratings 90/10, both halves sharing the dictionaries.
+        List<Rating> train = new ArrayList<Rating>(), test = new ArrayList<Rating>();
+        Random random = new Random(7);
+        for(int u = 0; u < all.userCount(); u++)
+            for(int k = all.rowStart(u); k < all.rowEnd(u); k++) {
+                Rating rating = new Rating(users.idAt(u), movies.idAt(all.rowMovies(u)[k]), (double) all.rowRatings(u)[k], 0L);
+                (random.nextInt(10) == 0 ? test : train).add(rating);
+            }
+        RatingMatrix trainSet = RatingMatrix.build(train, users, movies);
+        RatingMatrix testSet = RatingMatrix.build(test, users, movies);
+
+        MatrixFactorization model = MatrixFactorization.train(trainSet, FACTORS, ITERATIONS, REGULARIZATION, 42);
+        MatrixFactorization baseline = MatrixFactorization.train(trainSet, FACTORS, 0, REGULARIZATION, 42);
+
+        double rmse = model.rmse(testSet), baselineRmse = baseline.rmse(testSet);
+        assertTrue(rmse < baselineRmse, "test RMSE " + rmse + " not below baseline " + baselineRmse);
+    }
+}
@@ -0,0 +1,117 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a model snapshot restores the same model and that damaged or stale snapshots are rejected.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class ModelSnapshotTests {
+    private static final int NEIGHBOURS = 20;
+    private static final String ORIGIN = "csv:classpath:data/ratings.csv,42,0";
+    private static final ModelSnapshot.Settings SETTINGS = new ModelSnapshot.Settings(NEIGHBOURS, 0.5, NEIGHBOURS, 4, 2, 0.2);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresTheSameModel() throws Exception {
+        IdIndex users = new IdIndex(), movies = new IdIndex();
+        RatingMatrix ratings;
+        List<Movie> catalogue;
+        try(InputStream in = ModelSnapshotTests.class.getResourceAsStream("/data/ratings.csv")) {
+            ratings = MovieLensCsv.readRatings(in, users, movies);
+        }
+        try(InputStream in = ModelSnapshotTests.class.getResourceAsStream("/data/movies.csv")) {
+            catalogue = MovieLensCsv.readMovies(in);
+        }
+        GenreFeatures features = GenreFeatures.build(catalogue, movies);
+        ItemSimilarityIndex itemIndex = ItemSimilarityIndex.build(features.movieCount(), NEIGHBOURS, features::similarities);
+        RatingMatrix trainingSet = ratings;
+        double[] movieNorms = CosineKernel.movieNorms(trainingSet);
+        ItemSimilarityIndex ratingItemIndex = ItemSimilarityIndex.build(trainingSet.movieCount(), NEIGHBOURS,
+                                                                        (a, out) -> CosineKernel.movieCosines(trainingSet, movieNorms, a, out));
+        MatrixFactorization factorization = MatrixFactorization.train(trainingSet, 4, 2, 0.2, 42L);
+
+        // Apply an update, so the writer has overlays to compact.
+        ratings = ratings.withRatings(new int[] { 0 }, new int[] { movies.size() - 1 }, new float[] { 4.5f }, 1);
+
+        Path file = directory.resolve("model.snapshot");
+        long bytes = ModelSnapshot.write(file, ORIGIN, ratings, features, itemIndex, ratingItemIndex, factorization, SETTINGS);
+        assertEquals(Files.size(file), bytes);
+        IdIndex restoredUsers = new IdIndex(), restoredMovies = new IdIndex();
+        ModelSnapshot.Model model = ModelSnapshot.read(file, ORIGIN, restoredUsers, restoredMovies);
+
+        RatingMatrix restored = model.ratings();
+        assertEquals(users.size(), restoredUsers.size());
+        assertEquals(movies.size(), restoredMovies.size());
+        for(int m = 0; m < movies.size(); m++)
+            assertEquals(movies.idAt(m), restoredMovies.idAt(m));
+        assertEquals(ratings.ratingCount(), restored.ratingCount());
+        for(int u = 0; u < ratings.userCount(); u++) {
+            assertEquals(users.idAt(u), restoredUsers.idAt(u));
+            assertArrayEquals(Arrays.copyOfRange(ratings.rowMovies(u), ratings.rowStart(u), ratings.rowEnd(u)),
+                              Arrays.copyOfRange(restored.rowMovies(u), restored.rowStart(u), restored.rowEnd(u)));
+            assertArrayEquals(Arrays.copyOfRange(ratings.rowRatings(u), ratings.rowStart(u), ratings.rowEnd(u)),
+                              Arrays.copyOfRange(restored.rowRatings(u), restored.rowStart(u), restored.rowEnd(u)));
+            assertEquals(ratings.userNorm(u), restored.userNorm(u), 1e-9);
+        }
+        for(int m = 0; m < ratings.movieCount(); m++)
+            assertEquals(ratings.colEnd(m) - ratings.colStart(m), restored.colEnd(m) - restored.colStart(m));
+
+        assertEquals(features.genreBits(), model.features().genreBits());
+        assertArrayEquals(features.masks(), model.features().masks());
+        assertArrayEquals(itemIndex.ptr(), model.itemIndex().ptr());
+        assertArrayEquals(itemIndex.neighbours(), model.itemIndex().neighbours());
+        assertArrayEquals(itemIndex.similarities(), model.itemIndex().similarities());
+        assertArrayEquals(ratingItemIndex.ptr(), model.ratingItemIndex().ptr());
+        assertArrayEquals(ratingItemIndex.neighbours(), model.ratingItemIndex().neighbours());
+        assertArrayEquals(ratingItemIndex.similarities(), model.ratingItemIndex().similarities());
+        assertArrayEquals(factorization.userFactors(), model.factorization().userFactors());
+        assertArrayEquals(factorization.movieFactors(), model.factorization().movieFactors());
+        assertEquals(factorization.predict(3, 5), model.factorization().predict(3, 5), 1e-6);
+        assertEquals(factorization.rmse(), model.factorization().rmse());
+        assertEquals(SETTINGS, model.settings());
+    }
+
+    @Test
+    void rejectsDamagedOrStaleSnapshot() throws Exception {
+        IdIndex users = new IdIndex(), movies = new IdIndex();
+        RatingMatrix ratings = RatingMatrix.build(users, movies, new int[0], new int[0], new float[0], 0);
+        users.getOrAdd(42);
+        movies.getOrAdd(7);
+        ratings = ratings.withRatings(new int[] { 0 }, new int[] { 0 }, new float[] { 3f }, 1);
+        GenreFeatures features = GenreFeatures.build(List.of(), movies);
+        ItemSimilarityIndex itemIndex = ItemSimilarityIndex.build(features.movieCount(), NEIGHBOURS, features::similarities);
+        MatrixFactorization factorization = MatrixFactorization.train(ratings, 4, 2, 0.2, 42L);
+
+        Path file = directory.resolve("model.snapshot");
+        ModelSnapshot.write(file, ORIGIN, ratings, features, itemIndex, itemIndex, factorization, SETTINGS);
+        IdIndex staleUsers = new IdIndex();
+        assertThrows(IOException.class, () -> ModelSnapshot.read(file, "database:1,1,3.0,0", staleUsers, new IdIndex()));
+        assertEquals(0, staleUsers.size());
+
+        byte[] content = Files.readAllBytes(file);
+        content[content.length / 2] ^= 1;
+        Files.write(file, content);
+
+        IdIndex restoredUsers = new IdIndex();
+        assertThrows(IOException.class, () -> ModelSnapshot.read(file, ORIGIN, restoredUsers, new IdIndex()));
+        assertEquals(0, restoredUsers.size());
+    }
+}
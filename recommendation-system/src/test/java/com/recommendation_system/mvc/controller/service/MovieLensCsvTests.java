@@ -0,0 +1,63 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the streaming MovieLens loaders on quoted fields and on the bundled dataset.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class MovieLensCsvTests {
+
+    @Test
+    void readsQuotedTitlesAndLineEndings() throws Exception {
+        String csv = "movieId,title,genres\r\n"
+                + "1,Toy Story (1995),Adventure|Animation\r\n"
+                + "11,\"American President, The (1995)\",Comedy|Drama|Romance\n"
+                + "12,\"Say \"\"Hi\"\" (2001)\",(no genres listed)";
+        List<Movie> movies = MovieLensCsv.readMovies(stream(csv));
+
+        assertEquals(3, movies.size());
+        assertEquals("American President, The (1995)", movies.get(1).getTitle());
+        assertEquals("Say \"Hi\" (2001)", movies.get(2).getTitle());
+        assertEquals(12L, movies.get(2).getMovieId());
+        assertEquals("(no genres listed)", movies.get(2).getGenres());
+    }
+
+    @Test
+    void readsRatingsIntoMatrix() throws Exception {
+        String csv = "userId,movieId,rating,timestamp\n1,10,4.0,964982703\n1,20,0.5,964981247\n2,10,3.5,964982224\n";
+        IdIndex users = new IdIndex(), movies = new IdIndex();
+        RatingMatrix matrix = MovieLensCsv.readRatings(stream(csv), users, movies);
+
+        assertEquals(3, matrix.ratingCount());
+        assertEquals(2, matrix.userCount());
+        int user = users.indexOf(1);
+        assertEquals(0.5f, matrix.rowRatings(user)[matrix.rowStart(user) + 1]);
+        assertEquals(20L, movies.idAt(matrix.rowMovies(user)[matrix.rowStart(user) + 1]));
+    }
+
+    @Test
+    void loadsBundledDataset() throws Exception {
+        RatingMatrix matrix;
+        try(InputStream in = MovieLensCsvTests.class.getResourceAsStream("/data/ratings.csv")) {
+            matrix = MovieLensCsv.readRatings(in, new IdIndex(), new IdIndex());
+        }
+
+        assertEquals(100836, matrix.ratingCount());
+        assertEquals(610, matrix.userCount());
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import com.recommendation_system.mvc.model.entity.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the Bayesian-average ranking by hand and the per-genre walks against filtering the global order.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class PopularityRankingTests {
+
+    @Test
+    void shrinksSparseMoviesTowardsTheMean() {
+        // Movie 10: one 5.0. Movie 20: four 4.5. Movie 30: four 2.0. Mean 31 / 9, prior 3 ratings.
+        List<Rating> ratings = List.of( new Rating(1L, 10L, 5.0, 0L),
+                                        new Rating(1L, 20L, 4.5, 0L), new Rating(2L, 20L, 4.5, 0L),
+                                        new Rating(3L, 20L, 4.5, 0L), new Rating(4L, 20L, 4.5, 0L),
+                                        new Rating(1L, 30L, 2.0, 0L), new Rating(2L, 30L, 2.0, 0L),
+                                        new Rating(3L, 30L, 2.0, 0L), new Rating(4L, 30L, 2.0, 0L));
+        IdIndex movies = new IdIndex();
+        RatingMatrix matrix = RatingMatrix.build(ratings, new IdIndex(), movies);
+        PopularityRanking ranking = PopularityRanking.build(matrix, GenreFeatures.build(List.of(), movies), 0);
+
+        assertEquals(3.0, ranking.prior());
+        assertEquals((3 * 31 / 9.0 + 5.0) / 4, ranking.score(movies.indexOf(10L)), 1e-6);
+        int[] expected = { movies.indexOf(20L), movies.indexOf(10L), movies.indexOf(30L) };
+        assertArrayEquals(expected, ranking.top(10, GenreFilter.NONE, null, movie -> false));
+        assertArrayEquals(new int[] { expected[1] }, ranking.top(1, GenreFilter.NONE, null, movie -> movie == expected[0]));
+    }
+
+    @Test
+    void genreWalksMatchFilteredOrder() throws Exception {
+        IdIndex users = new IdIndex(), movies = new IdIndex();
+        List<Movie> catalogue;
+        try(InputStream in = PopularityRankingTests.class.getResourceAsStream("/data/movies.csv")) {
+            catalogue = MovieLensCsv.readMovies(in);
+        }
+        GenreFeatures features = GenreFeatures.build(catalogue, movies);
+        RatingMatrix matrix;
+        try(InputStream in = PopularityRankingTests.class.getResourceAsStream("/data/ratings.csv")) {
+            matrix = MovieLensCsv.readRatings(in, users, movies);
+        }
+        PopularityRanking ranking = PopularityRanking.build(matrix, features, 0);
+        int[] all = ranking.top(Integer.MAX_VALUE, GenreFilter.NONE, null, movie -> false);
+
+        for(GenreFilter filter : List.of(   GenreFilter.of(List.of("Horror"), false), GenreFilter.of(List.of("Comedy", "Romance"), true),
+                                            GenreFilter.of(List.of("Western", "Film-Noir"), false), GenreFilter.of(List.of("Nope"), false))) {
+            long[] allowed = features.select(filter);
+            int[] expected = Arrays.stream(all).filter(movie -> GenreFeatures.contains(allowed, movie)).limit(20).toArray();
+            assertArrayEquals(expected, ranking.top(20, filter, allowed, movie -> false), filter.toString());
+        }
+        assertEquals(all.length, IntStream.range(0, matrix.movieCount()).filter(movie -> matrix.colEnd(movie) > matrix.colStart(movie)).count());
+    }
+}
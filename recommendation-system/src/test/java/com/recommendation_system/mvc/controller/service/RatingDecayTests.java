@@ -0,0 +1,68 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the decay weights and that rebasing them leaves user similarities unchanged.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class RatingDecayTests {
+    private static final long DAY = 86_400L;
+
+    @Test
+    void halvesEveryHalfLife() {
+        RatingDecay decay = RatingDecay.of(Duration.ofDays(10), 100 * DAY);
+        assertEquals(1.0, decay.weight(100 * DAY), 1e-6);
+        assertEquals(0.5, decay.weight(90 * DAY), 1e-6);
+        assertEquals(0.25, decay.weight(80 * DAY), 1e-6);
+        assertEquals(0.5, decay.factor(110 * DAY), 1e-6);
+        assertEquals(0.5, decay.rebased(110 * DAY).weight(100 * DAY), 1e-6);
+        assertEquals(1.0, RatingDecay.of(Duration.ZERO, 100 * DAY).weight(0L));
+
+        // Without decay the loaded matrices are shared.
+        RatingDecay.Matrices matrices = RatingMatrix.build(List.of(new Rating(1L, 10L, 4.0, 0L)), new IdIndex(), new IdIndex(), RatingDecay.NONE);
+        assertSame(matrices.ratings(), matrices.decayed());
+    }
+
+    @Test
+    void rebaseKeepsSimilarities() throws Exception {
+        IdIndex users = new IdIndex(), movies = new IdIndex();
+        RatingDecay decay = RatingDecay.of(Duration.ofDays(365), 1_500_000_000L);
+        RatingDecay.Matrices matrices;
+        try(InputStream in = RatingDecayTests.class.getResourceAsStream("/data/ratings.csv")) {
+            matrices = MovieLensCsv.readRatings(in, users, movies, decay);
+        }
+        RatingMatrix decayed = matrices.decayed();
+        RatingMatrix rebased = decayed.scaled(decay.factor(1_600_000_000L));
+        assertEquals(decayed.version(), rebased.version());
+        assertEquals(matrices.ratings().ratingCount(), decayed.ratingCount());
+
+        for(int user = 0; user < 20; user++) {
+            TopK expected = this.neighbours(decayed, user), actual = this.neighbours(rebased, user);
+            for(int rank = 0; rank < expected.size(); rank++) {
+                assertEquals(expected.score(rank), actual.score(rank), 1e-5, "user " + user);
+                int other = expected.id(rank);
+                assertEquals(CosineKernel.pearson(decayed, user, other), CosineKernel.pearson(rebased, user, other), 1e-4);
+            }
+        }
+    }
+
+    private TopK neighbours(RatingMatrix matrix, int target) {
+        TopK top = new TopK(10);
+        for(int user = 0; user < matrix.userCount(); user++) {
+            if(user != target)
+                top.offer(user, CosineKernel.cosine(matrix, target, user));
+        }
+        return top.sort();
+    }
+}
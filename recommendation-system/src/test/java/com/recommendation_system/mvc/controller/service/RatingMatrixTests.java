@@ -0,0 +1,82 @@
+package com.recommendation_system.mvc.controller.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that incremental updates of the rating matrix match a full build.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class RatingMatrixTests {
+    private static final int USERS      = 200;
+    private static final int MOVIES     = 500;
+    private static final int RATINGS    = 20_000;
+
+    @Test
+    void incrementalUpdatesMatchFullBuild() {
+        Random random = new Random(7);
+        int[] users = new int[RATINGS], movies = new int[RATINGS];
+        float[] ratings = new float[RATINGS];
+        for(int i = 0; i < RATINGS; i++) {
+            users[i] = random.nextInt(USERS);
+            movies[i] = random.nextInt(MOVIES);
+            ratings[i] = (1 + random.nextInt(10)) / 2f;
+        }
+
+        // The last 10% (and some brand new users and movies) arrive as updates in small batches.
+        IdIndex userIndex = new IdIndex(), movieIndex = new IdIndex();
+        int split = RATINGS * 9 / 10;
+        for(int i = 0; i < split; i++) {
+            userIndex.getOrAdd(users[i]);
+            movieIndex.getOrAdd(movies[i]);
+        }
+        RatingMatrix incremental = RatingMatrix.build(userIndex, movieIndex, dense(users, userIndex, split), dense(movies, movieIndex, split), ratings, split);
+        for(int start = split; start < RATINGS; start += 97) {
+            int end = Math.min(RATINGS, start + 97);
+            int[] batchUsers = new int[end - start], batchMovies = new int[end - start];
+            for(int i = start; i < end; i++) {
+                batchUsers[i - start] = userIndex.getOrAdd(users[i]);
+                batchMovies[i - start] = movieIndex.getOrAdd(movies[i]);
+            }
+            incremental = incremental.withRatings(batchUsers, batchMovies, Arrays.copyOfRange(ratings, start, end), end - start);
+        }
+
+        RatingMatrix full = RatingMatrix.build(userIndex, movieIndex, dense(users, userIndex, RATINGS), dense(movies, movieIndex, RATINGS), ratings, RATINGS);
+        assertSameContent(full, incremental);
+        assertSameContent(full, incremental.compact());
+        assertEquals(incremental.version(), incremental.compact().version());
+    }
+
+    private static int[] dense(int[] ids, IdIndex index, int size) {
+        int[] dense = new int[size];
+        for(int i = 0; i < size; i++)
+            dense[i] = index.indexOf(ids[i]);
+        return dense;
+    }
+
+    private static void assertSameContent(RatingMatrix expected, RatingMatrix actual) {
+        assertEquals(expected.userCount(), actual.userCount());
+        assertEquals(expected.movieCount(), actual.movieCount());
+        assertEquals(expected.ratingCount(), actual.ratingCount());
+        for(int u = 0; u < expected.userCount(); u++) {
+            assertArrayEquals(  Arrays.copyOfRange(expected.rowMovies(u), expected.rowStart(u), expected.rowEnd(u)),
+                                Arrays.copyOfRange(actual.rowMovies(u), actual.rowStart(u), actual.rowEnd(u)));
+            assertArrayEquals(  Arrays.copyOfRange(expected.rowRatings(u), expected.rowStart(u), expected.rowEnd(u)),
+                                Arrays.copyOfRange(actual.rowRatings(u), actual.rowStart(u), actual.rowEnd(u)));
+            assertEquals(expected.userNorm(u), actual.userNorm(u), 1e-9);
+        }
+        for(int m = 0; m < expected.movieCount(); m++) {
+            assertArrayEquals(  Arrays.copyOfRange(expected.colUsers(m), expected.colStart(m), expected.colEnd(m)),
+                                Arrays.copyOfRange(actual.colUsers(m), actual.colStart(m), actual.colEnd(m)));
+            assertArrayEquals(  Arrays.copyOfRange(expected.colRatings(m), expected.colStart(m), expected.colEnd(m)),
+                                Arrays.copyOfRange(actual.colRatings(m), actual.colStart(m), actual.colEnd(m)));
+        }
+    }
+}
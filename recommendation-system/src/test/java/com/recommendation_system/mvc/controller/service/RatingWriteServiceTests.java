@@ -0,0 +1,56 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Rating;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Checks that ratings are upserted on user and movie, keeping the row a model rebuild reads last.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class RatingWriteServiceTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replacesExistingRowsAndDeletesDuplicates() {
+        RatingRepository repository = Mockito.mock(RatingRepository.class);
+        CosineSimilarityService model = Mockito.mock(CosineSimilarityService.class);
+        RecommendationCache cache = Mockito.mock(RecommendationCache.class);
+        RatingWriteService service = new RatingWriteService(repository, model, cache, Mockito.mock(PlatformTransactionManager.class));
+
+        // User 1 rated movie 10 twice already, in rows 5 and 9.
+        Rating older = new Rating(1L, 10L, 2.0, 100L), newer = new Rating(1L, 10L, 3.0, 200L);
+        older.setRatingId(5L);
+        newer.setRatingId(9L);
+        Mockito.when(repository.findByUserIdAndMovieIdIn(anyLong(), anyCollection())).thenAnswer(invocation ->
+                invocation.getArgument(0, Long.class) == 1L ? List.of(newer, older) : List.of());
+        Mockito.when(repository.saveAll(any(Iterable.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(model.applyRatings(any(Supplier.class))).thenAnswer(invocation -> invocation.getArgument(0, Supplier.class).get());
+
+        List<Rating> saved = service.upsert(List.of(   new Rating(1L, 10L, 4.0, 300L), new Rating(1L, 20L, 1.0, 300L),
+                                                        new Rating(1L, 10L, 4.5, 300L), new Rating(2L, 10L, 5.0, 300L)));
+
+        // The last rating of a movie in the batch wins and takes the highest existing ID.
+        assertEquals(3, saved.size());
+        assertEquals(9L, saved.get(0).getRatingId());
+        assertEquals(4.5, saved.get(0).getRating());
+        assertNull(saved.get(1).getRatingId());
+        assertNull(saved.get(2).getRatingId());
+        Mockito.verify(repository).deleteAllByIdInBatch(List.of(5L));
+        Mockito.verify(cache).invalidateUser(1L);
+        Mockito.verify(cache).invalidateUser(2L);
+    }
+}
@@ -0,0 +1,163 @@
+package com.recommendation_system.mvc.controller.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Checks that concurrent misses of the same request share one computation, and that overload, of single requests
+ * or batches, is rejected cleanly.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class RecommendationCacheTests {
+    private static final int CALLERS = 8;
+
+    @Test
+    void coalescesConcurrentMisses() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        CosineSimilarityService recommender = Mockito.mock(CosineSimilarityService.class);
+        Mockito.when(recommender.recommend(any(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            computations.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return new Recommendations(List.of(10L, 20L), new long[] { 2L });
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RecommendationCache cache = new RecommendationCache(recommender, registry, 100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<List<Long>>> results = new ArrayList<Future<List<Long>>>();
+        for(int i = 0; i < CALLERS; i++)
+            results.add(callers.submit(() -> cache.recommend(RecommendationAlgorithm.HYBRID, 1L, 10)));
+        while(registry.counter("recommendation.coalesced", "algorithm", "hybrid", "result", "joined").count() < CALLERS - 1)
+            Thread.sleep(1);
+        release.countDown();
+        for(Future<List<Long>> result : results)
+            assertEquals(List.of(10L, 20L), result.get(5, TimeUnit.SECONDS));
+        callers.shutdown();
+
+        assertEquals(1, computations.get());
+        assertEquals(CALLERS - 1, registry.summary("recommendation.coalesced.callers", "algorithm", "hybrid").totalAmount());
+        assertEquals(List.of(10L, 20L), cache.recommend(RecommendationAlgorithm.HYBRID, 1L, 10));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void recomputesAfterBoundedWait() {
+        AtomicInteger computations = new AtomicInteger();
+        CosineSimilarityService recommender = Mockito.mock(CosineSimilarityService.class);
+        RecommendationCache cache = new RecommendationCache(recommender, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofMillis(10));
+        Mockito.when(recommender.recommend(any(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            // The first computation is still in flight when the nested caller joins it, so the caller times out.
+            if(computations.incrementAndGet() == 1)
+                return new Recommendations(cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5), new long[0]);
+            return new Recommendations(List.of(30L), new long[0]);
+        });
+
+        assertEquals(List.of(30L), cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void dropsResultInvalidatedBeforeItIsCached() {
+        AtomicInteger computations = new AtomicInteger();
+        CosineSimilarityService recommender = Mockito.mock(CosineSimilarityService.class);
+        RecommendationCache cache = new RecommendationCache(recommender, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        Mockito.when(recommender.recommend(any(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            // The user rates a movie after the result is computed and before it is cached.
+            if(computations.incrementAndGet() == 1)
+                cache.invalidateUser(1L);
+            return new Recommendations(List.of(50L + computations.get()), new long[] { 2L });
+        });
+
+        assertEquals(List.of(51L), cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5));
+        assertEquals(List.of(52L), cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5));
+        assertEquals(List.of(52L), cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5));
+        assertEquals(2, computations.get());
+
+        // The cached result is still registered, so a later rating of its neighbour evicts it.
+        cache.invalidateUser(2L);
+        assertEquals(List.of(53L), cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5));
+    }
+
+    @Test
+    void cachesResultsUnrelatedToConcurrentWrites() {
+        AtomicInteger computations = new AtomicInteger();
+        CosineSimilarityService recommender = Mockito.mock(CosineSimilarityService.class);
+        RecommendationCache cache = new RecommendationCache(recommender, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        Mockito.when(recommender.recommend(any(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            // Another user rates while user 1 is computed, then the neighbour of user 4 does.
+            computations.incrementAndGet();
+            cache.invalidateUser(invocation.getArgument(1, Long.class) == 1L ? 3L : 2L);
+            return new Recommendations(List.of(60L), new long[] { 2L });
+        });
+
+        cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5);
+        cache.recommend(RecommendationAlgorithm.COSINE, 1L, 5);
+        assertEquals(1, computations.get());
+        cache.recommend(RecommendationAlgorithm.COSINE, 4L, 5);
+        cache.recommend(RecommendationAlgorithm.COSINE, 4L, 5);
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    void rejectsWhenExecutorIsSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1), drained = new CountDownLatch(1);
+        CosineSimilarityService recommender = Mockito.mock(CosineSimilarityService.class);
+        Mockito.when(recommender.recommend(any(), anyLong(), anyInt(), any())).thenReturn(new Recommendations(List.of(40L), new long[0]));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RecommendationCache cache = new RecommendationCache(recommender, registry, 100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        RecommendationExecutor executor = new RecommendationExecutor(registry, 1, 1, 1);
+
+        // One task running and one queued saturate the executor.
+        executor.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(drained::countDown);
+        assertThrows(RejectedExecutionException.class, () -> cache.recommendAsync(RecommendationAlgorithm.ITEM, 1L, 5, GenreFilter.NONE, executor));
+        assertEquals(1, registry.counter("recommendation.executor.rejected").count());
+
+        // The rejected flight is not left behind for later callers to join.
+        release.countDown();
+        drained.await(5, TimeUnit.SECONDS);
+        assertEquals(List.of(40L), cache.recommendAsync(RecommendationAlgorithm.ITEM, 1L, 5, GenreFilter.NONE, executor).get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsBatchesBeyondPermits() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RecommendationExecutor executor = new RecommendationExecutor(registry, 1, 1, 1);
+
+        executor.acquireBatch();
+        assertThrows(RejectedExecutionException.class, executor::acquireBatch);
+        assertEquals(1, registry.counter("recommendation.executor.rejected").count());
+        executor.releaseBatch();
+        executor.acquireBatch();
+        executor.shutdown();
+    }
+}
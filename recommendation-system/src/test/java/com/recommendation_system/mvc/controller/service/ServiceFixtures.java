@@ -0,0 +1,51 @@
+package com.recommendation_system.mvc.controller.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.ApplicationConversionService;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+/**
+ * Builds a recommendation service outside the Spring context, for tests that go through its public API.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+final class ServiceFixtures {
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private ServiceFixtures() {
+    }
+
+    /**
+     * Create and initialize a service.
+     * Every {@link Value} field takes the property given, or else the default of its expression.
+     *
+     * @param ratingRepository  Repository for Rating entity, unused in csv mode.
+     * @param movieRepository   Repository for Movie entity, unused in csv mode.
+     * @param properties        Properties overriding the defaults, e.g. {@code recommendation.data.source}.
+     * @return                  The service with its model loaded.
+     */
+    static CosineSimilarityService service(RatingRepository ratingRepository, MovieRepository movieRepository,
+                                            Map<String, String> properties) throws IllegalAccessException {
+        CosineSimilarityService service = new CosineSimilarityService(ratingRepository, movieRepository, new SimpleMeterRegistry());
+        for(Field field : CosineSimilarityService.class.getDeclaredFields()) {
+            Value value = field.getAnnotation(Value.class);
+            if(value == null)
+                continue;
+
+            // Expressions have the form ${name:default}.
+            String expression = value.value().substring(2, value.value().length() - 1);
+            int separator = expression.indexOf(':');
+            String property = properties.getOrDefault(expression.substring(0, separator), expression.substring(separator + 1));
+            field.setAccessible(true);
+            field.set(service, ApplicationConversionService.getSharedInstance().convert(property, field.getType()));
+        }
+        service.initModel();
+        return service;
+    }
+}
@@ -0,0 +1,58 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the TF-IDF tag profiles against hand-computed weights and the sparse kernel against the pairwise merge.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class TagFeaturesTests {
+
+    @Test
+    void weightsRareTagsAndIgnoresCase() {
+        // Movie 0: "funny" twice and "Pixar"; movie 1: "funny"; movie 2: "pixar"; movie 3 untagged.
+        int[] movies = { 0, 0, 0, 1, 2, 7 };
+        String[] tags = { "funny", " Funny", "Pixar", "funny", "pixar", "ignored" };
+        TagFeatures features = TagFeatures.build(movies, tags, movies.length, 4);
+
+        assertEquals(2, features.termCount());
+        assertEquals(3, features.taggedMovies());
+        double funny = (1 + Math.log(2)) * Math.log(3 / 2.0), pixar = Math.log(3 / 2.0);
+        assertEquals(funny / Math.hypot(funny, pixar), features.similarity(0, 1), 1e-6);
+        assertEquals(0.0, features.similarity(1, 2));
+        assertEquals(0.0, features.similarity(0, 3));
+    }
+
+    @Test
+    void sparseKernelMatchesMerge() throws Exception {
+        IdIndex index = new IdIndex();
+        List<Movie> catalogue;
+        try(InputStream in = TagFeaturesTests.class.getResourceAsStream("/data/movies.csv")) {
+            catalogue = MovieLensCsv.readMovies(in);
+        }
+        GenreFeatures genres = GenreFeatures.build(catalogue, index);
+        TagFeatures tags;
+        try(InputStream in = TagFeaturesTests.class.getResourceAsStream("/data/tags.csv")) {
+            tags = MovieLensCsv.readTags(in, index, genres.movieCount());
+        }
+        assertTrue(tags.taggedMovies() > 0);
+
+        double[] row = new double[genres.movieCount()];
+        for(int a = 0; a < genres.movieCount(); a += 97) {
+            Arrays.fill(row, 0.0);
+            tags.addSimilarities(a, 1.0, row);
+            for(int b = 0; b < row.length; b++)
+                assertEquals(tags.similarity(a, b), row[b], 1e-9);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.recommendation_system.mvc.controller.service;
+
+import com.recommendation_system.mvc.model.entity.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the title index with a linear scan of the bundled catalogue.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class TitleSearchIndexTests {
+    private static final String[] KEYWORDS = { "a", "th", "star", "STAR WARS", "the ", "(1995)", "zzzz", "lord of", "x-" };
+
+    @Test
+    void matchesLinearScan() throws Exception {
+        List<Movie> movies;
+        try(InputStream in = TitleSearchIndexTests.class.getResourceAsStream("/data/movies.csv")) {
+            movies = MovieLensCsv.readMovies(in);
+        }
+        TitleSearchIndex index = TitleSearchIndex.build(movies);
+
+        for(String keyword : KEYWORDS) {
+            String query = keyword.toLowerCase(Locale.ROOT);
+            List<Long> expected = movies.stream()
+                    .filter(movie -> movie.getTitle().toLowerCase(Locale.ROOT).contains(query))
+                    .map(Movie::getMovieId).sorted().limit(50).toList();
+            List<Long> expectedPrefix = movies.stream()
+                    .filter(movie -> Arrays.stream(movie.getTitle().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                                           .anyMatch(word -> !query.isBlank() && word.startsWith(query.strip())))
+                    .map(Movie::getMovieId).sorted().limit(50).toList();
+
+            List<Long> found = index.contains(keyword, 50).stream().map(Movie::getMovieId).toList();
+            List<Long> foundPrefix = index.prefix(keyword, 50).stream().map(Movie::getMovieId).toList();
+
+            assertEquals(expected, found, keyword);
+            if(query.strip().chars().allMatch(Character::isLetterOrDigit))
+                assertEquals(expectedPrefix, foundPrefix, keyword);
+        }
+    }
+
+    @Test
+    void findsAddedMoviesIgnoringAccents() {
+        Movie amelie = new Movie();
+        amelie.setMovieId(5L);
+        amelie.setTitle("Le fabuleux destin d'Amélie Poulain (2001)");
+        TitleSearchIndex index = TitleSearchIndex.build(List.of()).withMovie(amelie);
+
+        assertEquals(List.of(amelie), index.contains("AMELIE", 10));
+        assertEquals(List.of(amelie), index.prefix("poul", 10));
+        assertEquals(List.of(), index.prefix("oulain", 10));
+
+        // A movie already indexed, e.g. read from the source after it was saved, is not added twice.
+        assertEquals(List.of(amelie), index.withMovie(amelie).contains("amelie", 10));
+        assertEquals(List.of(amelie), TitleSearchIndex.build(List.of(amelie)).withMovie(amelie).contains("amelie", 10));
+    }
+}
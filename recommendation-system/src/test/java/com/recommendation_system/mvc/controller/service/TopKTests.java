@@ -0,0 +1,52 @@
+package com.recommendation_system.mvc.controller.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks the bounded top-K selector against a full sort.
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class TopKTests {
+
+    @Test
+    void matchesFullSortWithDeterministicTies() {
+        Random random = new Random(42);
+        double[] scores = new double[10_000];
+        for(int i = 0; i < scores.length; i++)
+            scores[i] = random.nextInt(50);     // Many ties.
+
+        for(int k : new int[] { 1, 5, 37, 10_000, 20_000 }) {
+            TopK top = new TopK(k);
+            for(int i = 0; i < scores.length; i++)
+                top.offer(i, scores[i]);
+
+            int[] expected = IntStream.range(0, scores.length)
+                                        .boxed()
+                                        .sorted((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : Integer.compare(a, b))
+                                        .limit(k)
+                                        .mapToInt(Integer::intValue)
+                                        .toArray();
+            assertArrayEquals(expected, top.toIdArray());
+        }
+    }
+
+    @Test
+    void ignoresNaNAndMergesPartitions() {
+        TopK left = new TopK(3), right = new TopK(3), merged = new TopK(3);
+        left.offer(1, 0.5);
+        left.offer(2, Double.NaN);
+        left.offer(3, 0.9);
+        right.offer(4, 0.9);
+        right.offer(5, 0.1);
+        merged.offerAll(left);
+        merged.offerAll(right.sort());
+        assertArrayEquals(new int[] { 3, 4, 1 }, merged.toIdArray());
+    }
+}
@@ -0,0 +1,58 @@
+package com.recommendation_system.mvc.controller.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the LSH user index with the exact scan on the bundled dataset (recall@K).
+ *
+ * @author Daniele Vencato
+ * @since 2026-10
+ */
+class UserLshIndexTests {
+    private static final int K          = 10;
+    private static final int TABLES     = 64;
+    private static final int BITS       = 10;
+    private static final int PROBES     = 4;
+
+    @Test
+    void recallAgainstExactSearch() throws Exception {
+        RatingMatrix matrix;
+        try(InputStream in = UserLshIndexTests.class.getResourceAsStream("/data/ratings.csv")) {
+            matrix = MovieLensCsv.readRatings(in, new IdIndex(), new IdIndex());
+        }
+        int users = matrix.userCount();
+        UserLshIndex index = UserLshIndex.build(matrix, TABLES, BITS, PROBES, 42);
+
+        double recall = 0;
+        long scanned = 0;
+        for(int target = 0; target < users; target++) {
+            int user = target;
+            IntToDoubleFunction similarity = other -> CosineKernel.cosine(matrix, user, other);
+
+            int[] exact = UserSimilarityTask.scan(0, users, target, K, similarity).toIdArray();
+            int[] candidates = new int[1];
+            TopK top = index.query(matrix, target, K, other -> {
+                candidates[0]++;
+                return similarity.applyAsDouble(other);
+            });
+            int[] approximate = (top != null ? top : UserSimilarityTask.scan(0, users, target, K, similarity)).toIdArray();
+            scanned += top != null ? candidates[0] : users;
+
+            int found = 0;
+            for(int e : exact)
+                for(int a : approximate)
+                    if(a == e)
+                        found++;
+            recall += (double) found / exact.length;
+        }
+        recall /= users;
+        double fraction = (double) scanned / users / users;
+        assertTrue(recall >= 0.8, "recall@" + K + " " + recall);
+        assertTrue(fraction <= 0.5, "scored fraction " + fraction);
+    }
+}